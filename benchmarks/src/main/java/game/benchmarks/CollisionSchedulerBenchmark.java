@@ -0,0 +1,65 @@
+package game.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.CollisionScheduler;
+import game.Ship;
+import game.World;
+
+/**
+ * Benchmarks of a collision scheduler that makes the ships of a dense world bounce off each other. The ships start on a
+ * lattice with a spacing of a few radii, so every ship collides about once per second, for every number of ships.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollisionSchedulerBenchmark {
+
+	@Param({ "1000", "100000" })
+	public int nbShips;
+
+	private CollisionScheduler scheduler;
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		Random random = new Random(42);
+		int side = (int) Math.ceil(Math.sqrt(nbShips));
+		World world = new World();
+		for (int i = 0; i < nbShips; i++)
+			world.addShip(new Ship(i % side * 50, i / side * 50, random.nextDouble() * 40 - 20,
+					random.nextDouble() * 40 - 20, 10 + random.nextDouble() * 10, 0));
+		scheduler = new CollisionScheduler(world);
+		scheduler.setBouncing(true);
+		scheduler.advance(0);
+	}
+
+	/**
+	 * One frame of the game: all ships move for a sixtieth of a second, bouncing off every ship they hit.
+	 */
+	@Benchmark
+	public long advanceOneFrame() {
+		scheduler.advance(1 / 60.);
+		return scheduler.getNbCollisions();
+	}
+
+}
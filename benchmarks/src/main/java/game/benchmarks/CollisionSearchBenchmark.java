@@ -0,0 +1,152 @@
+package game.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Ship;
+import game.ShipStore;
+import game.SweepAndPrune;
+import game.World;
+
+/**
+ * Benchmarks of collision searches over a world of randomly placed ships. The density of the ships is the same for every
+ * number of ships.
+ * The all-pairs search is quadratic in the number of ships and takes seconds per operation for the largest worlds.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CollisionSearchBenchmark {
+
+	@Param({ "10", "1000", "100000" })
+	public int nbShips;
+
+	private Ship[] ships;
+	private World world;
+	private ShipStore store;
+	private double[] times;
+	private double[] positions;
+	private SweepAndPrune sweepAndPrune;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		double side = Math.sqrt(nbShips) * 200;
+		ships = new Ship[nbShips];
+		world = new World();
+		for (int i = 0; i < nbShips; i++) {
+			ships[i] = new Ship(random.nextDouble() * side, random.nextDouble() * side, random.nextDouble() * 2 * Math.PI,
+					random.nextDouble() * 100, 10 + random.nextDouble() * 20);
+			world.addShip(ships[i]);
+		}
+		store = new ShipStore(nbShips);
+		for (Ship ship : ships)
+			store.add(ship.getX(), ship.getY(), ship.getXVelocity(), ship.getYVelocity(), ship.getRadius(),
+					ship.getDirection());
+		times = new double[nbShips];
+		positions = new double[2 * nbShips];
+		sweepAndPrune = new SweepAndPrune(world);
+		sweepAndPrune.update();
+	}
+
+	/**
+	 * The search done by the view for the selected ship.
+	 */
+	@Benchmark
+	public double nextCollisionOfOneShip() {
+		Ship selected = ships[0];
+		double min = Double.POSITIVE_INFINITY;
+		for (Ship ship : ships) {
+			double dt = selected.getTimeToCollision(ship);
+			if (dt < min)
+				min = dt;
+		}
+		return min;
+	}
+
+	/**
+	 * The same search as nextCollisionOfOneShip, through the batched query on ships.
+	 */
+	@Benchmark
+	public int nextCollisionOfOneShipBatched() {
+		return ships[0].getTimesToCollision(ships, times);
+	}
+
+	/**
+	 * The same search as nextCollisionOfOneShip, through the branch-free loop over the columns of a ship store.
+	 */
+	@Benchmark
+	public int nextCollisionOfOneShipColumns() {
+		return store.getTimesToCollision(0, 0, nbShips, times);
+	}
+
+	/**
+	 * The crosshairs drawn by the view for the selected ship: the times until collision and the collision positions with
+	 * every ship, the positions computed from the times in a single pass over the columns of a ship store.
+	 */
+	@Benchmark
+	public double[] collisionPositionsOfOneShipColumns() {
+		store.getTimesToCollision(0, 0, nbShips, times);
+		store.getCollisionPositions(0, 0, nbShips, times, positions);
+		return positions;
+	}
+
+	@Benchmark
+	public double nextCollisionAllPairs() {
+		double min = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < ships.length; i++) {
+			for (int j = i + 1; j < ships.length; j++) {
+				double dt = ships[i].getTimeToCollision(ships[j]);
+				if (dt < min)
+					min = dt;
+			}
+		}
+		return min;
+	}
+
+	@Benchmark
+	public List<Ship[]> overlappingPairs() {
+		return world.getOverlappingPairs();
+	}
+
+	/**
+	 * One frame of the game: all ships move for a sixtieth of a second, and the overlapping pairs are searched with the
+	 * spatial grid of the world.
+	 */
+	@Benchmark
+	public List<Ship[]> overlappingPairsNextFrame() {
+		for (Ship ship : ships)
+			ship.move(1 / 60.);
+		return world.getOverlappingPairs();
+	}
+
+	/**
+	 * The same frame as overlappingPairsNextFrame, searched with a sweep and prune that keeps its order between frames.
+	 */
+	@Benchmark
+	public List<Ship[]> overlappingPairsNextFrameSweepAndPrune() {
+		for (Ship ship : ships)
+			ship.move(1 / 60.);
+		return sweepAndPrune.getOverlappingPairs();
+	}
+
+}
@@ -0,0 +1,134 @@
+package game.benchmarks;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import asteroids.IFacade;
+import asteroids.IShip;
+import game.Facade;
+import game.Ship;
+import game.StoreFacade;
+
+/**
+ * Benchmarks of the overhead of calling the model through a facade, compared to calling ships directly.
+ * Both facades are called through the IFacade interface, so the calls are not monomorphic.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FacadeBenchmark {
+
+	private static final int NB_SHIPS = 1000;
+
+	private IFacade facade;
+	private IFacade storeFacade;
+	private Ship ship;
+	private IShip facadeShip;
+	private IShip storeShip;
+	private Collection<IShip> facadeShips;
+	private Collection<IShip> storeShips;
+	private IShip[] facadeShipArray;
+	private double[] positions;
+
+	@Setup
+	public void setUp() {
+		facade = new Facade();
+		storeFacade = new StoreFacade();
+		ship = new Ship(0, 0, 0.1, 50, 20);
+		IShip[] fromFacade = new IShip[NB_SHIPS];
+		IShip[] fromStore = new IShip[NB_SHIPS];
+		for (int i = 0; i < NB_SHIPS; i++) {
+			fromFacade[i] = facade.createShip(i, i, 10, 5, 20, 0);
+			fromStore[i] = storeFacade.createShip(i, i, 10, 5, 20, 0);
+		}
+		facadeShip = fromFacade[0];
+		storeShip = fromStore[0];
+		facadeShips = new LinkedHashSet<IShip>(Arrays.asList(fromFacade));
+		storeShips = new LinkedHashSet<IShip>(Arrays.asList(fromStore));
+		facadeShipArray = fromFacade;
+		positions = new double[2 * NB_SHIPS];
+	}
+
+	@Benchmark
+	public double directGetX() {
+		return ship.getX();
+	}
+
+	@Benchmark
+	public double facadeGetX() {
+		return facade.getX(facadeShip);
+	}
+
+	@Benchmark
+	public double storeFacadeGetX() {
+		return storeFacade.getX(storeShip);
+	}
+
+	@Benchmark
+	public Ship directMove() {
+		ship.move(0.001);
+		return ship;
+	}
+
+	@Benchmark
+	public IShip facadeMove() {
+		facade.move(facadeShip, 0.001);
+		return facadeShip;
+	}
+
+	@Benchmark
+	public IShip storeFacadeMove() {
+		storeFacade.move(storeShip, 0.001);
+		return storeShip;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_SHIPS)
+	public Collection<IShip> facadeMoveOneByOne() {
+		for (IShip each : facadeShips)
+			facade.move(each, 0.001);
+		return facadeShips;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_SHIPS)
+	public Collection<IShip> facadeMoveAll() {
+		facade.moveAll(facadeShips, 0.001);
+		return facadeShips;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_SHIPS)
+	public Collection<IShip> storeFacadeMoveAll() {
+		storeFacade.moveAll(storeShips, 0.001);
+		return storeShips;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NB_SHIPS)
+	public double[] facadeGetPositions() {
+		facade.getPositions(facadeShipArray, positions);
+		return positions;
+	}
+
+}
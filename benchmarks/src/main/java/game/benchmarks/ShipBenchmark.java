@@ -0,0 +1,83 @@
+package game.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import game.Position;
+import game.Ship;
+
+/**
+ * Benchmarks of the operations of a single pair of ships.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ShipBenchmark {
+
+	private Ship ship;
+	private Ship other;
+	private final double[] out = new double[2];
+
+	@Setup(Level.Iteration)
+	public void setUp() {
+		ship = new Ship(0, 0, 0.1, 50, 20);
+		other = new Ship(1000, 100, Math.PI, 30, 30);
+	}
+
+	@Benchmark
+	public Ship move() {
+		ship.move(0.001);
+		return ship;
+	}
+
+	@Benchmark
+	public Ship turn() {
+		ship.turn(0.01);
+		return ship;
+	}
+
+	@Benchmark
+	public Ship thrust() {
+		ship.thrust(0.001);
+		return ship;
+	}
+
+	@Benchmark
+	public double getDistanceBetween() {
+		return ship.getDistanceBetween(other);
+	}
+
+	@Benchmark
+	public double getTimeToCollision() {
+		return ship.getTimeToCollision(other);
+	}
+
+	@Benchmark
+	public Position getCollisionPosition() {
+		return ship.getCollisionPosition(other);
+	}
+
+	@Benchmark
+	public double[] getCollisionPositionIntoArray() {
+		ship.getCollisionPosition(other, out, 0);
+		return out;
+	}
+
+}
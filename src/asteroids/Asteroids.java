@@ -1,54 +1,149 @@
 package asteroids;
 
+import java.awt.AWTException;
+import java.awt.BufferCapabilities;
+import java.awt.BufferCapabilities.FlipContents;
 import java.awt.Dimension;
+import java.awt.DisplayMode;
 import java.awt.GraphicsDevice;
 import java.awt.GraphicsEnvironment;
-import java.awt.event.ActionEvent;
-import java.awt.event.ActionListener;
+import java.awt.Graphics2D;
+import java.awt.ImageCapabilities;
+import java.awt.Point;
+import java.awt.Toolkit;
 import java.awt.event.KeyAdapter;
 import java.awt.event.KeyEvent;
-import java.util.HashSet;
+import java.awt.image.BufferStrategy;
+import java.io.FileOutputStream;
+import java.io.IOException;
 import java.util.Set;
 
 import javax.swing.JFrame;
-import javax.swing.Timer;
+import javax.swing.SwingUtilities;
+
+import game.Boundary;
 
 @SuppressWarnings("serial")
 public class Asteroids extends JFrame {
-  private Timer timer;
-  private long lastMove;
-  private boolean thrust;
-  private double angle;
+  private final SimulationLoop loop;
+  private final IFacade facade;
+  private final IShip[] ships;
+  private final AsteroidsView view;
+  private final boolean activeRendering;
+  // Set before the simulation thread is started.
+  private boolean incrementalRendering;
+  private final Boundary boundary;
+  private volatile boolean thrust;
+  private volatile double angularVelocity;
+  // Owned by the simulation thread. The snapshots themselves are immutable,
+  // and only the frames interpolated from them are handed to the event
+  // dispatch thread, through the volatile snapshot of the view.
+  private RenderSnapshot previous;
+  private RenderSnapshot current;
+  private boolean ticked;
 
   private static final double THRUST_PER_SECOND = 150;
+  private static final double TURN_PER_SECOND = 1.5 * Math.PI;
+
+  public static final double DEFAULT_TICK_RATE = 240;
+  public static final double DEFAULT_FRAME_RATE = 60;
+  public static final double WORLD_WIDTH = 1024;
+  public static final double WORLD_HEIGHT = 768;
+  private static final int NB_BUFFERS = AsteroidsView.DIRTY_HISTORY;
 
   public Asteroids(final IFacade facade, boolean undecorated) {
+    this(facade, undecorated, DEFAULT_TICK_RATE, DEFAULT_FRAME_RATE);
+  }
+
+  /**
+   * Create a game whose ships are stepped <code>tickRate</code> times per
+   * second on a separate thread, and drawn at most <code>frameRate</code>
+   * times per second.
+   */
+  public Asteroids(final IFacade facade, boolean undecorated, double tickRate, double frameRate) {
+    this(facade, undecorated, tickRate, frameRate, false);
+  }
+
+  /**
+   * Create a game like the one above. If <code>activeRendering</code> is
+   * true, frames are drawn on the simulation thread through a
+   * <code>BufferStrategy</code> of this frame, at the moment the simulation
+   * loop asks for them, instead of being left to the repaints of Swing.
+   */
+  public Asteroids(final IFacade facade, boolean undecorated, double tickRate, double frameRate,
+      boolean activeRendering) {
+    this(facade, undecorated, tickRate, frameRate, activeRendering, Boundary.UNBOUNDED);
+  }
+
+  /**
+   * Create a game like the one above, whose facade creates worlds of
+   * <code>WORLD_WIDTH</code> by <code>WORLD_HEIGHT</code> with the given
+   * boundary, so ships that wrap around are drawn at the right edge between
+   * two ticks.
+   */
+  public Asteroids(final IFacade facade, boolean undecorated, double tickRate, double frameRate,
+      boolean activeRendering, Boundary boundary) {
+    this(facade, undecorated, tickRate, frameRate, activeRendering, boundary, true);
+  }
+
+  /**
+   * Create a game like the one above. If <code>bouncing</code> is true and
+   * the facade creates unbounded worlds of <code>game.Facade</code>, ships
+   * bounce off each other at the moment they touch, as stepped by a
+   * <code>WorldStepper</code>. Otherwise, they pass through each other.
+   */
+  public Asteroids(final IFacade facade, boolean undecorated, double tickRate, double frameRate,
+      boolean activeRendering, Boundary boundary, boolean bouncing) {
     super("Asteroids");
-    final Set<IShip> ships = initModel(facade);
-    final AsteroidsView view = new AsteroidsView(ships, facade);
+    this.activeRendering = activeRendering;
+    this.boundary = boundary;
+    IWorld world = facade.createWorld();
+    final Set<IShip> ships = initModel(facade, world);
+    final WorldStepper stepper = new WorldStepper(facade, world, ships, bouncing);
+    final IShip[] shipArray = ships.toArray(new IShip[ships.size()]);
+    final AsteroidsView view = new AsteroidsView(ships);
+    this.facade = facade;
+    this.ships = shipArray;
+    this.view = view;
     if (!undecorated) {
       view.setPreferredSize(new Dimension(1024, 768));
     }
-    timer = new Timer(1000 / 30, new ActionListener() {
+    loop = new SimulationLoop(new SimulationLoop.Simulation() {
       @Override
-      public void actionPerformed(ActionEvent e) {
-        long now = System.currentTimeMillis();
-        long millisSinceLastMove = now - lastMove;
-        lastMove = now;
-        double dt = millisSinceLastMove / 1000.;
+      public void tick(double dt) {
+        facade.nextTick();
         if (thrust) {
           facade.thrust(view.getSelected(), THRUST_PER_SECOND * dt);
         }
-        if (angle != 0) {
-          facade.turn(view.getSelected(), angle);
+        if (angularVelocity != 0) {
+          facade.turn(view.getSelected(), angularVelocity * dt);
+        }
+        stepper.step(dt);
+        captureSnapshot();
+      }
+
+      @Override
+      public void render(double alpha) {
+        if (ticked) {
+          ticked = false;
+          if (view.getShowCollisions()) {
+            current = current.withCollisions(facade, shipArray);
+          }
         }
-        for (IShip ship : ships) {
-          facade.move(ship, dt);
+        RenderSnapshot frame = RenderSnapshot.interpolate(previous, current, alpha, Asteroids.this.boundary,
+            WORLD_WIDTH, WORLD_HEIGHT);
+        if (Asteroids.this.activeRendering) {
+          renderActive(frame);
+        } else {
+          view.setSnapshot(frame);
         }
-        view.repaint();
       }
-    });
+    }, tickRate, frameRate);
     this.setFocusTraversalKeysEnabled(false);
+    if (activeRendering) {
+      this.setIgnoreRepaint(true);
+      view.setActiveRendering(true);
+    }
 
     this.addKeyListener(new KeyAdapter() {
       @Override
@@ -59,10 +154,10 @@ public class Asteroids extends JFrame {
           view.setThrust(true);
           break;
         case KeyEvent.VK_LEFT:
-          angle = Math.PI / 20;
+          angularVelocity = TURN_PER_SECOND;
           break;
         case KeyEvent.VK_RIGHT:
-          angle = -Math.PI / 20;
+          angularVelocity = -TURN_PER_SECOND;
           break;
         case KeyEvent.VK_TAB:
           view.selectNext();
@@ -70,6 +165,18 @@ public class Asteroids extends JFrame {
         case KeyEvent.VK_C:
           view.setShowCollisions(!view.getShowCollisions());
           break;
+        case KeyEvent.VK_PLUS:
+        case KeyEvent.VK_EQUALS:
+        case KeyEvent.VK_ADD:
+          view.zoom(2, view.getWidth() / 2, view.getHeight() / 2);
+          break;
+        case KeyEvent.VK_MINUS:
+        case KeyEvent.VK_SUBTRACT:
+          view.zoom(0.5, view.getWidth() / 2, view.getHeight() / 2);
+          break;
+        case KeyEvent.VK_HOME:
+          view.resetView();
+          break;
         case KeyEvent.VK_ESCAPE:
           System.exit(0);
         }
@@ -83,10 +190,10 @@ public class Asteroids extends JFrame {
           view.setThrust(false);
           break;
         case KeyEvent.VK_LEFT:
-          angle = 0;
+          angularVelocity = 0;
           break;
         case KeyEvent.VK_RIGHT:
-          angle = 0;
+          angularVelocity = 0;
           break;
         }
       }
@@ -97,12 +204,100 @@ public class Asteroids extends JFrame {
     this.pack();
   }
 
-  private Set<IShip> initModel(IFacade facade) {
-    Set<IShip> ships = new HashSet<IShip>();
-    ships.add(facade.createShip(200, 400, 0, 0, 50, 0));
-    ships.add(facade.createShip(700, 400, 0, 0, 50, Math.PI));
-    ships.add(facade.createShip(450, 600, 0, 0, 75, -Math.PI / 2));
-    return ships;
+  private Set<IShip> initModel(IFacade facade, IWorld world) {
+    facade.addShip(world, facade.createShip(200, 400, 0, 0, 50, 0));
+    facade.addShip(world, facade.createShip(700, 400, 0, 0, 50, Math.PI));
+    facade.addShip(world, facade.createShip(450, 600, 0, 0, 75, -Math.PI / 2));
+    return facade.getShips(world);
+  }
+
+  /**
+   * Take a snapshot of the state of the ships that is interpolated between
+   * ticks, keeping the one of the previous tick to interpolate from. The
+   * collisions of the selected ship are only added to the last snapshot when
+   * a frame is drawn. Only called on the simulation thread, apart from the
+   * first call, which happens before that thread is started.
+   */
+  private void captureSnapshot() {
+    previous = current;
+    current = RenderSnapshot.capture(facade, ships, view.getSelected(), false);
+    ticked = true;
+  }
+
+  /**
+   * Draw <code>frame</code> on the back buffer of this frame and show it.
+   * Only called on the simulation thread. Only the regions that changed are
+   * redrawn if the buffers keep their contents when they are shown, unless
+   * those contents were lost.
+   */
+  private void renderActive(RenderSnapshot frame) {
+    BufferStrategy strategy = getBufferStrategy();
+    if (strategy == null || view.getWidth() <= 0 || view.getHeight() <= 0) {
+      return;
+    }
+    Point offset = SwingUtilities.convertPoint(view, 0, 0, this);
+    do {
+      do {
+        Graphics2D g = (Graphics2D) strategy.getDrawGraphics();
+        try {
+          g.translate(offset.x, offset.y);
+          g.clipRect(0, 0, view.getWidth(), view.getHeight());
+          view.render(g, frame, incrementalRendering);
+        } finally {
+          g.dispose();
+        }
+        if (strategy.contentsRestored()) {
+          view.invalidateBuffers();
+        }
+      } while (strategy.contentsRestored());
+      strategy.show();
+      if (strategy.contentsLost()) {
+        view.invalidateBuffers();
+      }
+    } while (strategy.contentsLost());
+    Toolkit.getDefaultToolkit().sync();
+  }
+
+  /**
+   * Create the buffer strategy of this frame, preferring buffers that still
+   * hold a frame drawn by the view after they are shown: flipped buffers whose
+   * contents are copied or swapped, or buffers that are blitted to the screen.
+   * Return whether the strategy that was created keeps those contents, so
+   * frames can be drawn incrementally. Otherwise, every frame is drawn in full.
+   */
+  private boolean createBuffers() {
+    ImageCapabilities accelerated = new ImageCapabilities(true);
+    BufferCapabilities[] preferred = { new BufferCapabilities(accelerated, accelerated, FlipContents.COPIED),
+        new BufferCapabilities(accelerated, accelerated, FlipContents.PRIOR),
+        new BufferCapabilities(accelerated, accelerated, null) };
+    boolean created = false;
+    for (int i = 0; i < preferred.length && !created; i++) {
+      try {
+        this.createBufferStrategy(NB_BUFFERS, preferred[i]);
+        created = true;
+      } catch (AWTException exc) {
+        // Try the next capabilities.
+      }
+    }
+    if (!created) {
+      this.createBufferStrategy(NB_BUFFERS);
+    }
+    BufferCapabilities capabilities = getBufferStrategy().getCapabilities();
+    if (!capabilities.isPageFlipping()) {
+      return true;
+    }
+    FlipContents contents = capabilities.getFlipContents();
+    // After a flip, the back buffer of PRIOR holds the frame drawn NB_BUFFERS frames ago.
+    return FlipContents.COPIED.equals(contents)
+        || (FlipContents.PRIOR.equals(contents) && NB_BUFFERS <= AsteroidsView.DIRTY_HISTORY);
+  }
+
+  public SimulationLoop getLoop() {
+    return loop;
+  }
+
+  public boolean isActiveRendering() {
+    return activeRendering;
   }
 
   public void start() {
@@ -110,26 +305,96 @@ public class Asteroids extends JFrame {
     this.requestFocus(true);
     this.setVisible(true);
     this.requestFocus();
-    lastMove = System.currentTimeMillis();
-    timer.start();
+    if (activeRendering) {
+      incrementalRendering = createBuffers();
+      view.invalidateBuffers();
+    }
+    captureSnapshot();
+    loop.start();
   }
 
-  public static void main(String[] args) {
+  /**
+   * Usage:
+   * <code>java asteroids.Asteroids [tickrate=240] [framerate=refresh rate of the screen] [render=active] [journal=&lt;file&gt;]
+   * [world=unbounded]</code>
+   *
+   * With <code>render=active</code>, the default, frames are drawn through a
+   * <code>BufferStrategy</code>; with <code>render=passive</code>, they are
+   * left to the repaints of Swing.
+   * 
+   * With <code>journal</code>, every change to the ships, including the
+   * inputs of the player, is recorded in the given file, to be replayed with
+   * <code>JournalReplay</code>. A journal only records calls to the facade,
+   * so ships that bounce off each other cannot be recorded: in a journaled
+   * game, ships pass through each other.
+   *
+   * With <code>world=wrap</code> or <code>world=reflect</code>, ships that
+   * leave the screen of 1024 by 768 come back in at the opposite edge, or
+   * bounce off the edges. Ships only bounce off each other in unbounded
+   * worlds. A journal does not record the boundary of a world, so it cannot
+   * be combined with these options.
+   */
+  public static void main(String[] args) throws IOException {
     if (GraphicsEnvironment.isHeadless()) {
-      System.out.println("no screen detected");
+      System.out.println("no screen detected, use asteroids.HeadlessRunner to run without a screen");
       return;
     } else {
-      // <begin>
-      IFacade facade = new game.Facade();
-      // <end>
       GraphicsEnvironment env = GraphicsEnvironment.getLocalGraphicsEnvironment();
       GraphicsDevice device = env.getDefaultScreenDevice();
+      double tickRate = DEFAULT_TICK_RATE;
+      double frameRate = device.getDisplayMode().getRefreshRate();
+      if (frameRate == DisplayMode.REFRESH_RATE_UNKNOWN) {
+        frameRate = DEFAULT_FRAME_RATE;
+      }
+      String journal = null;
+      boolean activeRendering = true;
+      Boundary boundary = Boundary.UNBOUNDED;
+      for (String arg : args) {
+        int split = arg.indexOf('=');
+        String key = split < 0 ? arg : arg.substring(0, split);
+        String value = arg.substring(split + 1);
+        if (key.equals("tickrate")) {
+          tickRate = Double.parseDouble(value);
+        } else if (key.equals("framerate")) {
+          frameRate = Double.parseDouble(value);
+        } else if (key.equals("render") && (value.equals("active") || value.equals("passive"))) {
+          activeRendering = value.equals("active");
+        } else if (key.equals("journal")) {
+          journal = value;
+        } else if (key.equals("world") && (value.equals("unbounded") || value.equals("wrap") || value.equals("reflect"))) {
+          boundary = Boundary.valueOf(value.toUpperCase());
+        } else {
+          System.err.println("unknown option " + arg);
+          System.exit(1);
+        }
+      }
+      if (journal != null && boundary != Boundary.UNBOUNDED) {
+        System.err.println("journal can only record unbounded worlds");
+        System.exit(1);
+      }
+      // <begin>
+      IFacade facade = new game.Facade(WORLD_WIDTH, WORLD_HEIGHT, boundary);
+      // <end>
+      if (journal != null) {
+        final JournalingFacade journaling = new JournalingFacade(facade, new FileOutputStream(journal));
+        Runtime.getRuntime().addShutdownHook(new Thread() {
+          @Override
+          public void run() {
+            try {
+              journaling.close();
+            } catch (IOException exc) {
+              exc.printStackTrace();
+            }
+          }
+        });
+        facade = journaling;
+      }
       Asteroids asteroids;
       if (device.isFullScreenSupported()) {
-        asteroids = new Asteroids(facade, true);
+        asteroids = new Asteroids(facade, true, tickRate, frameRate, activeRendering, boundary, journal == null);
         device.setFullScreenWindow(asteroids);
       } else {
-        asteroids = new Asteroids(facade, false);
+        asteroids = new Asteroids(facade, false, tickRate, frameRate, activeRendering, boundary, journal == null);
       }
       asteroids.start();
     }
@@ -4,32 +4,133 @@ import java.awt.BasicStroke;
 import java.awt.Color;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Image;
 import java.awt.RenderingHints;
-import java.awt.geom.AffineTransform;
+import java.awt.Stroke;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
 import java.awt.geom.Path2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.Set;
 import javax.swing.JPanel;
 
 import static java.lang.Math.*;
 
+/**
+ * Draws the latest <code>RenderSnapshot</code> through a viewport that can be
+ * panned by dragging the mouse and zoomed with the mouse wheel.
+ *
+ * Only the ships inside the viewport are drawn, found through the grid of the
+ * snapshot. Ships smaller than <code>PIXEL_RADIUS</code> pixels are drawn as
+ * a single pixel, and antialiasing is turned off when more ships than the
+ * antialiasing limit are visible. Painting does not allocate per ship.
+ *
+ * The static background, a grid that only changes when the viewport does, is
+ * cached in a <code>VolatileImage</code> once the view is on a screen, and
+ * drawn again whenever its contents are lost. Each frame copies the part of
+ * the background it needs and draws the ships on top of it. The view either
+ * draws as a Swing component, or, in active rendering mode, through
+ * <code>render</code>, called by its owner with the graphics of a
+ * <code>BufferStrategy</code>. Active rendering only restores and redraws
+ * the regions that changed since the buffer was last drawn.
+ */
 @SuppressWarnings("serial")
 public class AsteroidsView extends JPanel {
 
+  /**
+   * Ships with a radius of fewer pixels than this are drawn as a pixel.
+   */
+  public static final double PIXEL_RADIUS = 1.5;
+  public static final int DEFAULT_ANTIALIASING_LIMIT = 2000;
+  public static final double MIN_ZOOM = 1e-4;
+  public static final double MAX_ZOOM = 1e2;
+  private static final double ZOOM_PER_NOTCH = 1.25;
+
+  private static final Stroke DASHED = new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10,
+      new float[] { 10, 5 }, 0);
+  private static final double FLAME_ANGLE = Math.PI / 12;
+  private static final Color GRID_COLOR = new Color(0x20, 0x20, 0x20);
+  /**
+   * The smallest number of pixels between two lines of the background grid.
+   */
+  private static final double GRID_PIXELS = 100;
+  /**
+   * The number of earlier frames whose regions are restored, which must be
+   * at least the number of buffers of the strategy rendered to.
+   */
+  public static final int DIRTY_HISTORY = 2;
+
+  /**
+   * The part of the world shown by the view. Replaced as a whole, so the
+   * rendering thread never sees half of a pan or zoom.
+   */
+  private static final class Viewport {
+    final double originX;
+    final double originY;
+    final double zoom;
+
+    Viewport(double originX, double originY, double zoom) {
+      this.originX = originX;
+      this.originY = originY;
+      this.zoom = zoom;
+    }
+  }
+
   private Set<IShip> ships;
-  private IFacade facade;
-  private IShip selected;
+  private volatile IShip selected;
   private Iterator<IShip> iterator;
-  private boolean thrust = false;
-  private boolean showCollisions = false;
+  private volatile boolean thrust = false;
+  private volatile boolean showCollisions = false;
+  private volatile RenderSnapshot snapshot;
+  private volatile int antialiasingLimit = DEFAULT_ANTIALIASING_LIMIT;
+  private volatile Viewport viewport = new Viewport(0, 0, 1);
+  private volatile boolean activeRendering;
+  private volatile int fullFrames = DIRTY_HISTORY;
 
-  public AsteroidsView(Set<IShip> ships, IFacade facade) {
+  // Only used by the thread that renders.
+  private int[] visible = new int[0];
+  private int[] pixels = new int[0];
+  private final Path2D.Double flame = new Path2D.Double();
+  private Image background;
+  private Viewport backgroundViewport;
+  private final int[] bounds = new int[4];
+  private final int[] history = new int[4 * DIRTY_HISTORY];
+
+  public AsteroidsView(Set<IShip> ships) {
     super(true);
     this.ships = ships;
     this.iterator = ships.iterator();
     this.selected = iterator.next();
-    this.facade = facade;
     this.setBackground(Color.BLACK);
+    MouseAdapter mouse = new MouseAdapter() {
+      private int lastX, lastY;
+
+      @Override
+      public void mousePressed(MouseEvent e) {
+        lastX = e.getX();
+        lastY = e.getY();
+      }
+
+      @Override
+      public void mouseDragged(MouseEvent e) {
+        pan(e.getX() - lastX, e.getY() - lastY);
+        lastX = e.getX();
+        lastY = e.getY();
+      }
+
+      @Override
+      public void mouseWheelMoved(MouseWheelEvent e) {
+        zoom(pow(ZOOM_PER_NOTCH, -e.getPreciseWheelRotation()), e.getX(), e.getY());
+      }
+    };
+    this.addMouseListener(mouse);
+    this.addMouseMotionListener(mouse);
+    this.addMouseWheelListener(mouse);
   }
 
   public void selectNext() {
@@ -55,79 +156,378 @@ public class AsteroidsView extends JPanel {
     return showCollisions;
   }
 
+  /**
+   * Return the number of visible ships above which antialiasing is turned
+   * off.
+   */
+  public int getAntialiasingLimit() {
+    return antialiasingLimit;
+  }
+
+  public void setAntialiasingLimit(int limit) {
+    if (limit < 0)
+      throw new IllegalArgumentException("antialiasing limit must not be negative");
+    this.antialiasingLimit = limit;
+    changed();
+  }
+
+  /**
+   * Return the number of pixels per kilometre.
+   */
+  public double getZoom() {
+    return viewport.zoom;
+  }
+
+  /**
+   * Return the world coordinates of the lower left corner of the viewport.
+   */
+  public double getOriginX() {
+    return viewport.originX;
+  }
+
+  public double getOriginY() {
+    return viewport.originY;
+  }
+
+  /**
+   * Move the viewport along with a drag of <code>dx</code> pixels to the
+   * right and <code>dy</code> pixels down.
+   */
+  public void pan(int dx, int dy) {
+    Viewport view = viewport;
+    viewport = new Viewport(view.originX - dx / view.zoom, view.originY + dy / view.zoom, view.zoom);
+    changed();
+  }
+
+  /**
+   * Multiply the zoom by <code>factor</code>, keeping the point of the world
+   * under pixel (<code>px</code>, <code>py</code>) in place.
+   */
+  public void zoom(double factor, int px, int py) {
+    Viewport view = viewport;
+    double zoom = min(MAX_ZOOM, max(MIN_ZOOM, view.zoom * factor));
+    double x = view.originX + px / view.zoom;
+    double y = view.originY + (getHeight() - py) / view.zoom;
+    viewport = new Viewport(x - px / zoom, y - (getHeight() - py) / zoom, zoom);
+    changed();
+  }
+
+  /**
+   * Show the world at its original scale, with the origin of the world in the
+   * lower left corner.
+   */
+  public void resetView() {
+    viewport = new Viewport(0, 0, 1);
+    changed();
+  }
+
+  public double toWorldX(int px) {
+    Viewport view = viewport;
+    return view.originX + px / view.zoom;
+  }
+
+  public double toWorldY(int py) {
+    Viewport view = viewport;
+    return view.originY + (getHeight() - py) / view.zoom;
+  }
+
+  public boolean isActiveRendering() {
+    return activeRendering;
+  }
+
+  /**
+   * Turn active rendering on or off. While it is on, the view does not ask
+   * Swing to repaint it, and its owner must call <code>render</code> for
+   * every frame.
+   */
+  public void setActiveRendering(boolean active) {
+    this.activeRendering = active;
+    invalidateBuffers();
+    changed();
+  }
+
+  /**
+   * Make the next <code>DIRTY_HISTORY</code> frames drawn by
+   * <code>render</code> complete, for instance because the contents of the
+   * buffers were lost.
+   */
+  public void invalidateBuffers() {
+    fullFrames = DIRTY_HISTORY;
+  }
+
+  private void changed() {
+    if (!activeRendering)
+      repaint();
+  }
+
+  /**
+   * Publish the snapshot to be drawn from now on and schedule a repaint. May
+   * be called from any thread.
+   */
+  public void setSnapshot(RenderSnapshot snapshot) {
+    this.snapshot = snapshot;
+    changed();
+  }
+
   @Override
   public void paintComponent(Graphics g) {
-    super.paintComponent(g);
-    Graphics2D g2d = (Graphics2D) g;
-    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-    int height = getHeight();
-    for (IShip ship : ships) {
-      double radius = facade.getRadius(ship);
-      double angle = -facade.getDirection(ship);
-      double x = facade.getX(ship);
-      double y = height - facade.getY(ship);
-      if (ship == selected) {
-        g2d.setColor(Color.RED);
+    RenderSnapshot frame = snapshot;
+    if (frame == null || activeRendering) {
+      // Swing painted over the buffers of active rendering.
+      invalidateBuffers();
+      super.paintComponent(g);
+      return;
+    }
+    render((Graphics2D) g, frame, false);
+  }
+
+  /**
+   * Draw <code>frame</code> on <code>g</code>, whose origin and clip must
+   * match the bounds of this view. If <code>incremental</code> is true,
+   * <code>g</code> must draw to a buffer that holds a frame drawn by this
+   * method at most <code>DIRTY_HISTORY</code> frames ago, and only the
+   * regions of that frame and of the new frame are redrawn. Must always be
+   * called from the same thread.
+   */
+  public void render(Graphics2D g2d, RenderSnapshot frame, boolean incremental) {
+    int width = max(getWidth(), 1);
+    int height = max(getHeight(), 1);
+    Viewport view = viewport;
+    boolean backgroundChanged = updateBackground(width, height, view);
+    boolean full = !incremental || fullFrames > 0 || backgroundChanged;
+    if (fullFrames > 0)
+      fullFrames--;
+    double scale = view.zoom;
+    double left = view.originX;
+    double bottom = view.originY;
+    if (visible.length < frame.getNbShips())
+      visible = new int[frame.getNbShips()];
+    int nbVisible = frame.getShipsIn(left, bottom, left + width / scale, bottom + height / scale, visible);
+    if (pixels.length < 2 * frame.getNbShips())
+      pixels = new int[2 * frame.getNbShips()];
+    int selectedIndex = frame.getSelected();
+
+    // Ships drawn as pixels and the others are kept apart, to be drawn after the background.
+    clear(bounds);
+    int nbShapes = 0, nbPixels = 0;
+    for (int k = 0; k < nbVisible; k++) {
+      int i = visible[k];
+      if (i == selectedIndex)
+        continue;
+      double radius = frame.getRadius(i) * scale;
+      double x = (frame.getX(i) - left) * scale;
+      double y = height - (frame.getY(i) - bottom) * scale;
+      if (radius < PIXEL_RADIUS) {
+        if (x >= 0 && x < width && y >= 0 && y < height) {
+          pixels[2 * nbPixels] = (int) x;
+          pixels[2 * nbPixels + 1] = (int) y;
+          nbPixels++;
+          include(bounds, x, y, x, y);
+        }
       } else {
-        g2d.setColor(Color.WHITE);
+        visible[nbShapes++] = i;
+        include(bounds, x - radius, y - radius, x + radius, y + radius);
       }
-      g2d.drawOval((int) (x - radius), (int) (y - radius), (int) (2 * radius), (int) (2 * radius));
-      g2d.drawLine((int) x, (int) y, (int) (x + Math.cos(angle) * radius), (int) (y + sin(angle) * radius));
-      if (thrust && ship == selected) {
-        Path2D.Double flame = new Path2D.Double();
-        double flameAngle = Math.PI / 12;
-        flame.moveTo(radius * Math.cos(Math.PI - flameAngle), radius * Math.sin(Math.PI - flameAngle));
-        flame.lineTo(-radius - radius / 3, 0);
-        flame.lineTo(radius * Math.cos(Math.PI + flameAngle), radius * Math.sin(Math.PI + flameAngle));
-        flame.transform(AffineTransform.getRotateInstance(angle));
-        flame.transform(AffineTransform.getTranslateInstance(x, y));
-        g2d.setColor(Color.orange);
-        g2d.draw(flame);
+    }
+    double selectedRadius = 0, selectedX = 0, selectedY = 0, selectedAngle = 0;
+    if (selectedIndex >= 0) {
+      // The selected ship is drawn last and in full, however small it is.
+      selectedRadius = max(frame.getRadius(selectedIndex) * scale, PIXEL_RADIUS);
+      selectedAngle = -frame.getDirection(selectedIndex);
+      selectedX = (frame.getX(selectedIndex) - left) * scale;
+      selectedY = height - (frame.getY(selectedIndex) - bottom) * scale;
+      double reach = thrust ? selectedRadius * 4 / 3 : selectedRadius;
+      include(bounds, selectedX - reach, selectedY - reach, selectedX + reach, selectedY + reach);
+    }
+    boolean collisions = showCollisions;
+    int first = collisions ? frame.getCollisionShip() : -1;
+    if (first >= 0) {
+      includeCollision(frame, selectedIndex, 0, left, bottom, scale, height);
+      includeCollision(frame, first, 1, left, bottom, scale, height);
+    }
+    if (collisions) {
+      for (int i = 0; i < frame.getNbCrosshairs(); i++) {
+        double x = (frame.getCrosshairX(i) - left) * scale;
+        double y = height - (frame.getCrosshairY(i) - bottom) * scale;
+        include(bounds, x - 5, y - 5, x + 5, y + 5);
       }
     }
-    if (showCollisions) {
-      double min_dt = Double.POSITIVE_INFINITY;
-      IShip min_ship = null;
-      // find next collision, if any
-      for (IShip ship : ships) {
-        double dt = facade.getTimeToCollision(selected, ship);
-        if (dt < min_dt) {
-          min_dt = dt;
-          min_ship = ship;
-        }
+
+    // Restore the regions drawn in this frame and in the frames still on the buffers.
+    int x0 = 0, y0 = 0, x1 = width, y1 = height;
+    if (!full) {
+      x0 = bounds[0];
+      y0 = bounds[1];
+      x1 = bounds[2];
+      y1 = bounds[3];
+      for (int h = 0; h < DIRTY_HISTORY; h++) {
+        x0 = min(x0, history[4 * h]);
+        y0 = min(y0, history[4 * h + 1]);
+        x1 = max(x1, history[4 * h + 2]);
+        y1 = max(y1, history[4 * h + 3]);
+      }
+      x0 = max(x0, 0);
+      y0 = max(y0, 0);
+      x1 = min(x1, width);
+      y1 = min(y1, height);
+    }
+    System.arraycopy(history, 0, history, 4, 4 * (DIRTY_HISTORY - 1));
+    System.arraycopy(bounds, 0, history, 0, 4);
+    if (x0 < x1 && y0 < y1) {
+      g2d.drawImage(background, x0, y0, x1, y1, x0, y0, x1, y1, null);
+      while (background instanceof VolatileImage && ((VolatileImage) background).contentsLost()) {
+        updateBackground(width, height, view);
+        g2d.drawImage(background, x0, y0, x1, y1, x0, y0, x1, y1, null);
       }
-      IShip first = min_ship;
-      if (first != null && !facade.overlap(selected, first)) {
-        // draw circles
-        double dt = facade.getTimeToCollision(selected, first);
-        int x1_ = (int) (facade.getX(selected) + dt * facade.getXVelocity(selected));
-        int y1_ = height - (int) (facade.getY(selected) + dt * facade.getYVelocity(selected));
-        int radius1 = (int) facade.getRadius(selected);
-        float[] dashPattern = { 10, 5 };
-        g2d.setColor(Color.LIGHT_GRAY);
-        g2d.setStroke(new BasicStroke(1, BasicStroke.CAP_BUTT, BasicStroke.JOIN_MITER, 10, dashPattern, 0));
-        g2d.drawOval(x1_ - radius1, y1_ - radius1, 2 * radius1, 2 * radius1);
-        g2d.drawLine((int) facade.getX(selected), height - (int) facade.getY(selected), x1_, y1_);
-        int x2_ = (int) (facade.getX(first) + dt * facade.getXVelocity(first));
-        int y2_ = height - (int) (facade.getY(first) + dt * facade.getYVelocity(first));
-
-        int radius2 = (int) facade.getRadius(first);
-        g2d.drawOval(x2_ - radius2, y2_ - radius2, 2 * radius2, 2 * radius2);
-        g2d.drawLine((int) facade.getX(first), height - (int) facade.getY(first), x2_, y2_);
+    }
+
+    g2d.setColor(Color.WHITE);
+    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+    for (int k = 0; k < nbPixels; k++)
+      g2d.fillRect(pixels[2 * k], pixels[2 * k + 1], 1, 1);
+    g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, nbVisible <= antialiasingLimit
+        ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
+    for (int k = 0; k < nbShapes; k++) {
+      int i = visible[k];
+      double x = (frame.getX(i) - left) * scale;
+      double y = height - (frame.getY(i) - bottom) * scale;
+      drawShip(g2d, x, y, frame.getRadius(i) * scale, -frame.getDirection(i));
+    }
+    if (selectedIndex >= 0) {
+      g2d.setColor(Color.RED);
+      drawShip(g2d, selectedX, selectedY, selectedRadius, selectedAngle);
+      if (thrust) {
+        double x = selectedX, y = selectedY, radius = selectedRadius, angle = selectedAngle;
+        flame.reset();
+        flame.moveTo(x + radius * cos(angle + Math.PI - FLAME_ANGLE), y + radius * sin(angle + Math.PI - FLAME_ANGLE));
+        flame.lineTo(x - (radius + radius / 3) * cos(angle), y - (radius + radius / 3) * sin(angle));
+        flame.lineTo(x + radius * cos(angle + Math.PI + FLAME_ANGLE), y + radius * sin(angle + Math.PI + FLAME_ANGLE));
+        g2d.setColor(Color.orange);
+        g2d.draw(flame);
       }
+    }
+    if (first >= 0) {
+      // draw circles
+      Stroke stroke = g2d.getStroke();
+      g2d.setColor(Color.LIGHT_GRAY);
+      g2d.setStroke(DASHED);
+      drawCollision(g2d, frame, selectedIndex, 0, left, bottom, scale, height);
+      drawCollision(g2d, frame, first, 1, left, bottom, scale, height);
+      g2d.setStroke(stroke);
+    }
+    if (collisions) {
       // draw cross
-      for (IShip ship : ships) {
-        if (!facade.overlap(selected, ship)) {
-          double[] colPos = facade.getCollisionPosition(selected, ship);
-          if (colPos != null) {
-            int x = (int) colPos[0];
-            int y = height - (int) colPos[1];
-            g2d.setColor(Color.WHITE);
-            g2d.drawLine(x - 5, y, x + 5, y);
-            g2d.drawLine(x, y - 5, x, y + 5);
-          }
-        }
+      g2d.setColor(Color.WHITE);
+      for (int i = 0; i < frame.getNbCrosshairs(); i++) {
+        int x = (int) ((frame.getCrosshairX(i) - left) * scale);
+        int y = height - (int) ((frame.getCrosshairY(i) - bottom) * scale);
+        g2d.drawLine(x - 5, y, x + 5, y);
+        g2d.drawLine(x, y - 5, x, y + 5);
       }
     }
   }
+
+  /**
+   * Make the background show the grid for the given size and viewport. The
+   * background is drawn again if it was drawn for another size or viewport,
+   * or if its contents were lost.
+   * @return true if the size or viewport of the background changed.
+   */
+  private boolean updateBackground(int width, int height, Viewport view) {
+    GraphicsConfiguration gc = getGraphicsConfiguration();
+    boolean changed = background == null || background.getWidth(null) != width
+        || background.getHeight(null) != height || backgroundViewport != view;
+    boolean draw = changed;
+    if (background == null || background.getWidth(null) != width || background.getHeight(null) != height
+        || (background instanceof VolatileImage) != (gc != null)) {
+      background = createBackground(width, height, gc);
+      draw = true;
+    }
+    if (background instanceof VolatileImage) {
+      int status = ((VolatileImage) background).validate(gc);
+      if (status == VolatileImage.IMAGE_INCOMPATIBLE)
+        background = createBackground(width, height, gc);
+      draw |= status != VolatileImage.IMAGE_OK;
+    }
+    backgroundViewport = view;
+    if (!draw)
+      return changed;
+    Graphics2D g = (Graphics2D) background.getGraphics();
+    try {
+      g.setColor(getBackground());
+      g.fillRect(0, 0, width, height);
+      // Grid lines every power of ten kilometres that is at least GRID_PIXELS apart.
+      double step = pow(10, ceil(log10(GRID_PIXELS / view.zoom)));
+      g.setColor(GRID_COLOR);
+      for (double x = ceil(view.originX / step) * step; (x - view.originX) * view.zoom < width; x += step)
+        g.drawLine((int) ((x - view.originX) * view.zoom), 0, (int) ((x - view.originX) * view.zoom), height);
+      for (double y = ceil(view.originY / step) * step; (y - view.originY) * view.zoom < height; y += step)
+        g.drawLine(0, height - (int) ((y - view.originY) * view.zoom), width,
+            height - (int) ((y - view.originY) * view.zoom));
+    } finally {
+      g.dispose();
+    }
+    return changed;
+  }
+
+  /**
+   * Create an image for the background that lives in video memory where the
+   * screen of <code>gc</code> allows it. A view that is not on a screen yet,
+   * and has no <code>gc</code>, gets an image in system memory instead.
+   */
+  private static Image createBackground(int width, int height, GraphicsConfiguration gc) {
+    if (gc == null)
+      return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    return gc.createCompatibleVolatileImage(width, height);
+  }
+
+  /**
+   * Make <code>box</code>, holding the left, top, right and bottom of a
+   * region of pixels, empty.
+   */
+  private static void clear(int[] box) {
+    box[0] = box[1] = Integer.MAX_VALUE;
+    box[2] = box[3] = Integer.MIN_VALUE;
+  }
+
+  /**
+   * Grow <code>box</code> to hold the pixels touched by a drawing within the
+   * given coordinates.
+   */
+  private static void include(int[] box, double x0, double y0, double x1, double y1) {
+    if (x0 > x1)
+      return;
+    box[0] = (int) min(box[0], floor(x0) - 1);
+    box[1] = (int) min(box[1], floor(y0) - 1);
+    box[2] = (int) max(box[2], ceil(x1) + 2);
+    box[3] = (int) max(box[3], ceil(y1) + 2);
+  }
+
+  private void includeCollision(RenderSnapshot frame, int i, int which, double left, double bottom, double scale,
+      int height) {
+    double x = (frame.getCollisionX(which) - left) * scale;
+    double y = height - (frame.getCollisionY(which) - bottom) * scale;
+    double radius = frame.getRadius(i) * scale;
+    double fromX = (frame.getX(i) - left) * scale;
+    double fromY = height - (frame.getY(i) - bottom) * scale;
+    include(bounds, min(x - radius, fromX), min(y - radius, fromY), max(x + radius, fromX), max(y + radius, fromY));
+  }
+
+  private static void drawShip(Graphics2D g2d, double x, double y, double radius, double angle) {
+    g2d.drawOval((int) (x - radius), (int) (y - radius), (int) (2 * radius), (int) (2 * radius));
+    g2d.drawLine((int) x, (int) y, (int) (x + cos(angle) * radius), (int) (y + sin(angle) * radius));
+  }
+
+  /**
+   * Draw ship <code>i</code> at the position where it collides, and a line
+   * from its current position to that position.
+   */
+  private static void drawCollision(Graphics2D g2d, RenderSnapshot frame, int i, int which, double left,
+      double bottom, double scale, int height) {
+    int x = (int) ((frame.getCollisionX(which) - left) * scale);
+    int y = height - (int) ((frame.getCollisionY(which) - bottom) * scale);
+    int radius = (int) (frame.getRadius(i) * scale);
+    g2d.drawOval(x - radius, y - radius, 2 * radius, 2 * radius);
+    g2d.drawLine((int) ((frame.getX(i) - left) * scale), height - (int) ((frame.getY(i) - bottom) * scale), x, y);
+  }
 }
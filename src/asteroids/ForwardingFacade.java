@@ -0,0 +1,191 @@
+package asteroids;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * An <code>IFacade</code> that forwards every call to another facade.
+ * Subclasses override the methods they want to observe or change.
+ */
+public class ForwardingFacade implements IFacade {
+  private final IFacade delegate;
+
+  public ForwardingFacade(IFacade delegate) {
+    if (delegate == null)
+      throw new IllegalArgumentException("delegate must not be null");
+    this.delegate = delegate;
+  }
+
+  /**
+   * Return the facade to which calls are forwarded.
+   */
+  public IFacade getDelegate() {
+    return delegate;
+  }
+
+  /**
+   * Tell this facade that the calls made from now on belong to the next
+   * tick of the simulation. The default forwards this to the delegate, so
+   * every facade in a chain sees it.
+   */
+  @Override
+  public void nextTick() {
+    delegate.nextTick();
+  }
+
+  @Override
+  public IShip createShip() {
+    return delegate.createShip();
+  }
+
+  @Override
+  public IShip createShip(double x, double y, double xVelocity, double yVelocity, double radius, double angle) {
+    return delegate.createShip(x, y, xVelocity, yVelocity, radius, angle);
+  }
+
+  @Override
+  public double getX(IShip ship) {
+    return delegate.getX(ship);
+  }
+
+  @Override
+  public double getY(IShip ship) {
+    return delegate.getY(ship);
+  }
+
+  @Override
+  public double getXVelocity(IShip ship) {
+    return delegate.getXVelocity(ship);
+  }
+
+  @Override
+  public double getYVelocity(IShip ship) {
+    return delegate.getYVelocity(ship);
+  }
+
+  @Override
+  public double getRadius(IShip ship) {
+    return delegate.getRadius(ship);
+  }
+
+  @Override
+  public double getDirection(IShip ship) {
+    return delegate.getDirection(ship);
+  }
+
+  @Override
+  public void move(IShip ship, double dt) {
+    delegate.move(ship, dt);
+  }
+
+  @Override
+  public void thrust(IShip ship, double amount) {
+    delegate.thrust(ship, amount);
+  }
+
+  @Override
+  public void turn(IShip ship, double angle) {
+    delegate.turn(ship, angle);
+  }
+
+  @Override
+  public double getDistanceBetween(IShip ship1, IShip ship2) {
+    return delegate.getDistanceBetween(ship1, ship2);
+  }
+
+  @Override
+  public boolean overlap(IShip ship1, IShip ship2) {
+    return delegate.overlap(ship1, ship2);
+  }
+
+  @Override
+  public double getTimeToCollision(IShip ship1, IShip ship2) {
+    return delegate.getTimeToCollision(ship1, ship2);
+  }
+
+  @Override
+  public double[] getCollisionPosition(IShip ship1, IShip ship2) {
+    return delegate.getCollisionPosition(ship1, ship2);
+  }
+
+  @Override
+  public IWorld createWorld() {
+    return delegate.createWorld();
+  }
+
+  @Override
+  public void addShip(IWorld world, IShip ship) {
+    delegate.addShip(world, ship);
+  }
+
+  @Override
+  public void removeShip(IWorld world, IShip ship) {
+    delegate.removeShip(world, ship);
+  }
+
+  @Override
+  public Set<IShip> getShips(IWorld world) {
+    return delegate.getShips(world);
+  }
+
+  @Override
+  public List<IShip[]> getOverlappingPairs(IWorld world) {
+    return delegate.getOverlappingPairs(world);
+  }
+
+  @Override
+  public List<IShip> getShipsNear(IWorld world, IShip ship, double range) {
+    return delegate.getShipsNear(world, ship, range);
+  }
+
+  @Override
+  public void moveAll(Collection<IShip> ships, double dt) {
+    delegate.moveAll(ships, dt);
+  }
+
+  @Override
+  public void thrustAll(Collection<IShip> ships, double amount) {
+    delegate.thrustAll(ships, amount);
+  }
+
+  @Override
+  public void getPositions(IShip[] ships, double[] out) {
+    delegate.getPositions(ships, out);
+  }
+
+  @Override
+  public void getVelocities(IShip[] ships, double[] out) {
+    delegate.getVelocities(ships, out);
+  }
+
+  @Override
+  public int getTimesToCollision(IShip ship, IShip[] others, double[] out) {
+    return delegate.getTimesToCollision(ship, others, out);
+  }
+
+  @Override
+  public int getCollisionPositions(IShip ship, IShip[] others, double[] out) {
+    return delegate.getCollisionPositions(ship, others, out);
+  }
+
+  @Override
+  public int getCollisionPositions(IShip ship, IShip[] others, double[] times, double[] out) {
+    return delegate.getCollisionPositions(ship, others, times, out);
+  }
+
+  @Override
+  public boolean findCollisionPosition(IShip ship1, IShip ship2, double[] out) {
+    return delegate.findCollisionPosition(ship1, ship2, out);
+  }
+
+  @Override
+  public double getTimeOfImpact(IShip ship1, IShip ship2, double dt) {
+    return delegate.getTimeOfImpact(ship1, ship2, dt);
+  }
+
+  @Override
+  public List<IShip[]> getImpactingPairs(IWorld world, double dt) {
+    return delegate.getImpactingPairs(world, dt);
+  }
+}
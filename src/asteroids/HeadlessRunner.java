@@ -0,0 +1,247 @@
+package asteroids;
+
+import java.io.FileOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a generated scenario against an <code>IFacade</code> without a screen,
+ * using a fixed time step, and reports its throughput.
+ *
+ * Usage:
+ * <code>java asteroids.HeadlessRunner [facade=game.Facade] [ships=1000] [dt=0.033] [duration=60] [seed=42] [collisions=true] [journal=&lt;file&gt;] [metrics=&lt;seconds&gt;]</code>
+ *
+ * The simulated time only depends on <code>dt</code> and
+ * <code>duration</code>, never on the wall clock, so two runs with the same
+ * arguments simulate exactly the same ships. With <code>journal</code>, every
+ * call that changes the ships is recorded in the given file, to be replayed
+ * with <code>JournalReplay</code>. With <code>metrics</code>, every call is
+ * measured by an <code>InstrumentedFacade</code>, whose metrics are
+ * published through JMX and printed every given number of seconds and at the
+ * end of the run.
+ */
+public class HeadlessRunner {
+  private final IFacade facade;
+  private final int nbShips;
+  private final double dt;
+  private final double duration;
+  private final long seed;
+  private final boolean detectCollisions;
+
+  public HeadlessRunner(IFacade facade, int nbShips, double dt, double duration, long seed, boolean detectCollisions) {
+    if (facade == null)
+      throw new IllegalArgumentException("facade must not be null");
+    if (nbShips < 0)
+      throw new IllegalArgumentException("number of ships must not be negative");
+    if (!(dt > 0))
+      throw new IllegalArgumentException("time step must be positive");
+    if (!(duration >= 0))
+      throw new IllegalArgumentException("duration must not be negative");
+    this.facade = facade;
+    this.nbShips = nbShips;
+    this.dt = dt;
+    this.duration = duration;
+    this.seed = seed;
+    this.detectCollisions = detectCollisions;
+  }
+
+  /**
+   * The outcome of a run.
+   */
+  public static class Result {
+    private final long ticks;
+    private final long shipUpdates;
+    private final long collisions;
+    private final long nanos;
+    private final long allocatedBytes;
+
+    Result(long ticks, long shipUpdates, long collisions, long nanos, long allocatedBytes) {
+      this.ticks = ticks;
+      this.shipUpdates = shipUpdates;
+      this.collisions = collisions;
+      this.nanos = nanos;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    public long getTicks() {
+      return ticks;
+    }
+
+    public long getShipUpdates() {
+      return shipUpdates;
+    }
+
+    /**
+     * Return the number of times two ships started to overlap.
+     */
+    public long getCollisions() {
+      return collisions;
+    }
+
+    public double getSeconds() {
+      return nanos / 1e9;
+    }
+
+    /**
+     * Return the number of bytes allocated by the simulating thread, or -1 if
+     * the virtual machine cannot measure it.
+     */
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+      double seconds = Math.max(getSeconds(), 1e-9);
+      StringBuilder result = new StringBuilder();
+      result.append(String.format("ticks:               %d%n", ticks));
+      result.append(String.format("wall time:           %.3f s%n", getSeconds()));
+      result.append(String.format("ticks/sec:           %.1f%n", ticks / seconds));
+      result.append(String.format("ship-updates/sec:    %.1f%n", shipUpdates / seconds));
+      result.append(String.format("collisions found:    %d%n", collisions));
+      if (allocatedBytes >= 0)
+        result.append(String.format("allocation rate:     %.2f MB/s%n", allocatedBytes / seconds / (1024 * 1024)));
+      else
+        result.append(String.format("allocation rate:     unavailable%n"));
+      return result.toString();
+    }
+  }
+
+  public Result run() {
+    IWorld world = facade.createWorld();
+    List<IShip> list = new ScenarioGenerator(seed).generate(facade, world, nbShips);
+    Set<IShip> ships = new LinkedHashSet<IShip>(list);
+    Map<IShip, Integer> indices = new IdentityHashMap<IShip, Integer>();
+    for (IShip ship : list)
+      indices.put(ship, indices.size());
+    long ticks = Math.round(duration / dt);
+    long collisions = 0;
+    long[] previous = detectCollisions ? overlappingPairs(world, indices) : null;
+
+    long allocatedBefore = allocatedBytes();
+    long start = System.nanoTime();
+    for (long tick = 0; tick < ticks; tick++) {
+      facade.nextTick();
+      facade.moveAll(ships, dt);
+      if (detectCollisions) {
+        long[] current = overlappingPairs(world, indices);
+        collisions += countNew(previous, current);
+        previous = current;
+      }
+    }
+    long nanos = System.nanoTime() - start;
+    long allocatedAfter = allocatedBytes();
+    long allocated = allocatedBefore < 0 || allocatedAfter < 0 ? -1 : allocatedAfter - allocatedBefore;
+    return new Result(ticks, ticks * nbShips, collisions, nanos, allocated);
+  }
+
+  /**
+   * Return the overlapping pairs of <code>world</code> as sorted keys.
+   */
+  private long[] overlappingPairs(IWorld world, Map<IShip, Integer> indices) {
+    List<IShip[]> pairs = facade.getOverlappingPairs(world);
+    long[] keys = new long[pairs.size()];
+    for (int i = 0; i < keys.length; i++) {
+      long first = indices.get(pairs.get(i)[0]);
+      long second = indices.get(pairs.get(i)[1]);
+      keys[i] = Math.min(first, second) * nbShips + Math.max(first, second);
+    }
+    Arrays.sort(keys);
+    return keys;
+  }
+
+  /**
+   * Return the number of keys in <code>current</code> that are not in
+   * <code>previous</code>. Both arrays must be sorted.
+   */
+  private static long countNew(long[] previous, long[] current) {
+    long result = 0;
+    int i = 0;
+    for (long key : current) {
+      while (i < previous.length && previous[i] < key)
+        i++;
+      if (i == previous.length || previous[i] != key)
+        result++;
+    }
+    return result;
+  }
+
+  private static long allocatedBytes() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+      if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled())
+        return hotspot.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    return -1;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String facadeClass = "game.Facade";
+    int nbShips = 1000;
+    double dt = 0.033;
+    double duration = 60;
+    long seed = 42;
+    boolean detectCollisions = true;
+    String journal = null;
+    double metrics = 0;
+    for (String arg : args) {
+      int split = arg.indexOf('=');
+      if (split < 0) {
+        System.err.println("expected key=value but got " + arg);
+        System.exit(1);
+      }
+      String key = arg.substring(0, split);
+      String value = arg.substring(split + 1);
+      if (key.equals("facade"))
+        facadeClass = value;
+      else if (key.equals("ships"))
+        nbShips = Integer.parseInt(value);
+      else if (key.equals("dt"))
+        dt = Double.parseDouble(value);
+      else if (key.equals("duration"))
+        duration = Double.parseDouble(value);
+      else if (key.equals("seed"))
+        seed = Long.parseLong(value);
+      else if (key.equals("collisions"))
+        detectCollisions = Boolean.parseBoolean(value);
+      else if (key.equals("journal"))
+        journal = value;
+      else if (key.equals("metrics"))
+        metrics = Double.parseDouble(value);
+      else {
+        System.err.println("unknown option " + key);
+        System.exit(1);
+      }
+    }
+    IFacade facade = (IFacade) Class.forName(facadeClass).newInstance();
+    JournalingFacade journaling = null;
+    if (journal != null) {
+      journaling = new JournalingFacade(facade, new FileOutputStream(journal));
+      facade = journaling;
+    }
+    InstrumentedFacade instrumented = null;
+    if (metrics > 0) {
+      instrumented = new InstrumentedFacade(facade, true);
+      instrumented.registerMBeans(facadeClass);
+      instrumented.startReporting(System.out, Math.round(metrics * 1000), TimeUnit.MILLISECONDS);
+      facade = instrumented;
+    }
+    System.out.println(String.format("%s: %d ships, dt %s s, %s s simulated, seed %d", facadeClass, nbShips, dt, duration,
+        seed));
+    System.out.print(new HeadlessRunner(facade, nbShips, dt, duration, seed, detectCollisions).run());
+    if (instrumented != null) {
+      instrumented.stopReporting();
+      System.out.print(instrumented.getReport());
+    }
+    if (journaling != null)
+      journaling.close();
+  }
+}
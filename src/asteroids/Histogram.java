@@ -0,0 +1,112 @@
+package asteroids;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values, such as latencies in nanoseconds,
+ * with buckets laid out like those of an HDR histogram: every power of two
+ * is split into <code>SUB_BUCKETS</code> buckets of equal width, so every
+ * value is known with a relative error of at most 1/<code>SUB_BUCKETS</code>
+ * over the whole range of a <code>long</code>, in a fixed amount of memory.
+ *
+ * Recording a value is lock-free and never allocates, so values may be
+ * recorded from several threads at once. Queries read the buckets one at a
+ * time; values recorded during a query may or may not be counted.
+ */
+public class Histogram {
+  static final int SUB_BUCKET_BITS = 5;
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  static final int NB_BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(NB_BUCKETS);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong sum = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Record <code>value</code>. Negative values are recorded as zero.
+   */
+  public void record(long value) {
+    if (value < 0)
+      value = 0;
+    counts.incrementAndGet(bucketOf(value));
+    count.incrementAndGet();
+    sum.addAndGet(value);
+    long current = max.get();
+    while (value > current && !max.compareAndSet(current, value))
+      current = max.get();
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  /**
+   * Return the exact mean of the recorded values, or 0 if no value was
+   * recorded.
+   */
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : (double) sum.get() / n;
+  }
+
+  /**
+   * Return the smallest value such that <code>percentile</code> percent of
+   * the recorded values are not larger, up to the precision of the buckets,
+   * or 0 if no value was recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+    if (!(percentile >= 0 && percentile <= 100))
+      throw new IllegalArgumentException("percentile must lie between 0 and 100");
+    long n = count.get();
+    if (n == 0)
+      return 0;
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+    long seen = 0;
+    for (int bucket = 0; bucket < NB_BUCKETS; bucket++) {
+      seen += counts.get(bucket);
+      if (seen >= rank)
+        return Math.min(highestValueIn(bucket), max.get());
+    }
+    return max.get();
+  }
+
+  /**
+   * Forget all recorded values.
+   */
+  public void reset() {
+    for (int bucket = 0; bucket < NB_BUCKETS; bucket++)
+      counts.set(bucket, 0);
+    count.set(0);
+    sum.set(0);
+    max.set(0);
+  }
+
+  /**
+   * Return the bucket of a non-negative value. Values below
+   * 2 * <code>SUB_BUCKETS</code> have a bucket of their own.
+   */
+  static int bucketOf(long value) {
+    int magnitude = 63 - Long.numberOfLeadingZeros(value);
+    if (magnitude < SUB_BUCKET_BITS)
+      return (int) value;
+    int shift = magnitude - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Return the largest value that falls in <code>bucket</code>.
+   */
+  static long highestValueIn(int bucket) {
+    if (bucket < 2 * SUB_BUCKETS)
+      return bucket;
+    int shift = bucket / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -1,5 +1,9 @@
 package asteroids;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
 /**
  * Implement this interface to connect your code to the user interface.
  * 
@@ -150,4 +154,141 @@ public interface IFacade {
    * represents the y-coordinate.
    */
   public double[] getCollisionPosition(IShip ship1, IShip ship2);
+
+  /**
+   * Create a new world without any ships.
+   * 
+   * Bounded worlds, whose ships wrap around or bounce off the edges, are only
+   * created by a <code>game.Facade</code> that was given a boundary. All other
+   * facades, <code>game.StoreFacade</code> included, create unbounded worlds,
+   * and so does every facade made with its default constructor, like the ones
+   * of <code>HeadlessRunner</code> and <code>JournalReplay</code>.
+   */
+  public IWorld createWorld();
+
+  /**
+   * Add <code>ship</code> to <code>world</code>.
+   */
+  public void addShip(IWorld world, IShip ship);
+
+  /**
+   * Remove <code>ship</code> from <code>world</code>.
+   */
+  public void removeShip(IWorld world, IShip ship);
+
+  /**
+   * Return the ships in <code>world</code>.
+   */
+  public Set<IShip> getShips(IWorld world);
+
+  /**
+   * Return all pairs of distinct ships in <code>world</code> that overlap.
+   * 
+   * Each element of the result is an array of length 2 holding both ships of a
+   * pair. Every pair is listed only once.
+   */
+  public List<IShip[]> getOverlappingPairs(IWorld world);
+
+  /**
+   * Return the ships in <code>world</code>, apart from <code>ship</code>
+   * itself, whose distance to <code>ship</code> is at most <code>range</code>.
+   */
+  public List<IShip> getShipsNear(IWorld world, IShip ship, double range);
+
+  /**
+   * Update the position of every ship in <code>ships</code>, assuming each of
+   * them moves <code>dt</code> seconds at its current velocity.
+   */
+  public void moveAll(Collection<IShip> ships, double dt);
+
+  /**
+   * Update the velocity of every ship in <code>ships</code> as if
+   * <code>thrust</code> were called for each of them with the given
+   * <code>amount</code>.
+   */
+  public void thrustAll(Collection<IShip> ships, double amount);
+
+  /**
+   * Store the position of every ship in <code>ships</code> in
+   * <code>out</code>. The x-coordinate of <code>ships[i]</code> is stored at
+   * index <code>2 * i</code> and its y-coordinate at index
+   * <code>2 * i + 1</code>. <code>out</code> must have a length of at least
+   * <code>2 * ships.length</code>.
+   */
+  public void getPositions(IShip[] ships, double[] out);
+
+  /**
+   * Store the velocity of every ship in <code>ships</code> in
+   * <code>out</code>, laid out in the same way as in <code>getPositions</code>.
+   */
+  public void getVelocities(IShip[] ships, double[] out);
+
+  /**
+   * Store the time until <code>ship</code> collides with each ship in
+   * <code>others</code> in <code>out</code>, which must have a length of at
+   * least <code>others.length</code>. The time at index i is computed as in
+   * <code>getTimeToCollision(ship, others[i])</code>.
+   * 
+   * Return the index in <code>others</code> of the ship that collides first
+   * with <code>ship</code>, or -1 if none of them collides with
+   * <code>ship</code>.
+   */
+  public int getTimesToCollision(IShip ship, IShip[] others, double[] out);
+
+  /**
+   * Store the first position where <code>ship</code> collides with each ship
+   * in <code>others</code> in <code>out</code>, laid out in the same way as in
+   * <code>getPositions</code>. Both coordinates are
+   * <code>Double.NaN</code> for ships that never collide with
+   * <code>ship</code>.
+   * 
+   * Return the number of ships in <code>others</code> that collide with
+   * <code>ship</code>.
+   */
+  public int getCollisionPositions(IShip ship, IShip[] others, double[] out);
+
+  /**
+   * Store the first position where <code>ship</code> collides with each ship
+   * in <code>others</code> in <code>out</code>, like the method above, given
+   * the times until they collide as stored in <code>times</code> by
+   * <code>getTimesToCollision</code>, so they are not computed again.
+   * 
+   * Return the number of ships in <code>others</code> that collide with
+   * <code>ship</code>.
+   */
+  public int getCollisionPositions(IShip ship, IShip[] others, double[] times, double[] out);
+
+  /**
+   * Store the first position where <code>ship1</code> and <code>ship2</code>
+   * collide in <code>out</code>, which must have a length of at least 2.
+   * 
+   * Return false if they never collide, in which case <code>out</code> is left
+   * untouched. A ship never collides with itself.
+   */
+  public boolean findCollisionPosition(IShip ship1, IShip ship2, double[] out);
+
+  /**
+   * Return the earliest time within the next <code>dt</code> seconds at which
+   * <code>ship1</code> and <code>ship2</code> touch, assuming both keep their
+   * current velocity. Return 0 if they already overlap, and
+   * Double.POSITIVE_INFINITY if they do not touch within <code>dt</code>
+   * seconds. Unlike checking <code>overlap</code> after each move, this also
+   * finds ships that pass through each other. A ship never collides with
+   * itself.
+   */
+  public double getTimeOfImpact(IShip ship1, IShip ship2, double dt);
+
+  /**
+   * Return all pairs of distinct ships in <code>world</code> that touch within
+   * the next <code>dt</code> seconds, ordered by the time after which they
+   * touch. Each element of the result is an array of length 2.
+   */
+  public List<IShip[]> getImpactingPairs(IWorld world, double dt);
+
+  /**
+   * Tell this facade that the calls made from now on belong to the next tick
+   * of the simulation. Facades that do not measure or record ticks ignore
+   * this.
+   */
+  public void nextTick();
 }
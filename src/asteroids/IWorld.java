@@ -0,0 +1,9 @@
+package asteroids;
+
+/**
+ * Classes for representing worlds, which hold a set of ships, should implement
+ * <code>IWorld</code>.
+ */
+public interface IWorld {
+
+}
@@ -0,0 +1,705 @@
+package asteroids;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import game.BroadPhaseListener;
+import game.World;
+
+/**
+ * An <code>IFacade</code> that measures every call before forwarding it to
+ * another facade: the number of calls and a histogram of the latencies of
+ * every method, optionally the bytes they allocate, and the number of pairs
+ * of ships evaluated in every tick.
+ *
+ * Pairs are evaluated by the calls on two ships or on one ship and an array
+ * of ships, and by the searches of the worlds of <code>game.Facade</code>,
+ * which report the pairs that passed their broad phase through a
+ * <code>BroadPhaseListener</code>. Only calls that return normally count
+ * their pairs. Ticks are delimited by <code>nextTick</code>.
+ *
+ * Recording is lock-free and does not allocate, so the facade may be used
+ * from several threads at once. The metrics can be read through the getters,
+ * through JMX once <code>registerMBeans</code> has been called, and as text,
+ * printed periodically by <code>startReporting</code>.
+ */
+public class InstrumentedFacade extends ForwardingFacade implements InstrumentedFacadeMBean, BroadPhaseListener {
+  private final Map<String, OperationMetrics> operations = new LinkedHashMap<String, OperationMetrics>();
+  private final OperationMetrics createDefaultShipMetrics = operation("createDefaultShip");
+  private final OperationMetrics createShipMetrics = operation("createShip");
+  private final OperationMetrics getXMetrics = operation("getX");
+  private final OperationMetrics getYMetrics = operation("getY");
+  private final OperationMetrics getXVelocityMetrics = operation("getXVelocity");
+  private final OperationMetrics getYVelocityMetrics = operation("getYVelocity");
+  private final OperationMetrics getRadiusMetrics = operation("getRadius");
+  private final OperationMetrics getDirectionMetrics = operation("getDirection");
+  private final OperationMetrics moveMetrics = operation("move");
+  private final OperationMetrics thrustMetrics = operation("thrust");
+  private final OperationMetrics turnMetrics = operation("turn");
+  private final OperationMetrics getDistanceBetweenMetrics = operation("getDistanceBetween");
+  private final OperationMetrics overlapMetrics = operation("overlap");
+  private final OperationMetrics getTimeToCollisionMetrics = operation("getTimeToCollision");
+  private final OperationMetrics getCollisionPositionMetrics = operation("getCollisionPosition");
+  private final OperationMetrics createWorldMetrics = operation("createWorld");
+  private final OperationMetrics addShipMetrics = operation("addShip");
+  private final OperationMetrics removeShipMetrics = operation("removeShip");
+  private final OperationMetrics getShipsMetrics = operation("getShips");
+  private final OperationMetrics getOverlappingPairsMetrics = operation("getOverlappingPairs");
+  private final OperationMetrics getShipsNearMetrics = operation("getShipsNear");
+  private final OperationMetrics moveAllMetrics = operation("moveAll");
+  private final OperationMetrics thrustAllMetrics = operation("thrustAll");
+  private final OperationMetrics getPositionsMetrics = operation("getPositions");
+  private final OperationMetrics getVelocitiesMetrics = operation("getVelocities");
+  private final OperationMetrics getTimesToCollisionMetrics = operation("getTimesToCollision");
+  private final OperationMetrics getCollisionPositionsMetrics = operation("getCollisionPositions");
+  private final OperationMetrics findCollisionPositionMetrics = operation("findCollisionPosition");
+  private final OperationMetrics getTimeOfImpactMetrics = operation("getTimeOfImpact");
+  private final OperationMetrics getImpactingPairsMetrics = operation("getImpactingPairs");
+
+  private final com.sun.management.ThreadMXBean allocations;
+  private final AtomicLong tickEvaluations = new AtomicLong();
+  private final AtomicLong pairEvaluations = new AtomicLong();
+  private final Histogram evaluationsPerTick = new Histogram();
+  private final Histogram candidatesPerSearch = new Histogram();
+  private final AtomicLong broadPhaseCandidates = new AtomicLong();
+  private final AtomicLong broadPhaseResults = new AtomicLong();
+  private final List<ObjectName> registered = new ArrayList<ObjectName>();
+  private ScheduledExecutorService reporter;
+
+  /**
+   * Create a facade measuring the calls forwarded to <code>delegate</code>,
+   * without measuring allocations.
+   */
+  public InstrumentedFacade(IFacade delegate) {
+    this(delegate, false);
+  }
+
+  /**
+   * Create a facade measuring the calls forwarded to <code>delegate</code>.
+   * Measuring allocations asks the virtual machine for the bytes allocated
+   * by the calling thread twice per call, which costs more than most calls
+   * themselves, and is ignored if the virtual machine cannot measure it.
+   */
+  public InstrumentedFacade(IFacade delegate, boolean trackAllocations) {
+    super(delegate);
+    this.allocations = trackAllocations ? allocationBean() : null;
+  }
+
+  private static com.sun.management.ThreadMXBean allocationBean() {
+    ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+    if (bean instanceof com.sun.management.ThreadMXBean) {
+      com.sun.management.ThreadMXBean hotspot = (com.sun.management.ThreadMXBean) bean;
+      if (hotspot.isThreadAllocatedMemorySupported() && hotspot.isThreadAllocatedMemoryEnabled())
+        return hotspot;
+    }
+    return null;
+  }
+
+  private OperationMetrics operation(String name) {
+    OperationMetrics result = new OperationMetrics(name);
+    operations.put(name, result);
+    return result;
+  }
+
+  /**
+   * Return the metrics of every method, by name, in the order of
+   * <code>IFacade</code>.
+   */
+  public Map<String, OperationMetrics> getOperations() {
+    return Collections.unmodifiableMap(operations);
+  }
+
+  /**
+   * Return the metrics of the method with the given name, or null if there
+   * is no such method. The two methods creating a ship are called
+   * <code>createShip</code> and <code>createDefaultShip</code>.
+   */
+  public OperationMetrics getOperation(String name) {
+    return operations.get(name);
+  }
+
+  /**
+   * Return the histogram of the number of pairs evaluated in every tick.
+   */
+  public Histogram getEvaluationsPerTick() {
+    return evaluationsPerTick;
+  }
+
+  /**
+   * Return the histogram of the number of pairs that passed the broad phase
+   * in every search of a world.
+   */
+  public Histogram getCandidatesPerSearch() {
+    return candidatesPerSearch;
+  }
+
+  @Override
+  public void nextTick() {
+    evaluationsPerTick.record(tickEvaluations.getAndSet(0));
+    super.nextTick();
+  }
+
+  @Override
+  public void searched(int nbShips, long nbCandidates, long nbFound) {
+    candidatesPerSearch.record(nbCandidates);
+    broadPhaseCandidates.addAndGet(nbCandidates);
+    broadPhaseResults.addAndGet(nbFound);
+    evaluated(nbCandidates);
+  }
+
+  private void evaluated(long pairs) {
+    tickEvaluations.addAndGet(pairs);
+    pairEvaluations.addAndGet(pairs);
+  }
+
+  private long allocatedBytes() {
+    return allocations == null ? -1 : allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  private void end(OperationMetrics operation, long start, long allocated) {
+    long nanos = System.nanoTime() - start;
+    operation.record(nanos, allocated < 0 ? -1 : allocatedBytes() - allocated);
+  }
+
+  @Override
+  public long getTicks() {
+    return evaluationsPerTick.getCount();
+  }
+
+  @Override
+  public long getPairEvaluations() {
+    return pairEvaluations.get();
+  }
+
+  @Override
+  public double getMeanPairEvaluationsPerTick() {
+    return evaluationsPerTick.getMean();
+  }
+
+  @Override
+  public long getMaxPairEvaluationsPerTick() {
+    return evaluationsPerTick.getMax();
+  }
+
+  @Override
+  public long getBroadPhaseSearches() {
+    return candidatesPerSearch.getCount();
+  }
+
+  @Override
+  public long getBroadPhaseCandidates() {
+    return broadPhaseCandidates.get();
+  }
+
+  @Override
+  public long getBroadPhaseResults() {
+    return broadPhaseResults.get();
+  }
+
+  @Override
+  public boolean isTrackingAllocations() {
+    return allocations != null;
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    long result = 0;
+    for (OperationMetrics operation : operations.values())
+      result += operation.getAllocatedBytes();
+    return result;
+  }
+
+  @Override
+  public void reset() {
+    for (OperationMetrics operation : operations.values())
+      operation.reset();
+    tickEvaluations.set(0);
+    pairEvaluations.set(0);
+    evaluationsPerTick.reset();
+    candidatesPerSearch.reset();
+    broadPhaseCandidates.set(0);
+    broadPhaseResults.set(0);
+  }
+
+  /**
+   * Return a table of the metrics of every method that was called, with
+   * latencies in microseconds, preceded by the metrics of the ticks and the
+   * broad phase.
+   */
+  @Override
+  public String getReport() {
+    StringBuilder result = new StringBuilder();
+    result.append(String.format("ticks: %d, pair evaluations: %d (mean %.1f, max %d per tick)%n", getTicks(),
+        getPairEvaluations(), getMeanPairEvaluationsPerTick(), getMaxPairEvaluationsPerTick()));
+    result.append(String.format("broad phase: %d searches, %d candidates, %d results%n", getBroadPhaseSearches(),
+        getBroadPhaseCandidates(), getBroadPhaseResults()));
+    result.append(String.format("%-22s %10s %10s %10s %10s %10s %10s %12s%n", "operation", "calls", "mean us",
+        "p50 us", "p99 us", "p99.9 us", "max us", "bytes"));
+    for (OperationMetrics operation : operations.values()) {
+      if (operation.getCount() == 0)
+        continue;
+      result.append(String.format("%-22s %10d %10.2f %10.2f %10.2f %10.2f %10.2f %12s%n", operation.getName(),
+          operation.getCount(), operation.getMeanNanos() / 1e3, operation.getMedianNanos() / 1e3,
+          operation.get99thPercentileNanos() / 1e3, operation.get999thPercentileNanos() / 1e3,
+          operation.getMaxNanos() / 1e3, isTrackingAllocations() ? Long.toString(operation.getAllocatedBytes()) : "-"));
+    }
+    return result.toString();
+  }
+
+  /**
+   * Register this facade and the metrics of every method with the platform
+   * MBean server, as <code>asteroids:type=Facade,name=&lt;name&gt;</code>
+   * and <code>asteroids:type=Facade,name=&lt;name&gt;,operation=&lt;method&gt;</code>.
+   */
+  public synchronized void registerMBeans(String name) throws JMException {
+    if (name == null)
+      throw new IllegalArgumentException("name must not be null");
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    String prefix = "asteroids:type=Facade,name=" + ObjectName.quote(name);
+    register(server, new ObjectName(prefix), this);
+    for (OperationMetrics operation : operations.values())
+      register(server, new ObjectName(prefix + ",operation=" + operation.getName()), operation);
+  }
+
+  private void register(MBeanServer server, ObjectName name, Object bean) throws JMException {
+    server.registerMBean(bean, name);
+    registered.add(name);
+  }
+
+  /**
+   * Unregister every MBean registered by <code>registerMBeans</code>.
+   */
+  public synchronized void unregisterMBeans() throws JMException {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    for (ObjectName name : registered)
+      if (server.isRegistered(name))
+        server.unregisterMBean(name);
+    registered.clear();
+  }
+
+  /**
+   * Print the report of this facade to <code>out</code> every
+   * <code>period</code>, on a daemon thread, until
+   * <code>stopReporting</code> is called.
+   */
+  public synchronized void startReporting(final PrintStream out, long period, TimeUnit unit) {
+    if (out == null)
+      throw new IllegalArgumentException("output stream must not be null");
+    if (period <= 0)
+      throw new IllegalArgumentException("period must be positive");
+    stopReporting();
+    reporter = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable runnable) {
+        Thread thread = new Thread(runnable, "metrics");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    reporter.scheduleAtFixedRate(new Runnable() {
+      @Override
+      public void run() {
+        out.print(getReport());
+        out.flush();
+      }
+    }, period, period, unit);
+  }
+
+  public synchronized void stopReporting() {
+    if (reporter != null) {
+      reporter.shutdownNow();
+      reporter = null;
+    }
+  }
+
+  @Override
+  public IShip createShip() {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.createShip();
+    } finally {
+      end(createDefaultShipMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public IShip createShip(double x, double y, double xVelocity, double yVelocity, double radius, double angle) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.createShip(x, y, xVelocity, yVelocity, radius, angle);
+    } finally {
+      end(createShipMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getX(IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getX(ship);
+    } finally {
+      end(getXMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getY(IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getY(ship);
+    } finally {
+      end(getYMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getXVelocity(IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getXVelocity(ship);
+    } finally {
+      end(getXVelocityMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getYVelocity(IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getYVelocity(ship);
+    } finally {
+      end(getYVelocityMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getRadius(IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getRadius(ship);
+    } finally {
+      end(getRadiusMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getDirection(IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getDirection(ship);
+    } finally {
+      end(getDirectionMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void move(IShip ship, double dt) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.move(ship, dt);
+    } finally {
+      end(moveMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void thrust(IShip ship, double amount) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.thrust(ship, amount);
+    } finally {
+      end(thrustMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void turn(IShip ship, double angle) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.turn(ship, angle);
+    } finally {
+      end(turnMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public double getDistanceBetween(IShip ship1, IShip ship2) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    double result;
+    try {
+      result = super.getDistanceBetween(ship1, ship2);
+    } finally {
+      end(getDistanceBetweenMetrics, start, allocated);
+    }
+    evaluated(1);
+    return result;
+  }
+
+  @Override
+  public boolean overlap(IShip ship1, IShip ship2) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    boolean result;
+    try {
+      result = super.overlap(ship1, ship2);
+    } finally {
+      end(overlapMetrics, start, allocated);
+    }
+    evaluated(1);
+    return result;
+  }
+
+  @Override
+  public double getTimeToCollision(IShip ship1, IShip ship2) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    double result;
+    try {
+      result = super.getTimeToCollision(ship1, ship2);
+    } finally {
+      end(getTimeToCollisionMetrics, start, allocated);
+    }
+    evaluated(1);
+    return result;
+  }
+
+  @Override
+  public double[] getCollisionPosition(IShip ship1, IShip ship2) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    double[] result;
+    try {
+      result = super.getCollisionPosition(ship1, ship2);
+    } finally {
+      end(getCollisionPositionMetrics, start, allocated);
+    }
+    evaluated(1);
+    return result;
+  }
+
+  @Override
+  public IWorld createWorld() {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      IWorld world = super.createWorld();
+      if (world instanceof World)
+        ((World) world).setBroadPhaseListener(this);
+      return world;
+    } finally {
+      end(createWorldMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void addShip(IWorld world, IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.addShip(world, ship);
+    } finally {
+      end(addShipMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void removeShip(IWorld world, IShip ship) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.removeShip(world, ship);
+    } finally {
+      end(removeShipMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public Set<IShip> getShips(IWorld world) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getShips(world);
+    } finally {
+      end(getShipsMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public List<IShip[]> getOverlappingPairs(IWorld world) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getOverlappingPairs(world);
+    } finally {
+      end(getOverlappingPairsMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public List<IShip> getShipsNear(IWorld world, IShip ship, double range) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getShipsNear(world, ship, range);
+    } finally {
+      end(getShipsNearMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void moveAll(Collection<IShip> ships, double dt) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.moveAll(ships, dt);
+    } finally {
+      end(moveAllMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void thrustAll(Collection<IShip> ships, double amount) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.thrustAll(ships, amount);
+    } finally {
+      end(thrustAllMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void getPositions(IShip[] ships, double[] out) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.getPositions(ships, out);
+    } finally {
+      end(getPositionsMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public void getVelocities(IShip[] ships, double[] out) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      super.getVelocities(ships, out);
+    } finally {
+      end(getVelocitiesMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public int getTimesToCollision(IShip ship, IShip[] others, double[] out) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    int result;
+    try {
+      result = super.getTimesToCollision(ship, others, out);
+    } finally {
+      end(getTimesToCollisionMetrics, start, allocated);
+    }
+    if (others != null)
+      evaluated(others.length);
+    return result;
+  }
+
+  @Override
+  public int getCollisionPositions(IShip ship, IShip[] others, double[] out) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    int result;
+    try {
+      result = super.getCollisionPositions(ship, others, out);
+    } finally {
+      end(getCollisionPositionsMetrics, start, allocated);
+    }
+    if (others != null)
+      evaluated(others.length);
+    return result;
+  }
+
+  /**
+   * Timed as <code>getCollisionPositions</code>, but evaluates no pairs: the
+   * times until the collisions are given.
+   */
+  @Override
+  public int getCollisionPositions(IShip ship, IShip[] others, double[] times, double[] out) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getCollisionPositions(ship, others, times, out);
+    } finally {
+      end(getCollisionPositionsMetrics, start, allocated);
+    }
+  }
+
+  @Override
+  public boolean findCollisionPosition(IShip ship1, IShip ship2, double[] out) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    boolean result;
+    try {
+      result = super.findCollisionPosition(ship1, ship2, out);
+    } finally {
+      end(findCollisionPositionMetrics, start, allocated);
+    }
+    evaluated(1);
+    return result;
+  }
+
+  @Override
+  public double getTimeOfImpact(IShip ship1, IShip ship2, double dt) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    double result;
+    try {
+      result = super.getTimeOfImpact(ship1, ship2, dt);
+    } finally {
+      end(getTimeOfImpactMetrics, start, allocated);
+    }
+    evaluated(1);
+    return result;
+  }
+
+  @Override
+  public List<IShip[]> getImpactingPairs(IWorld world, double dt) {
+    long allocated = allocatedBytes();
+    long start = System.nanoTime();
+    try {
+      return super.getImpactingPairs(world, dt);
+    } finally {
+      end(getImpactingPairsMetrics, start, allocated);
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package asteroids;
+
+/**
+ * The management interface of <code>InstrumentedFacade</code>. The metrics
+ * of every method are published as separate <code>OperationMetricsMBean</code>s.
+ */
+public interface InstrumentedFacadeMBean {
+  long getTicks();
+
+  long getPairEvaluations();
+
+  double getMeanPairEvaluationsPerTick();
+
+  long getMaxPairEvaluationsPerTick();
+
+  long getBroadPhaseSearches();
+
+  long getBroadPhaseCandidates();
+
+  long getBroadPhaseResults();
+
+  boolean isTrackingAllocations();
+
+  long getAllocatedBytes();
+
+  String getReport();
+
+  void reset();
+}
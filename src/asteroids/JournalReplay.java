@@ -0,0 +1,222 @@
+package asteroids;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Plays a journal written by <code>JournalingFacade</code> back against an
+ * <code>IFacade</code>, without a screen.
+ *
+ * Usage:
+ * <code>java asteroids.JournalReplay journal=&lt;file&gt; [facade=game.Facade] [dump=false]</code>
+ *
+ * Replaying the same journal against two facades, with <code>dump=true</code>,
+ * prints the final position and velocity of every ship, so the states reached
+ * by two versions of an engine can be compared with a text diff.
+ */
+public class JournalReplay {
+  private final IFacade facade;
+  private final List<IShip> ships = new ArrayList<IShip>();
+  private final List<IWorld> worlds = new ArrayList<IWorld>();
+  private Collection<IShip> lastRange = new LinkedHashSet<IShip>();
+  private int lastRangeStart = -1;
+  private long tick;
+  private long records;
+
+  public JournalReplay(IFacade facade) {
+    if (facade == null)
+      throw new IllegalArgumentException("facade must not be null");
+    this.facade = facade;
+  }
+
+  public IFacade getFacade() {
+    return facade;
+  }
+
+  /**
+   * Return the ships created so far, in the order in which they were created
+   * while the journal was recorded.
+   */
+  public List<IShip> getShips() {
+    return ships;
+  }
+
+  /**
+   * Return the worlds created so far, in the order in which they were created
+   * while the journal was recorded.
+   */
+  public List<IWorld> getWorlds() {
+    return worlds;
+  }
+
+  /**
+   * Return the tick of the last replayed record.
+   */
+  public long getTick() {
+    return tick;
+  }
+
+  /**
+   * Return the number of calls replayed so far.
+   */
+  public long getNbRecords() {
+    return records;
+  }
+
+  /**
+   * Replay every record in <code>in</code>, which must hold a complete
+   * journal, and close it afterwards.
+   */
+  public void replay(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+    try {
+      if (data.readInt() != JournalingFacade.MAGIC)
+        throw new IOException("not a journal");
+      int version = data.readInt();
+      if (version != JournalingFacade.VERSION)
+        throw new IOException("unsupported journal version " + version);
+      int opcode;
+      while ((opcode = data.read()) >= 0)
+        replay((byte) opcode, data);
+    } finally {
+      data.close();
+    }
+  }
+
+  private void replay(byte opcode, DataInputStream in) throws IOException {
+    try {
+      switch (opcode) {
+      case JournalingFacade.TICK:
+        tick = in.readLong();
+        return;
+      case JournalingFacade.CREATE_SHIP:
+        ships.add(facade.createShip(in.readDouble(), in.readDouble(), in.readDouble(), in.readDouble(),
+            in.readDouble(), in.readDouble()));
+        break;
+      case JournalingFacade.CREATE_DEFAULT_SHIP:
+        ships.add(facade.createShip());
+        break;
+      case JournalingFacade.CREATE_WORLD:
+        worlds.add(facade.createWorld());
+        break;
+      case JournalingFacade.ADD_SHIP:
+        facade.addShip(worlds.get(in.readInt()), ships.get(in.readInt()));
+        break;
+      case JournalingFacade.REMOVE_SHIP:
+        facade.removeShip(worlds.get(in.readInt()), ships.get(in.readInt()));
+        break;
+      case JournalingFacade.MOVE:
+        facade.move(ships.get(in.readInt()), in.readDouble());
+        break;
+      case JournalingFacade.THRUST:
+        facade.thrust(ships.get(in.readInt()), in.readDouble());
+        break;
+      case JournalingFacade.TURN:
+        facade.turn(ships.get(in.readInt()), in.readDouble());
+        break;
+      case JournalingFacade.MOVE_ALL: {
+        double dt = in.readDouble();
+        facade.moveAll(readShips(in), dt);
+        break;
+      }
+      case JournalingFacade.MOVE_ALL | JournalingFacade.RANGE: {
+        double dt = in.readDouble();
+        facade.moveAll(readRange(in), dt);
+        break;
+      }
+      case JournalingFacade.THRUST_ALL: {
+        double amount = in.readDouble();
+        facade.thrustAll(readShips(in), amount);
+        break;
+      }
+      case JournalingFacade.THRUST_ALL | JournalingFacade.RANGE: {
+        double amount = in.readDouble();
+        facade.thrustAll(readRange(in), amount);
+        break;
+      }
+      default:
+        throw new IOException("unknown record " + opcode + " at tick " + tick);
+      }
+    } catch (EOFException exc) {
+      throw new IOException("journal ends in the middle of a record at tick " + tick, exc);
+    } catch (IndexOutOfBoundsException exc) {
+      throw new IOException("record refers to an unknown ship or world at tick " + tick, exc);
+    }
+    records++;
+  }
+
+  /**
+   * Read the ids of a call on a collection of ships.
+   */
+  private Collection<IShip> readShips(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    List<IShip> result = new ArrayList<IShip>(count);
+    for (int i = 0; i < count; i++)
+      result.add(ships.get(in.readInt()));
+    return result;
+  }
+
+  /**
+   * Read a call on a run of ships with consecutive ids. The collection is
+   * reused as long as the same run is replayed, so replaying a tick that
+   * moves all ships does not allocate.
+   */
+  private Collection<IShip> readRange(DataInputStream in) throws IOException {
+    int count = in.readInt();
+    int start = in.readInt();
+    if (start != lastRangeStart || count != lastRange.size()) {
+      lastRange = new LinkedHashSet<IShip>(ships.subList(start, start + count));
+      lastRangeStart = start;
+    }
+    return lastRange;
+  }
+
+  public static void main(String[] args) throws Exception {
+    String journal = null;
+    String facadeClass = "game.Facade";
+    boolean dump = false;
+    for (String arg : args) {
+      int split = arg.indexOf('=');
+      if (split < 0) {
+        System.err.println("expected key=value but got " + arg);
+        System.exit(1);
+      }
+      String key = arg.substring(0, split);
+      String value = arg.substring(split + 1);
+      if (key.equals("journal"))
+        journal = value;
+      else if (key.equals("facade"))
+        facadeClass = value;
+      else if (key.equals("dump"))
+        dump = Boolean.parseBoolean(value);
+      else {
+        System.err.println("unknown option " + key);
+        System.exit(1);
+      }
+    }
+    if (journal == null) {
+      System.err.println("usage: java asteroids.JournalReplay journal=<file> [facade=game.Facade] [dump=false]");
+      System.exit(1);
+    }
+    IFacade facade = (IFacade) Class.forName(facadeClass).newInstance();
+    JournalReplay replay = new JournalReplay(facade);
+    long start = System.nanoTime();
+    replay.replay(new FileInputStream(journal));
+    double seconds = Math.max((System.nanoTime() - start) / 1e9, 1e-9);
+    System.out.println(String.format("%s: %d records, %d ticks, %d ships in %.3f s (%.1f records/sec)", facadeClass,
+        replay.getNbRecords(), replay.getTick(), replay.getShips().size(), seconds, replay.getNbRecords() / seconds));
+    if (dump) {
+      for (IShip ship : replay.getShips())
+        System.out.println(String.format("%s %s %s %s", facade.getX(ship), facade.getY(ship),
+            facade.getXVelocity(ship), facade.getYVelocity(ship)));
+    }
+  }
+}
@@ -0,0 +1,258 @@
+package asteroids;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An <code>IFacade</code> that records every call that changes ships or
+ * worlds in an append-only binary journal, before forwarding it to another
+ * facade. <code>JournalReplay</code> plays a journal back against any facade.
+ *
+ * The journal starts with the magic number <code>MAGIC</code> and the format
+ * version <code>VERSION</code>. Every record starts with a one-byte opcode.
+ * Ships and worlds are identified by the order in which they were created
+ * through this facade, so only ships and worlds created through this facade
+ * can be used with it. The tick number is written as a separate record
+ * whenever it changes, so records in between carry no time stamp.
+ *
+ * All methods are synchronized, so the journal can be closed from another
+ * thread than the one driving the simulation.
+ */
+public class JournalingFacade extends ForwardingFacade implements Closeable {
+  public static final int MAGIC = 0x41534a4c;
+  public static final int VERSION = 1;
+
+  static final byte TICK = 1;
+  static final byte CREATE_SHIP = 2;
+  static final byte CREATE_DEFAULT_SHIP = 3;
+  static final byte CREATE_WORLD = 4;
+  static final byte ADD_SHIP = 5;
+  static final byte REMOVE_SHIP = 6;
+  static final byte MOVE = 7;
+  static final byte THRUST = 8;
+  static final byte TURN = 9;
+  static final byte MOVE_ALL = 10;
+  static final byte THRUST_ALL = 11;
+  static final byte RANGE = (byte) 0x80;
+
+  private final DataOutputStream out;
+  private final Map<IShip, Integer> shipIds = new IdentityHashMap<IShip, Integer>();
+  private final Map<IWorld, Integer> worldIds = new IdentityHashMap<IWorld, Integer>();
+  private long tick;
+  private long writtenTick;
+  private long records;
+  private int[] scratch = new int[16];
+
+  /**
+   * Create a facade forwarding to <code>delegate</code> that writes its
+   * journal to <code>out</code>. The stream is buffered by this facade.
+   */
+  public JournalingFacade(IFacade delegate, OutputStream out) throws IOException {
+    super(delegate);
+    if (out == null)
+      throw new IllegalArgumentException("output stream must not be null");
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    this.out.writeInt(MAGIC);
+    this.out.writeInt(VERSION);
+  }
+
+  /**
+   * Return the tick that is attached to the calls recorded from now on.
+   */
+  public synchronized long getTick() {
+    return tick;
+  }
+
+  /**
+   * Attach the calls recorded from now on to the next tick.
+   */
+  @Override
+  public synchronized void nextTick() {
+    tick++;
+    super.nextTick();
+  }
+
+  /**
+   * Return the number of calls recorded so far.
+   */
+  public synchronized long getNbRecords() {
+    return records;
+  }
+
+  public synchronized void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    out.close();
+  }
+
+  @Override
+  public synchronized IShip createShip() {
+    IShip ship = super.createShip();
+    begin(CREATE_DEFAULT_SHIP);
+    shipIds.put(ship, shipIds.size());
+    return ship;
+  }
+
+  @Override
+  public synchronized IShip createShip(double x, double y, double xVelocity, double yVelocity, double radius,
+      double angle) {
+    IShip ship = super.createShip(x, y, xVelocity, yVelocity, radius, angle);
+    try {
+      begin(CREATE_SHIP);
+      out.writeDouble(x);
+      out.writeDouble(y);
+      out.writeDouble(xVelocity);
+      out.writeDouble(yVelocity);
+      out.writeDouble(radius);
+      out.writeDouble(angle);
+    } catch (IOException exc) {
+      throw new ModelException(exc);
+    }
+    shipIds.put(ship, shipIds.size());
+    return ship;
+  }
+
+  @Override
+  public synchronized IWorld createWorld() {
+    IWorld world = super.createWorld();
+    begin(CREATE_WORLD);
+    worldIds.put(world, worldIds.size());
+    return world;
+  }
+
+  @Override
+  public synchronized void addShip(IWorld world, IShip ship) {
+    super.addShip(world, ship);
+    writeWorldAndShip(ADD_SHIP, world, ship);
+  }
+
+  @Override
+  public synchronized void removeShip(IWorld world, IShip ship) {
+    super.removeShip(world, ship);
+    writeWorldAndShip(REMOVE_SHIP, world, ship);
+  }
+
+  @Override
+  public synchronized void move(IShip ship, double dt) {
+    super.move(ship, dt);
+    writeShipAndValue(MOVE, ship, dt);
+  }
+
+  @Override
+  public synchronized void thrust(IShip ship, double amount) {
+    super.thrust(ship, amount);
+    writeShipAndValue(THRUST, ship, amount);
+  }
+
+  @Override
+  public synchronized void turn(IShip ship, double angle) {
+    super.turn(ship, angle);
+    writeShipAndValue(TURN, ship, angle);
+  }
+
+  @Override
+  public synchronized void moveAll(Collection<IShip> ships, double dt) {
+    super.moveAll(ships, dt);
+    writeShipsAndValue(MOVE_ALL, ships, dt);
+  }
+
+  @Override
+  public synchronized void thrustAll(Collection<IShip> ships, double amount) {
+    super.thrustAll(ships, amount);
+    writeShipsAndValue(THRUST_ALL, ships, amount);
+  }
+
+  /**
+   * Write the opcode of a new record, preceded by a tick record if the tick
+   * changed since the previous record.
+   */
+  private void begin(byte opcode) {
+    try {
+      if (tick != writtenTick) {
+        out.writeByte(TICK);
+        out.writeLong(tick);
+        writtenTick = tick;
+      }
+      out.writeByte(opcode);
+      records++;
+    } catch (IOException exc) {
+      throw new ModelException(exc);
+    }
+  }
+
+  private int shipId(IShip ship) {
+    Integer id = shipIds.get(ship);
+    if (id == null)
+      throw new ModelException("ship was not created through this journal");
+    return id;
+  }
+
+  private int worldId(IWorld world) {
+    Integer id = worldIds.get(world);
+    if (id == null)
+      throw new ModelException("world was not created through this journal");
+    return id;
+  }
+
+  private void writeWorldAndShip(byte opcode, IWorld world, IShip ship) {
+    int worldId = worldId(world);
+    int shipId = shipId(ship);
+    begin(opcode);
+    try {
+      out.writeInt(worldId);
+      out.writeInt(shipId);
+    } catch (IOException exc) {
+      throw new ModelException(exc);
+    }
+  }
+
+  private void writeShipAndValue(byte opcode, IShip ship, double value) {
+    int shipId = shipId(ship);
+    begin(opcode);
+    try {
+      out.writeInt(shipId);
+      out.writeDouble(value);
+    } catch (IOException exc) {
+      throw new ModelException(exc);
+    }
+  }
+
+  /**
+   * Write a call on a collection of ships. If the ships are a run of
+   * consecutive ids, which is the case when all ships are moved at once, only
+   * the first id is written and the opcode is marked with <code>RANGE</code>.
+   */
+  private void writeShipsAndValue(byte opcode, Collection<IShip> ships, double value) {
+    if (scratch.length < ships.size())
+      scratch = new int[Math.max(ships.size(), 2 * scratch.length)];
+    int count = 0;
+    boolean range = true;
+    for (IShip ship : ships) {
+      scratch[count] = shipId(ship);
+      range &= count == 0 || scratch[count] == scratch[count - 1] + 1;
+      count++;
+    }
+    begin(range ? (byte) (opcode | RANGE) : opcode);
+    try {
+      out.writeDouble(value);
+      out.writeInt(count);
+      if (range) {
+        out.writeInt(count == 0 ? 0 : scratch[0]);
+      } else {
+        for (int i = 0; i < count; i++)
+          out.writeInt(scratch[i]);
+      }
+    } catch (IOException exc) {
+      throw new ModelException(exc);
+    }
+  }
+}
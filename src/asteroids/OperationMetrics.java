@@ -0,0 +1,83 @@
+package asteroids;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The number of calls, the latency and the bytes allocated by one method of
+ * an <code>InstrumentedFacade</code>.
+ */
+public class OperationMetrics implements OperationMetricsMBean {
+  private final String name;
+  private final Histogram latency = new Histogram();
+  private final AtomicLong allocatedBytes = new AtomicLong();
+
+  public OperationMetrics(String name) {
+    if (name == null)
+      throw new IllegalArgumentException("name must not be null");
+    this.name = name;
+  }
+
+  /**
+   * Record a call that took <code>nanos</code> nanoseconds and allocated
+   * <code>bytes</code> bytes. A negative number of bytes means the
+   * allocations were not measured.
+   */
+  public void record(long nanos, long bytes) {
+    latency.record(nanos);
+    if (bytes > 0)
+      allocatedBytes.addAndGet(bytes);
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Return the histogram of the latencies of the calls, in nanoseconds.
+   */
+  public Histogram getLatency() {
+    return latency;
+  }
+
+  @Override
+  public long getCount() {
+    return latency.getCount();
+  }
+
+  @Override
+  public double getMeanNanos() {
+    return latency.getMean();
+  }
+
+  @Override
+  public long getMedianNanos() {
+    return latency.getValueAtPercentile(50);
+  }
+
+  @Override
+  public long get99thPercentileNanos() {
+    return latency.getValueAtPercentile(99);
+  }
+
+  @Override
+  public long get999thPercentileNanos() {
+    return latency.getValueAtPercentile(99.9);
+  }
+
+  @Override
+  public long getMaxNanos() {
+    return latency.getMax();
+  }
+
+  @Override
+  public long getAllocatedBytes() {
+    return allocatedBytes.get();
+  }
+
+  @Override
+  public void reset() {
+    latency.reset();
+    allocatedBytes.set(0);
+  }
+}
@@ -0,0 +1,24 @@
+package asteroids;
+
+/**
+ * The management interface of <code>OperationMetrics</code>.
+ */
+public interface OperationMetricsMBean {
+  String getName();
+
+  long getCount();
+
+  double getMeanNanos();
+
+  long getMedianNanos();
+
+  long get99thPercentileNanos();
+
+  long get999thPercentileNanos();
+
+  long getMaxNanos();
+
+  long getAllocatedBytes();
+
+  void reset();
+}
@@ -0,0 +1,160 @@
+package asteroids;
+
+/**
+ * A uniform grid over the centres of a fixed set of circles, used to find the
+ * circles that intersect a rectangle without looking at all of them.
+ *
+ * The circles are bucketed by cell with a counting sort into two flat
+ * arrays, so building a grid takes linear time and allocates a few arrays,
+ * whatever the number of circles. A grid is never changed after it is built.
+ *
+ * The grid only spans the range of the bulk of the circles along each axis,
+ * leaving out the outermost <code>1 / OUTLIER_FRACTION</code> of them at both
+ * sides, so a single circle far away does not stretch the cells until all
+ * other circles share one. Circles outside that range are kept in the border
+ * cells, where queries reaching beyond the grid look for them.
+ */
+final class PointGrid {
+  private final double minX;
+  private final double minY;
+  private final double cellSize;
+  private final double maxRadius;
+  private final int columns;
+  private final int rows;
+  private final int[] cellStart;
+  private final int[] indices;
+  private final double[] positions;
+  private final double[] radii;
+
+  private static final int OUTLIER_FRACTION = 64;
+
+  /**
+   * Build a grid over the first <code>n</code> circles, whose centres are
+   * stored as x, y pairs in <code>positions</code>.
+   */
+  PointGrid(double[] positions, double[] radii, int n) {
+    this.positions = positions;
+    this.radii = radii;
+    double[] xs = new double[n];
+    double[] ys = new double[n];
+    int finite = 0;
+    double maxRadius = 0;
+    for (int i = 0; i < n; i++) {
+      double x = positions[2 * i];
+      double y = positions[2 * i + 1];
+      // Circles at infinity or at NaN end up in a border cell, where no query finds them.
+      if (!(Math.abs(x) < Double.POSITIVE_INFINITY && Math.abs(y) < Double.POSITIVE_INFINITY))
+        continue;
+      xs[finite] = x;
+      ys[finite] = y;
+      finite++;
+      maxRadius = Math.max(maxRadius, radii[i]);
+    }
+    double minX = 0, minY = 0, maxX = 1, maxY = 1;
+    if (finite > 0) {
+      int skipped = finite / OUTLIER_FRACTION;
+      minX = select(xs, finite, skipped);
+      maxX = select(xs, finite, finite - 1 - skipped);
+      minY = select(ys, finite, skipped);
+      maxY = select(ys, finite, finite - 1 - skipped);
+      if (Double.isInfinite(maxX - minX) || Double.isInfinite(maxY - minY)) {
+        minX = minY = 0;
+        maxX = maxY = 1;
+      }
+    }
+    double width = Math.max(maxX - minX, 1);
+    double height = Math.max(maxY - minY, 1);
+    // About one circle per cell, and never more cells than circles along an axis.
+    double cellSize = Math.sqrt(width * height / Math.max(n, 1));
+    cellSize = Math.max(cellSize, Math.max(width, height) / Math.max(n, 1));
+    this.minX = minX;
+    this.minY = minY;
+    this.cellSize = cellSize;
+    this.maxRadius = maxRadius;
+    this.columns = (int) (width / cellSize) + 1;
+    this.rows = (int) (height / cellSize) + 1;
+    int[] cells = new int[n];
+    int[] start = new int[columns * rows + 1];
+    for (int i = 0; i < n; i++) {
+      cells[i] = column(positions[2 * i]) + columns * row(positions[2 * i + 1]);
+      start[cells[i] + 1]++;
+    }
+    for (int cell = 0; cell < columns * rows; cell++)
+      start[cell + 1] += start[cell];
+    int[] next = new int[columns * rows];
+    System.arraycopy(start, 0, next, 0, next.length);
+    int[] indices = new int[n];
+    for (int i = 0; i < n; i++)
+      indices[next[cells[i]]++] = i;
+    this.cellStart = start;
+    this.indices = indices;
+  }
+
+  /**
+   * Return the value that would be at index <code>k</code> if the first
+   * <code>n</code> elements of <code>values</code> were sorted, reordering
+   * them on the way.
+   */
+  private static double select(double[] values, int n, int k) {
+    int from = 0, to = n - 1;
+    while (from < to) {
+      double pivot = values[(from + to) >>> 1];
+      int i = from, j = to;
+      while (i <= j) {
+        while (values[i] < pivot)
+          i++;
+        while (values[j] > pivot)
+          j--;
+        if (i <= j) {
+          double swap = values[i];
+          values[i++] = values[j];
+          values[j--] = swap;
+        }
+      }
+      if (k <= j)
+        to = j;
+      else if (k >= i)
+        from = i;
+      else
+        return values[k];
+    }
+    return values[k];
+  }
+
+  private int column(double x) {
+    return clamp((int) Math.floor((x - minX) / cellSize), columns);
+  }
+
+  private int row(double y) {
+    return clamp((int) Math.floor((y - minY) / cellSize), rows);
+  }
+
+  private static int clamp(int index, int size) {
+    return index < 0 ? 0 : index >= size ? size - 1 : index;
+  }
+
+  /**
+   * Write the indices of the circles whose bounding box intersects the given
+   * rectangle to <code>out</code>, which must be large enough to hold all
+   * circles, and return how many there are. The indices are grouped by cell,
+   * not sorted.
+   */
+  int query(double qminX, double qminY, double qmaxX, double qmaxY, int[] out) {
+    int fromColumn = column(qminX - maxRadius);
+    int toColumn = column(qmaxX + maxRadius);
+    int fromRow = row(qminY - maxRadius);
+    int toRow = row(qmaxY + maxRadius);
+    int count = 0;
+    for (int row = fromRow; row <= toRow; row++) {
+      for (int k = cellStart[fromColumn + columns * row]; k < cellStart[toColumn + columns * row + 1]; k++) {
+        int i = indices[k];
+        double x = positions[2 * i];
+        double y = positions[2 * i + 1];
+        double radius = radii[i];
+        if (x + radius >= qminX && x - radius <= qmaxX && y + radius >= qminY && y - radius <= qmaxY)
+          out[count++] = i;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,233 @@
+package asteroids;
+
+import game.Boundary;
+
+/**
+ * An immutable picture of the ships at one moment, captured by the simulation
+ * after a step and drawn by <code>AsteroidsView</code>.
+ *
+ * All ship properties are copied into arrays, indexed in the same order as the
+ * ships passed to <code>capture</code>, and the next collision of the selected
+ * ship and its crosshairs are computed up front. Painting a snapshot therefore
+ * never calls the facade, so the ships may be stepped on another thread while
+ * the previous snapshot is drawn. A snapshot also indexes its ships in a
+ * grid the first time it is queried, so the view only looks at the ships
+ * inside its viewport, and snapshots that are never drawn cost no grid. That
+ * grid is the only state a snapshot fills in later, and it is published
+ * through a volatile field, so snapshots can be shared between threads.
+ */
+public final class RenderSnapshot {
+  private final int nbShips;
+  private final double[] positions;
+  private final double[] radii;
+  private final double[] directions;
+  private final int selected;
+  private final int collisionShip;
+  private final double[] collisionPositions;
+  private final double[] crosshairs;
+  private final int nbCrosshairs;
+  private volatile PointGrid grid;
+
+  private RenderSnapshot(int nbShips, double[] positions, double[] radii, double[] directions, int selected,
+      int collisionShip, double[] collisionPositions, double[] crosshairs, int nbCrosshairs) {
+    this.nbShips = nbShips;
+    this.positions = positions;
+    this.radii = radii;
+    this.directions = directions;
+    this.selected = selected;
+    this.collisionShip = collisionShip;
+    this.collisionPositions = collisionPositions;
+    this.crosshairs = crosshairs;
+    this.nbCrosshairs = nbCrosshairs;
+  }
+
+  /**
+   * Return a snapshot of <code>ships</code>, with <code>selected</code>
+   * marked as the selected ship. If <code>collisions</code> is true, the next
+   * collision of the selected ship and the positions where it collides with
+   * the other ships are computed as well.
+   */
+  public static RenderSnapshot capture(IFacade facade, IShip[] ships, IShip selected, boolean collisions) {
+    int n = ships.length;
+    double[] positions = new double[2 * n];
+    double[] radii = new double[n];
+    double[] directions = new double[n];
+    facade.getPositions(ships, positions);
+    int selectedIndex = -1;
+    for (int i = 0; i < n; i++) {
+      radii[i] = facade.getRadius(ships[i]);
+      directions[i] = facade.getDirection(ships[i]);
+      if (ships[i] == selected)
+        selectedIndex = i;
+    }
+    RenderSnapshot result = new RenderSnapshot(n, positions, radii, directions, selectedIndex, -1, null, null, 0);
+    return collisions ? result.withCollisions(facade, ships) : result;
+  }
+
+  /**
+   * Return a snapshot like this one, with the next collision of the selected
+   * ship and the positions where it collides with the other ships. The
+   * <code>ships</code> must be the ones this snapshot was captured from, and
+   * must not have changed since, so the collisions can be computed only for
+   * the snapshots that are drawn.
+   */
+  public RenderSnapshot withCollisions(IFacade facade, IShip[] ships) {
+    if (selected < 0)
+      return this;
+    int n = nbShips;
+    IShip ship = ships[selected];
+    int collisionShip = -1;
+    double[] collisionPositions = null;
+    double[] times = new double[n];
+    int first = facade.getTimesToCollision(ship, ships, times);
+    if (first >= 0 && !facade.overlap(ship, ships[first])) {
+      double[] velocities = new double[2 * n];
+      facade.getVelocities(ships, velocities);
+      double dt = times[first];
+      collisionShip = first;
+      collisionPositions = new double[] {
+          positions[2 * selected] + dt * velocities[2 * selected],
+          positions[2 * selected + 1] + dt * velocities[2 * selected + 1],
+          positions[2 * first] + dt * velocities[2 * first],
+          positions[2 * first + 1] + dt * velocities[2 * first + 1] };
+    }
+    double[] crosshairs = new double[2 * n];
+    facade.getCollisionPositions(ship, ships, times, crosshairs);
+    int nbCrosshairs = 0;
+    for (int i = 0; i < n; i++) {
+      if (Double.isNaN(crosshairs[2 * i]) || facade.overlap(ship, ships[i]))
+        continue;
+      crosshairs[2 * nbCrosshairs] = crosshairs[2 * i];
+      crosshairs[2 * nbCrosshairs + 1] = crosshairs[2 * i + 1];
+      nbCrosshairs++;
+    }
+    return new RenderSnapshot(n, positions, radii, directions, selected, collisionShip, collisionPositions,
+        crosshairs, nbCrosshairs);
+  }
+
+  /**
+   * Return a snapshot lying a fraction <code>alpha</code> of the way from
+   * <code>from</code> to <code>to</code>. The positions of the ships are
+   * interpolated linearly; everything else is taken from <code>to</code>.
+   * If the snapshots do not hold the same number of ships, <code>to</code>
+   * is returned.
+   */
+  public static RenderSnapshot interpolate(RenderSnapshot from, RenderSnapshot to, double alpha) {
+    return interpolate(from, to, alpha, Boundary.UNBOUNDED, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+  }
+
+  /**
+   * Return a snapshot like the one above, for ships in a world with the
+   * given boundary and size. In a world that wraps around, a ship that
+   * crossed an edge is moved towards the nearest image of its new position,
+   * and then wrapped back into the world, instead of across the screen.
+   */
+  public static RenderSnapshot interpolate(RenderSnapshot from, RenderSnapshot to, double alpha, Boundary boundary,
+      double width, double height) {
+    if (from == null || from.nbShips != to.nbShips || alpha >= 1)
+      return to;
+    double[] positions = new double[to.positions.length];
+    for (int i = 0; i < to.nbShips; i++) {
+      positions[2 * i] = interpolate(from.positions[2 * i], to.positions[2 * i], alpha, boundary, width);
+      positions[2 * i + 1] = interpolate(from.positions[2 * i + 1], to.positions[2 * i + 1], alpha, boundary, height);
+    }
+    return new RenderSnapshot(to.nbShips, positions, to.radii, to.directions, to.selected, to.collisionShip,
+        to.collisionPositions, to.crosshairs, to.nbCrosshairs);
+  }
+
+  private static double interpolate(double from, double to, double alpha, Boundary boundary, double size) {
+    return boundary.confine(from + alpha * boundary.getDisplacement(to - from, size), 0, size);
+  }
+
+  public int getNbShips() {
+    return nbShips;
+  }
+
+  public double getX(int i) {
+    return positions[2 * i];
+  }
+
+  public double getY(int i) {
+    return positions[2 * i + 1];
+  }
+
+  public double getRadius(int i) {
+    return radii[i];
+  }
+
+  public double getDirection(int i) {
+    return directions[i];
+  }
+
+  /**
+   * Write the indices of the ships that lie at least partly inside the given
+   * rectangle to <code>out</code>, in no particular order, and return how
+   * many there are. A ship is reported if its bounding box intersects the
+   * rectangle.
+   */
+  public int getShipsIn(double minX, double minY, double maxX, double maxY, int[] out) {
+    if (out.length < nbShips)
+      throw new IllegalArgumentException("output array must hold one index per ship");
+    // The render thread and the event dispatch thread may both query a new
+    // snapshot. Each of them may then build a grid, which is harmless since
+    // every grid of a snapshot is the same; the field is volatile so a grid
+    // built by one thread is seen by the other.
+    PointGrid grid = this.grid;
+    if (grid == null) {
+      grid = new PointGrid(positions, radii, nbShips);
+      this.grid = grid;
+    }
+    return grid.query(minX, minY, maxX, maxY, out);
+  }
+
+  /**
+   * Return the index of the selected ship, or -1 if it was not among the
+   * captured ships.
+   */
+  public int getSelected() {
+    return selected;
+  }
+
+  /**
+   * Return the index of the ship that collides first with the selected ship,
+   * or -1 if there is none, if it already overlaps the selected ship, or if
+   * collisions were not captured.
+   */
+  public int getCollisionShip() {
+    return collisionShip;
+  }
+
+  /**
+   * Return the x-coordinate of the selected ship (<code>which == 0</code>) or
+   * of the collision ship (<code>which == 1</code>) at the moment they
+   * collide.
+   */
+  public double getCollisionX(int which) {
+    return collisionPositions[2 * which];
+  }
+
+  /**
+   * Return the y-coordinate of the selected ship (<code>which == 0</code>) or
+   * of the collision ship (<code>which == 1</code>) at the moment they
+   * collide.
+   */
+  public double getCollisionY(int which) {
+    return collisionPositions[2 * which + 1];
+  }
+
+  /**
+   * Return the number of positions where the selected ship collides with a
+   * ship it does not overlap yet.
+   */
+  public int getNbCrosshairs() {
+    return nbCrosshairs;
+  }
+
+  public double getCrosshairX(int i) {
+    return crosshairs[2 * i];
+  }
+
+  public double getCrosshairY(int i) {
+    return crosshairs[2 * i + 1];
+  }
+}
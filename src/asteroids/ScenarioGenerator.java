@@ -0,0 +1,59 @@
+package asteroids;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible scenarios: the same seed and number of ships always
+ * produce the same ships, in the same order, for any <code>IFacade</code>.
+ *
+ * Ships are spread uniformly over a square whose area grows with the number of
+ * ships, so the density of a scenario does not depend on its size.
+ */
+public class ScenarioGenerator {
+  private final long seed;
+
+  public static final double AREA_PER_SHIP = 200 * 200;
+  public static final double MAX_SPEED = 100;
+  public static final double MIN_RADIUS = 10;
+  public static final double MAX_RADIUS = 30;
+
+  public ScenarioGenerator(long seed) {
+    this.seed = seed;
+  }
+
+  public long getSeed() {
+    return seed;
+  }
+
+  /**
+   * Return the length of the sides of the square over which
+   * <code>nbShips</code> ships are spread.
+   */
+  public static double getSide(int nbShips) {
+    return Math.sqrt(nbShips * AREA_PER_SHIP);
+  }
+
+  /**
+   * Create <code>nbShips</code> ships with <code>facade</code>, add them to
+   * <code>world</code> and return them in the order in which they were
+   * created.
+   */
+  public List<IShip> generate(IFacade facade, IWorld world, int nbShips) {
+    Random random = new Random(seed);
+    double side = getSide(nbShips);
+    List<IShip> ships = new ArrayList<IShip>(nbShips);
+    for (int i = 0; i < nbShips; i++) {
+      double x = random.nextDouble() * side;
+      double y = random.nextDouble() * side;
+      double heading = random.nextDouble() * 2 * Math.PI;
+      double speed = random.nextDouble() * MAX_SPEED;
+      double radius = MIN_RADIUS + random.nextDouble() * (MAX_RADIUS - MIN_RADIUS);
+      IShip ship = facade.createShip(x, y, speed * Math.cos(heading), speed * Math.sin(heading), radius, heading);
+      facade.addShip(world, ship);
+      ships.add(ship);
+    }
+    return ships;
+  }
+}
@@ -0,0 +1,156 @@
+package asteroids;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a simulation on its own thread with a fixed time step, independently
+ * of the rate at which frames are drawn.
+ *
+ * The loop measures elapsed time with <code>System.nanoTime</code> and adds
+ * it to an accumulator. Every whole tick in the accumulator is simulated with
+ * exactly <code>1 / tickRate</code> seconds, so the outcome never depends on
+ * the wall clock. After the ticks, the loop asks for a frame, passing the
+ * fraction of a tick that is left in the accumulator so the frame can be
+ * interpolated between the last two ticks. Frames are requested at most
+ * <code>frameRate</code> times per second.
+ */
+public class SimulationLoop implements Runnable {
+
+  /**
+   * The simulation driven by a loop. Both methods are called on the thread of
+   * the loop.
+   */
+  public interface Simulation {
+    /**
+     * Advance the simulation by <code>dt</code> seconds.
+     */
+    void tick(double dt);
+
+    /**
+     * Present a frame. <code>alpha</code> lies in [0, 1) and is the part of a
+     * tick that has passed since the last call to <code>tick</code>.
+     */
+    void render(double alpha);
+  }
+
+  /**
+   * The largest amount of wall-clock time, in seconds, that is simulated
+   * after a single pause of the loop. A longer stall, such as a breakpoint or
+   * a suspended laptop, is dropped instead of being caught up with a burst of
+   * ticks.
+   */
+  public static final double MAX_CATCH_UP = 0.25;
+
+  private final Simulation simulation;
+  private volatile double tickRate;
+  private volatile double frameRate;
+  // Only touched by the thread that advances the loop.
+  private double accumulator;
+  // Only written by the thread that advances the loop, but read by any.
+  private volatile long ticks;
+  private volatile boolean running;
+  private Thread thread;
+
+  public SimulationLoop(Simulation simulation, double tickRate, double frameRate) {
+    if (simulation == null)
+      throw new IllegalArgumentException("simulation must not be null");
+    this.simulation = simulation;
+    setTickRate(tickRate);
+    setFrameRate(frameRate);
+  }
+
+  /**
+   * Return the number of ticks simulated per second.
+   */
+  public double getTickRate() {
+    return tickRate;
+  }
+
+  public void setTickRate(double tickRate) {
+    if (!(tickRate > 0) || Double.isInfinite(tickRate))
+      throw new IllegalArgumentException("tick rate must be positive");
+    this.tickRate = tickRate;
+  }
+
+  /**
+   * Return the largest number of frames requested per second.
+   */
+  public double getFrameRate() {
+    return frameRate;
+  }
+
+  public void setFrameRate(double frameRate) {
+    if (!(frameRate > 0) || Double.isInfinite(frameRate))
+      throw new IllegalArgumentException("frame rate must be positive");
+    this.frameRate = frameRate;
+  }
+
+  /**
+   * Return the number of ticks simulated so far. May be called from any
+   * thread.
+   */
+  public long getTicks() {
+    return ticks;
+  }
+
+  /**
+   * Add <code>seconds</code> of elapsed time, simulate every whole tick it
+   * completes and request a frame. This is one iteration of the loop, and
+   * can be called directly to drive the simulation without a thread.
+   */
+  public void advance(double seconds) {
+    if (!(seconds >= 0))
+      throw new IllegalArgumentException("elapsed time must not be negative");
+    double dt = 1 / tickRate;
+    accumulator += Math.min(seconds, MAX_CATCH_UP);
+    long due = (long) (accumulator / dt);
+    for (long i = 0; i < due; i++) {
+      simulation.tick(dt);
+      ticks++;
+    }
+    accumulator = Math.max(accumulator - due * dt, 0);
+    simulation.render(accumulator / dt);
+  }
+
+  /**
+   * Start the loop on a new daemon thread.
+   */
+  public synchronized void start() {
+    if (thread != null)
+      throw new IllegalStateException("loop already started");
+    running = true;
+    thread = new Thread(this, "simulation");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Stop the loop and wait for its thread to finish.
+   */
+  public synchronized void stop() throws InterruptedException {
+    running = false;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      thread.join();
+      thread = null;
+    }
+  }
+
+  @Override
+  public void run() {
+    long previous = System.nanoTime();
+    long nextFrame = previous;
+    while (running) {
+      long now = System.nanoTime();
+      advance((now - previous) / 1e9);
+      previous = now;
+      long framePeriod = (long) (1e9 / frameRate);
+      nextFrame += framePeriod;
+      if (nextFrame - System.nanoTime() <= 0)
+        nextFrame = System.nanoTime();
+      long wait;
+      while (running && (wait = nextFrame - System.nanoTime()) > 0)
+        LockSupport.parkNanos(this, wait);
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package asteroids;
+
+import java.util.Collection;
+
+import game.CollisionScheduler;
+import game.World;
+
+/**
+ * Moves the ships of a world from one tick to the next.
+ *
+ * If ships must bounce off each other and the world is an unbounded world of
+ * <code>game.Facade</code>, the ships are moved by a
+ * <code>CollisionScheduler</code>. It lets every pair of ships bounce at the
+ * moment they touch, however far they move in a tick, so fast ships never
+ * pass through each other. Otherwise, the ships are moved through the facade
+ * and pass through each other.
+ */
+public class WorldStepper {
+  private final IFacade facade;
+  private final Collection<IShip> ships;
+  private final CollisionScheduler scheduler;
+
+  /**
+   * Create a stepper for <code>ships</code>, which must be the ships of
+   * <code>world</code>. While the stepper is used, the ships must not be
+   * moved in any other way, but they may be thrusted and turned.
+   */
+  public WorldStepper(IFacade facade, IWorld world, Collection<IShip> ships, boolean bouncing) {
+    if (facade == null)
+      throw new IllegalArgumentException("facade must not be null");
+    if (ships == null)
+      throw new IllegalArgumentException("ships must not be null");
+    this.facade = facade;
+    this.ships = ships;
+    if (bouncing && world instanceof World && !((World) world).isBounded()) {
+      scheduler = new CollisionScheduler((World) world);
+      scheduler.setBouncing(true);
+    } else {
+      scheduler = null;
+    }
+  }
+
+  /**
+   * Return whether ships bounce off each other when they are stepped.
+   */
+  public boolean isBouncing() {
+    return scheduler != null;
+  }
+
+  /**
+   * Move every ship <code>dt</code> seconds ahead.
+   */
+  public void step(double dt) {
+    if (scheduler != null)
+      scheduler.advance(dt);
+    else
+      facade.moveAll(ships, dt);
+  }
+}
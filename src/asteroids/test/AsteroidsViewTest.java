@@ -0,0 +1,98 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.AsteroidsView;
+import asteroids.IFacade;
+import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.RenderSnapshot;
+import game.Facade;
+
+public class AsteroidsViewTest {
+
+  private IFacade facade;
+  private IShip[] ships;
+  private Set<IShip> set;
+
+  @Before
+  public void setUpMutableFixture() {
+    facade = new Facade();
+    IWorld world = facade.createWorld();
+    Random random = new Random(3);
+    ships = new IShip[30];
+    for (int i = 0; i < ships.length; i++) {
+      ships[i] = facade.createShip(random.nextDouble() * 640, random.nextDouble() * 480, random.nextDouble() * 200 - 100,
+          random.nextDouble() * 200 - 100, 1 + random.nextDouble() * 30, random.nextDouble() * 2 * Math.PI);
+      facade.addShip(world, ships[i]);
+    }
+    set = new LinkedHashSet<IShip>();
+    for (IShip ship : ships)
+      set.add(ship);
+  }
+
+  private static void render(AsteroidsView view, BufferedImage image, RenderSnapshot frame, boolean incremental) {
+    Graphics2D g = image.createGraphics();
+    try {
+      view.render(g, frame, incremental);
+    } finally {
+      g.dispose();
+    }
+  }
+
+  private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+    for (int y = 0; y < expected.getHeight(); y++)
+      for (int x = 0; x < expected.getWidth(); x++)
+        if (expected.getRGB(x, y) != actual.getRGB(x, y))
+          fail("pixel (" + x + ", " + y + ") differs");
+  }
+
+  @Test
+  public void render_incrementalMatchesFull() {
+    AsteroidsView incremental = new AsteroidsView(set);
+    AsteroidsView full = new AsteroidsView(set);
+    incremental.setActiveRendering(true);
+    incremental.setSize(640, 480);
+    full.setSize(640, 480);
+    incremental.setShowCollisions(true);
+    full.setShowCollisions(true);
+    BufferedImage buffer = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+    BufferedImage expected = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+    for (int frame = 0; frame < 40; frame++) {
+      if (frame == 20) {
+        incremental.zoom(0.05, 320, 240);
+        full.zoom(0.05, 320, 240);
+      }
+      RenderSnapshot snapshot = RenderSnapshot.capture(facade, ships, ships[0], true);
+      render(incremental, buffer, snapshot, true);
+      render(full, expected, snapshot, false);
+      assertSameImage(expected, buffer);
+      facade.moveAll(set, 0.1);
+    }
+  }
+
+  @Test
+  public void zoom_keepsPointUnderCursor() {
+    AsteroidsView view = new AsteroidsView(set);
+    view.setSize(640, 480);
+    double x = view.toWorldX(100);
+    double y = view.toWorldY(50);
+    view.zoom(3, 100, 50);
+    assertEquals(3, view.getZoom(), 0);
+    assertEquals(x, view.toWorldX(100), 1e-9);
+    assertEquals(y, view.toWorldY(50), 1e-9);
+    view.pan(30, -60);
+    assertEquals(x - 10, view.toWorldX(100), 1e-9);
+    assertEquals(y - 20, view.toWorldY(50), 1e-9);
+  }
+
+}
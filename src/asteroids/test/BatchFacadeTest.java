@@ -0,0 +1,144 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.IFacade;
+import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.ModelException;
+import asteroids.ScenarioGenerator;
+import asteroids.Util;
+import game.Facade;
+import game.StoreFacade;
+
+public class BatchFacadeTest {
+
+  private IFacade[] facades;
+
+  @Before
+  public void setUp() {
+    facades = new IFacade[] { new Facade(), new StoreFacade() };
+  }
+
+  private IShip[] createShips(IFacade facade) {
+    return new IShip[] { facade.createShip(100, 100, 30, 0, 20, 0), facade.createShip(300, 100, -10, 0, 20, Math.PI),
+        facade.createShip(100, 500, 0, 0, 20, 0) };
+  }
+
+  @Test
+  public void moveAll() {
+    for (IFacade facade : facades) {
+      IShip[] ships = createShips(facade);
+      facade.moveAll(new HashSet<IShip>(Arrays.asList(ships)), 2);
+      double[] out = new double[6];
+      facade.getPositions(ships, out);
+      assertEquals(160, out[0], Util.EPSILON);
+      assertEquals(100, out[1], Util.EPSILON);
+      assertEquals(280, out[2], Util.EPSILON);
+      assertEquals(500, out[5], Util.EPSILON);
+    }
+  }
+
+  @Test
+  public void thrustAll() {
+    for (IFacade facade : facades) {
+      IShip[] ships = createShips(facade);
+      facade.thrustAll(Arrays.asList(ships), 5);
+      double[] out = new double[6];
+      facade.getVelocities(ships, out);
+      assertEquals(-15, out[2], Util.EPSILON);
+      assertEquals(5, out[4], Util.EPSILON);
+    }
+  }
+
+  @Test
+  public void getCollisionPositions() {
+    for (IFacade facade : facades) {
+      IShip[] ships = createShips(facade);
+      double[] out = new double[6];
+      assertEquals(1, facade.getCollisionPositions(ships[0], ships, out));
+      assertArrayEquals(facade.getCollisionPosition(ships[0], ships[1]), Arrays.copyOfRange(out, 2, 4), Util.EPSILON);
+      assertTrue(Double.isNaN(out[4]));
+    }
+  }
+
+  @Test
+  public void getCollisionPositions_givenTimes() {
+    for (IFacade facade : facades) {
+      IShip[] ships = createShips(facade);
+      double[] times = new double[3], expected = new double[6], out = new double[6];
+      facade.getTimesToCollision(ships[0], ships, times);
+      assertEquals(facade.getCollisionPositions(ships[0], ships, expected),
+          facade.getCollisionPositions(ships[0], ships, times, out));
+      assertArrayEquals(expected, out, Util.EPSILON);
+      assertArrayEquals(new double[] { 240, 100 }, Arrays.copyOfRange(out, 2, 4), Util.EPSILON);
+    }
+  }
+
+  @Test
+  public void findCollisionPosition() {
+    for (IFacade facade : facades) {
+      IShip[] ships = createShips(facade);
+      double[] out = { -1, -1 };
+      assertFalse(facade.findCollisionPosition(ships[0], ships[2], out));
+      assertArrayEquals(new double[] { -1, -1 }, out, 0);
+      assertNull(facade.getCollisionPosition(ships[0], ships[2]));
+      assertTrue(facade.findCollisionPosition(ships[0], ships[1], out));
+      assertArrayEquals(facade.getCollisionPosition(ships[0], ships[1]), out, Util.EPSILON);
+    }
+  }
+
+  @Test
+  public void getImpactingPairs() {
+    for (IFacade facade : facades) {
+      IWorld world = facade.createWorld();
+      List<IShip> ships = new ScenarioGenerator(5).generate(facade, world, 300);
+      List<IShip[]> pairs = facade.getImpactingPairs(world, 5);
+      int expected = 0;
+      for (int i = 0; i < ships.size(); i++)
+        for (int j = i + 1; j < ships.size(); j++)
+          if (facade.getTimeOfImpact(ships.get(i), ships.get(j), 5) != Double.POSITIVE_INFINITY)
+            expected++;
+      assertTrue(expected > 0);
+      assertEquals(expected, pairs.size());
+      double previous = 0;
+      for (IShip[] pair : pairs) {
+        double time = facade.getTimeOfImpact(pair[0], pair[1], 5);
+        assertTrue(previous <= time && time <= 5);
+        previous = time;
+      }
+      assertEquals(Double.POSITIVE_INFINITY, facade.getTimeOfImpact(ships.get(0), ships.get(0), 5), 0);
+    }
+  }
+
+  @Test(expected = ModelException.class)
+  public void getPositions_outputTooSmall() {
+    IShip[] ships = createShips(facades[0]);
+    facades[0].getPositions(ships, new double[5]);
+  }
+
+  @Test
+  public void moveAll_foreignShips() {
+    IShip[] ships = createShips(facades[1]);
+    IShip[] foreign = createShips(new StoreFacade());
+    try {
+      facades[1].moveAll(new HashSet<IShip>(Arrays.asList(foreign)), 2);
+      fail();
+    } catch (ModelException exc) {
+    }
+    assertEquals(100, facades[1].getX(ships[0]), Util.EPSILON);
+  }
+
+  @Test(expected = ModelException.class)
+  public void moveAll_negativeTime() {
+    IShip[] ships = createShips(facades[1]);
+    facades[1].moveAll(Arrays.asList(ships), -1);
+  }
+}
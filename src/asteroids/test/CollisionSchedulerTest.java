@@ -0,0 +1,183 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.Util;
+import game.Boundary;
+import game.BroadPhaseListener;
+import game.CollisionEvent;
+import game.CollisionListener;
+import game.CollisionScheduler;
+import game.NegativeTimeException;
+import game.Ship;
+import game.World;
+
+public class CollisionSchedulerTest {
+
+  private World world;
+  private Ship left, right;
+  private CollisionScheduler scheduler;
+
+  @Before
+  public void setUpMutableFixture() {
+    world = new World();
+    left = new Ship(0, 0, 0, 10, 10);
+    right = new Ship(100, 0, Math.PI, 0, 10);
+    world.addShip(left);
+    world.addShip(right);
+    scheduler = new CollisionScheduler(world);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_boundedWorld() {
+    new CollisionScheduler(new World(1000, 1000, Boundary.REFLECT));
+  }
+
+  @Test
+  public void getNextCollision() {
+    CollisionEvent event = scheduler.getNextCollision();
+    assertNotNull(event);
+    assertEquals(8, event.getTime(), Util.EPSILON);
+  }
+
+  @Test
+  public void getNextCollision_leavesPredictionsUsable() {
+    scheduler.getNextCollision();
+    left.turn(Math.PI);
+    assertNull(scheduler.getNextCollision());
+    scheduler.advance(1000);
+    assertEquals(0, scheduler.getNbCollisions());
+    assertEquals(-10000, left.getX(), Util.EPSILON);
+  }
+
+  @Test
+  public void getNextCollision_farAway() {
+    world.addShip(new Ship(1E6, 1000, Math.PI, 10, 10));
+    world.addShip(new Ship(-1E6, 1000, 0, 10, 10));
+    left.turn(Math.PI / 2);
+    CollisionEvent event = scheduler.getNextCollision();
+    assertNotNull(event);
+    assertEquals((2E6 - 20) / 20, event.getTime(), Util.EPSILON);
+  }
+
+  @Test
+  public void getNextCollision_scatteringShips() {
+    world.removeShip(left);
+    world.removeShip(right);
+    Random random = new Random(3);
+    for (int i = 0; i < 100; i++) {
+      double angle = 2 * Math.PI * i / 100;
+      world.addShip(new Ship(1000 * Math.cos(angle), 1000 * Math.sin(angle), angle, 1 + random.nextDouble(), 10));
+    }
+    assertNull(scheduler.getNextCollision());
+    scheduler.advance(1000);
+    assertEquals(0, scheduler.getNbCollisions());
+  }
+
+  @Test
+  public void advance_reportsSearch() {
+    final long[] reported = new long[2];
+    world.setBroadPhaseListener(new BroadPhaseListener() {
+      @Override
+      public void searched(int nbShips, long nbCandidates, long nbFound) {
+        reported[0] += nbCandidates;
+        reported[1] += nbFound;
+      }
+    });
+    scheduler.advance(1000);
+    assertEquals(scheduler.getNbPredictions(), reported[0]);
+    assertEquals(1, reported[1]);
+  }
+
+  @Test
+  public void advance_processesCollision() {
+    final double[] moment = new double[1];
+    scheduler.addCollisionListener(new CollisionListener() {
+      @Override
+      public void collisionOccurred(CollisionEvent event) {
+        moment[0] = left.getX();
+      }
+    });
+    scheduler.advance(1000);
+    assertEquals(1, scheduler.getNbCollisions());
+    assertEquals(80, moment[0], Util.EPSILON);
+    assertEquals(10000, left.getX(), Util.EPSILON);
+    assertEquals(1000, scheduler.getTime(), Util.EPSILON);
+  }
+
+  @Test
+  public void advance_dropsOutdatedPrediction() {
+    scheduler.advance(1);
+    left.turn(Math.PI);
+    scheduler.advance(1000);
+    assertEquals(0, scheduler.getNbCollisions());
+  }
+
+  @Test
+  public void advance_predictsChangedShips() {
+    scheduler.advance(1);
+    right.thrust(10);
+    assertEquals(1 + 70 / 20., scheduler.getNextCollision().getTime(), Util.EPSILON);
+  }
+
+  @Test(expected = NegativeTimeException.class)
+  public void advance_negativeDuration() {
+    scheduler.advance(-1);
+  }
+  @Test
+  public void advance_bouncesShips() {
+    scheduler.setBouncing(true);
+    scheduler.advance(1000);
+    assertEquals(1, scheduler.getNbCollisions());
+    assertEquals(80, left.getX(), Util.EPSILON);
+    assertEquals(100 + 992 * 10, right.getX(), Util.EPSILON);
+  }
+
+  @Test
+  public void advance_bouncingShipsNeverPassThrough() {
+    World world = new World();
+    Random random = new Random(7);
+    for (int i = 0; i < 20; i++) {
+      for (int j = 0; j < 20; j++) {
+        world.addShip(new Ship(i * 50, j * 50, random.nextDouble() * 40 - 20, random.nextDouble() * 40 - 20,
+            10 + random.nextDouble() * 10, 0));
+      }
+    }
+    Ship[] ships = world.getShips().toArray(new Ship[0]);
+    double px = momentum(ships, true), py = momentum(ships, false);
+    CollisionScheduler scheduler = new CollisionScheduler(world);
+    scheduler.setBouncing(true);
+    for (int step = 0; step < 20; step++) {
+      scheduler.advance(1);
+      for (int i = 0; i < ships.length; i++)
+        for (int j = i + 1; j < ships.length; j++)
+          assertTrue(ships[i].getDistanceBetween(ships[j]) > -1E-6);
+    }
+    assertTrue(scheduler.getNbCollisions() > 100);
+    assertEquals(px, momentum(ships, true), 1E-6 * ships.length);
+    assertEquals(py, momentum(ships, false), 1E-6 * ships.length);
+  }
+
+  private static double momentum(Ship[] ships, boolean alongX) {
+    double result = 0;
+    for (Ship ship : ships)
+      result += ship.getMass() / ships[0].getMass() * (alongX ? ship.getXVelocity() : ship.getYVelocity());
+    return result;
+  }
+
+  @Test
+  public void advance_predictsOnlyNearbyShips() {
+    for (int i = 2; i < 200; i++)
+      world.addShip(new Ship(i * 1000, 1000, 0, 0, 10));
+    scheduler.setBouncing(true);
+    scheduler.advance(1000);
+    assertEquals(1, scheduler.getNbCollisions());
+    assertTrue(scheduler.getNbPredictions() < 200);
+  }
+
+}
@@ -0,0 +1,33 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import asteroids.HeadlessRunner;
+import game.Facade;
+import game.StoreFacade;
+
+public class HeadlessRunnerTest {
+
+  @Test
+  public void run_countsTicks() {
+    HeadlessRunner.Result result = new HeadlessRunner(new Facade(), 100, 0.5, 10, 1, false).run();
+    assertEquals(20, result.getTicks());
+    assertEquals(2000, result.getShipUpdates());
+    assertEquals(0, result.getCollisions());
+  }
+
+  @Test
+  public void run_isDeterministic() {
+    HeadlessRunner.Result facade = new HeadlessRunner(new Facade(), 500, 0.1, 20, 3, true).run();
+    HeadlessRunner.Result store = new HeadlessRunner(new StoreFacade(), 500, 0.1, 20, 3, true).run();
+    assertTrue(facade.getCollisions() > 0);
+    assertEquals(facade.getCollisions(), store.getCollisions());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_zeroTimeStep() {
+    new HeadlessRunner(new Facade(), 10, 0, 10, 1, true);
+  }
+}
@@ -0,0 +1,108 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.Histogram;
+import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.InstrumentedFacade;
+import asteroids.ModelException;
+import asteroids.ScenarioGenerator;
+import game.Facade;
+
+public class InstrumentedFacadeTest {
+
+  private InstrumentedFacade facade;
+  private IWorld world;
+  private List<IShip> ships;
+
+  @Before
+  public void setUpMutableFixture() {
+    facade = new InstrumentedFacade(new Facade());
+    world = facade.createWorld();
+    ships = new ScenarioGenerator(3).generate(facade, world, 100);
+  }
+
+  @Test
+  public void histogram_percentilesWithinPrecision() {
+    Histogram histogram = new Histogram();
+    for (long value = 1; value <= 100000; value++)
+      histogram.record(value);
+    assertEquals(100000, histogram.getCount());
+    assertEquals(100000, histogram.getMax());
+    assertEquals(50000.5, histogram.getMean(), 1e-9);
+    assertEquals(50000, histogram.getValueAtPercentile(50), 50000 / 32.);
+    assertEquals(99000, histogram.getValueAtPercentile(99), 99000 / 32.);
+    assertEquals(100000, histogram.getValueAtPercentile(100));
+    assertEquals(1, histogram.getValueAtPercentile(0));
+  }
+
+  @Test
+  public void operations_countCalls() {
+    assertEquals(100, facade.getOperation("createShip").getCount());
+    for (int i = 0; i < 10; i++)
+      facade.move(ships.get(i), 0.1);
+    facade.getX(ships.get(0));
+    assertEquals(10, facade.getOperation("move").getCount());
+    assertEquals(1, facade.getOperation("getX").getCount());
+    assertEquals(0, facade.getOperation("turn").getCount());
+    assertTrue(facade.getReport().contains("move"));
+    assertFalse(facade.getReport().contains("turn"));
+  }
+
+  @Test
+  public void pairEvaluations_perTick() {
+    facade.nextTick();
+    facade.getTimesToCollision(ships.get(0), ships.toArray(new IShip[ships.size()]), new double[ships.size()]);
+    facade.overlap(ships.get(0), ships.get(1));
+    facade.nextTick();
+    facade.getOverlappingPairs(world);
+    facade.nextTick();
+    assertEquals(3, facade.getTicks());
+    assertEquals(0, facade.getEvaluationsPerTick().getValueAtPercentile(0));
+    assertEquals(101, facade.getMaxPairEvaluationsPerTick());
+    assertEquals(1, facade.getBroadPhaseSearches());
+    assertTrue(facade.getBroadPhaseCandidates() > 0);
+    assertEquals(101 + facade.getBroadPhaseCandidates(), facade.getPairEvaluations());
+  }
+
+  @Test
+  public void pairEvaluations_failedCallsNotCounted() {
+    long before = facade.getPairEvaluations();
+    try {
+      facade.getTimeOfImpact(ships.get(0), ships.get(1), -1);
+      fail();
+    } catch (ModelException exc) {
+    }
+    try {
+      facade.getTimesToCollision(ships.get(0), null, new double[1]);
+      fail();
+    } catch (NullPointerException exc) {
+    }
+    assertEquals(before, facade.getPairEvaluations());
+  }
+
+  @Test
+  public void registerMBeans_exposesOperations() throws JMException {
+    facade.registerMBeans("test");
+    try {
+      facade.move(ships.get(0), 1);
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      assertEquals(1L, server.getAttribute(new ObjectName("asteroids:type=Facade,name=\"test\",operation=move"), "Count"));
+      assertEquals(0L, server.getAttribute(new ObjectName("asteroids:type=Facade,name=\"test\""), "Ticks"));
+    } finally {
+      facade.unregisterMBeans();
+    }
+  }
+
+}
@@ -0,0 +1,125 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.Util;
+import game.Integrator;
+import game.ParallelStepper;
+import game.Ship;
+import game.StandardIntegrator;
+import game.World;
+
+public class IntegratorTest {
+
+  private Ship ship;
+
+  @Before
+  public void setUpMutableFixture() {
+    ship = new Ship(10, 20, 30, -40, 15, Math.PI / 2);
+    ship.setAcceleration(5);
+  }
+
+  /**
+   * The exact position of the fixture ship after the given duration.
+   */
+  private static double exactY(double duration) {
+    return 20 - 40 * duration + 2.5 * duration * duration;
+  }
+
+  private static void integrate(Ship ship, Integrator integrator, double duration, int steps) {
+    for (int i = 0; i < steps; i++)
+      integrator.step(ship, duration / steps);
+  }
+
+  @Test
+  public void step_withoutAccelerationMatchesMove() {
+    for (StandardIntegrator integrator : StandardIntegrator.values()) {
+      Ship moved = new Ship(10, 20, 30, -40, 15, 1);
+      Ship stepped = new Ship(10, 20, 30, -40, 15, 1);
+      moved.move(2.5);
+      integrator.step(stepped, 2.5);
+      assertEquals(moved.getX(), stepped.getX(), 0);
+      assertEquals(moved.getY(), stepped.getY(), 0);
+      assertEquals(moved.getXVelocity(), stepped.getXVelocity(), 0);
+      assertEquals(moved.getYVelocity(), stepped.getYVelocity(), 0);
+    }
+  }
+
+  @Test
+  public void step_exactIntegratorsTakeOneLargeStep() {
+    for (StandardIntegrator integrator : new StandardIntegrator[] { StandardIntegrator.VELOCITY_VERLET,
+        StandardIntegrator.CONSTANT_ACCELERATION }) {
+      Ship stepped = new Ship(10, 20, 30, -40, 15, Math.PI / 2);
+      stepped.setAcceleration(5);
+      integrator.step(stepped, 10);
+      assertEquals(310, stepped.getX(), 1e-9);
+      assertEquals(exactY(10), stepped.getY(), 1e-9);
+      assertEquals(10, stepped.getYVelocity(), 1e-9);
+    }
+  }
+
+  @Test
+  public void step_eulerConvergesWithSmallerSteps() {
+    for (StandardIntegrator integrator : new StandardIntegrator[] { StandardIntegrator.EULER,
+        StandardIntegrator.SEMI_IMPLICIT_EULER }) {
+      double previous = Double.POSITIVE_INFINITY;
+      for (int steps = 1; steps <= 1000; steps *= 10) {
+        Ship stepped = new Ship(10, 20, 30, -40, 15, Math.PI / 2);
+        stepped.setAcceleration(5);
+        integrate(stepped, integrator, 10, steps);
+        double error = Math.abs(stepped.getY() - exactY(10));
+        assertTrue(error < previous);
+        assertEquals(10, stepped.getYVelocity(), 1e-9);
+        previous = error;
+      }
+    }
+  }
+
+  @Test
+  public void getMaxStep_boundsErrorOfOneStep() {
+    double step = StandardIntegrator.EULER.getMaxStep(5, 0.01);
+    StandardIntegrator.EULER.step(ship, step);
+    assertEquals(exactY(step), ship.getY(), 0.01 + Util.EPSILON);
+    assertEquals(Double.POSITIVE_INFINITY, StandardIntegrator.CONSTANT_ACCELERATION.getMaxStep(5, 0.01), 0);
+    assertEquals(Double.POSITIVE_INFINITY, StandardIntegrator.EULER.getMaxStep(0, 0.01), 0);
+  }
+
+  @Test
+  public void step_constantAccelerationStopsAtLightSpeed() {
+    Ship fast = new Ship(0, 0, 299000, 0, 15, 0);
+    fast.setAcceleration(1000);
+    StandardIntegrator.CONSTANT_ACCELERATION.step(fast, 3);
+    assertEquals(299800, fast.getVelocity(), Util.EPSILON);
+    assertEquals(299000 * 0.8 + 500 * 0.8 * 0.8 + 299800 * 2.2, fast.getX(), 1e-6);
+  }
+
+  @Test
+  public void parallelStepper_usesIntegrator() {
+    World world = new World();
+    world.addShip(ship);
+    ParallelStepper stepper = new ParallelStepper(world, 2);
+    try {
+      stepper.setIntegrator(StandardIntegrator.CONSTANT_ACCELERATION);
+      assertEquals(Double.POSITIVE_INFINITY, stepper.getMaxStep(0.01), 0);
+      stepper.step(10);
+      assertEquals(exactY(10), ship.getY(), 1e-9);
+      assertEquals(10, ship.getYVelocity(), 1e-9);
+    } finally {
+      stepper.shutdown();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void setIntegrator_null() {
+    ParallelStepper stepper = new ParallelStepper(new World(), 1);
+    try {
+      stepper.setIntegrator(null);
+    } finally {
+      stepper.shutdown();
+    }
+  }
+
+}
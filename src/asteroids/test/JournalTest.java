@@ -0,0 +1,91 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.IFacade;
+import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.JournalReplay;
+import asteroids.JournalingFacade;
+import asteroids.ModelException;
+import asteroids.ScenarioGenerator;
+import asteroids.Util;
+import game.Facade;
+import game.StoreFacade;
+
+public class JournalTest {
+
+  private IFacade recorded;
+  private List<IShip> ships;
+  private byte[] journal;
+
+  @Before
+  public void setUpMutableFixture() throws IOException {
+    recorded = new Facade();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    JournalingFacade facade = new JournalingFacade(recorded, bytes);
+    IWorld world = facade.createWorld();
+    ships = new ScenarioGenerator(5).generate(facade, world, 50);
+    Set<IShip> all = new LinkedHashSet<IShip>(ships);
+    for (int tick = 0; tick < 100; tick++) {
+      facade.nextTick();
+      facade.thrust(ships.get(tick % 50), 10);
+      facade.turn(ships.get((tick * 7) % 50), 0.1);
+      if (tick % 10 == 0)
+        facade.thrustAll(Arrays.asList(ships.get(3), ships.get(1), ships.get(4)), 5);
+      facade.moveAll(all, 0.05);
+    }
+    facade.removeShip(world, ships.get(0));
+    facade.move(ships.get(1), 2);
+    facade.close();
+    assertEquals(100, facade.getTick());
+    journal = bytes.toByteArray();
+  }
+
+  private void assertReplays(IFacade target, double epsilon) throws IOException {
+    JournalReplay replay = new JournalReplay(target);
+    replay.replay(new ByteArrayInputStream(journal));
+    assertEquals(100, replay.getTick());
+    assertEquals(50, replay.getShips().size());
+    assertEquals(49, target.getShips(replay.getWorlds().get(0)).size());
+    for (int i = 0; i < ships.size(); i++) {
+      IShip ship = replay.getShips().get(i);
+      assertEquals(recorded.getX(ships.get(i)), target.getX(ship), epsilon);
+      assertEquals(recorded.getY(ships.get(i)), target.getY(ship), epsilon);
+      assertEquals(recorded.getXVelocity(ships.get(i)), target.getXVelocity(ship), epsilon);
+      assertEquals(recorded.getYVelocity(ships.get(i)), target.getYVelocity(ship), epsilon);
+      assertEquals(recorded.getDirection(ships.get(i)), target.getDirection(ship), epsilon);
+    }
+  }
+
+  @Test
+  public void replay_sameFacade() throws IOException {
+    assertReplays(new Facade(), 0);
+  }
+
+  @Test
+  public void replay_storeFacade() throws IOException {
+    assertReplays(new StoreFacade(), Util.EPSILON);
+  }
+
+  @Test(expected = IOException.class)
+  public void replay_truncatedJournal() throws IOException {
+    new JournalReplay(new Facade()).replay(new ByteArrayInputStream(Arrays.copyOf(journal, journal.length - 3)));
+  }
+
+  @Test(expected = ModelException.class)
+  public void thrust_foreignShip() throws IOException {
+    new JournalingFacade(new Facade(), new ByteArrayOutputStream()).thrust(new Facade().createShip(), 1);
+  }
+}
@@ -0,0 +1,89 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import game.BroadPhaseListener;
+import game.ParallelStepper;
+import game.Ship;
+import game.World;
+
+public class ParallelStepperTest {
+
+  private World parallelWorld, serialWorld;
+  private ParallelStepper stepper;
+
+  @Before
+  public void setUpMutableFixture() {
+    parallelWorld = new World();
+    serialWorld = new World();
+    Random random = new Random(7);
+    for (int i = 0; i < 20000; i++) {
+      double x = random.nextDouble() * 20000;
+      double y = random.nextDouble() * 20000;
+      double direction = random.nextDouble() * 2 * Math.PI;
+      double velocity = random.nextDouble() * 100;
+      double radius = 10 + random.nextDouble() * 20;
+      parallelWorld.addShip(new Ship(x, y, direction, velocity, radius));
+      serialWorld.addShip(new Ship(x, y, direction, velocity, radius));
+    }
+    stepper = new ParallelStepper(parallelWorld, 4);
+  }
+
+  @After
+  public void tearDown() {
+    stepper.shutdown();
+  }
+
+  @Test
+  public void step_matchesSerial() {
+    for (int step = 0; step < 5; step++) {
+      List<Ship[]> parallel = stepper.step(0.5);
+      for (Ship ship : serialWorld.getShips())
+        ship.move(0.5);
+      List<Ship[]> serial = serialWorld.getOverlappingPairs();
+      assertEquals(serial.size(), parallel.size());
+      for (int i = 0; i < serial.size(); i++) {
+        assertEquals(serial.get(i)[0].getX(), parallel.get(i)[0].getX(), 0);
+        assertEquals(serial.get(i)[1].getY(), parallel.get(i)[1].getY(), 0);
+      }
+    }
+    assertTrue(stepper.getParallelism() == 4);
+  }
+
+  @Test
+  public void step_reportsSearch() {
+    final long[] parallel = new long[2], serial = new long[2];
+    parallelWorld.setBroadPhaseListener(new BroadPhaseListener() {
+      @Override
+      public void searched(int nbShips, long nbCandidates, long nbFound) {
+        parallel[0] = nbCandidates;
+        parallel[1] = nbFound;
+      }
+    });
+    serialWorld.setBroadPhaseListener(new BroadPhaseListener() {
+      @Override
+      public void searched(int nbShips, long nbCandidates, long nbFound) {
+        serial[0] = nbCandidates;
+        serial[1] = nbFound;
+      }
+    });
+    stepper.step(0.5);
+    for (Ship ship : serialWorld.getShips())
+      ship.move(0.5);
+    serialWorld.getOverlappingPairs();
+    assertTrue(parallel[0] > 0);
+    assertArrayEquals(serial, parallel);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_noThreads() {
+    new ParallelStepper(parallelWorld, 0);
+  }
+}
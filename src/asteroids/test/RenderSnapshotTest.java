@@ -0,0 +1,138 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.IFacade;
+import asteroids.IShip;
+import asteroids.RenderSnapshot;
+import asteroids.ScenarioGenerator;
+import asteroids.Util;
+import game.Boundary;
+import game.Facade;
+
+public class RenderSnapshotTest {
+
+  private IFacade facade;
+  private IShip[] ships;
+
+  @Before
+  public void setUpMutableFixture() {
+    facade = new Facade();
+    ships = new IShip[] {
+        facade.createShip(0, 0, 10, 0, 10, 0),
+        facade.createShip(100, 0, -10, 0, 10, Math.PI),
+        facade.createShip(0, 500, 0, 0, 20, 0),
+        facade.createShip(-5, -5, 0, 0, 10, 0) };
+  }
+
+  @Test
+  public void capture_copiesShips() {
+    RenderSnapshot snapshot = RenderSnapshot.capture(facade, ships, ships[2], false);
+    facade.move(ships[0], 1);
+    assertEquals(4, snapshot.getNbShips());
+    assertEquals(2, snapshot.getSelected());
+    assertEquals(0, snapshot.getX(0), Util.EPSILON);
+    assertEquals(500, snapshot.getY(2), Util.EPSILON);
+    assertEquals(20, snapshot.getRadius(2), Util.EPSILON);
+    assertEquals(Math.PI, snapshot.getDirection(1), Util.EPSILON);
+    assertEquals(-1, snapshot.getCollisionShip());
+    assertEquals(0, snapshot.getNbCrosshairs());
+  }
+
+  @Test
+  public void capture_nextCollision() {
+    RenderSnapshot snapshot = RenderSnapshot.capture(facade, ships, ships[0], true);
+    assertEquals(1, snapshot.getCollisionShip());
+    assertEquals(40, snapshot.getCollisionX(0), Util.EPSILON);
+    assertEquals(0, snapshot.getCollisionY(0), Util.EPSILON);
+    assertEquals(60, snapshot.getCollisionX(1), Util.EPSILON);
+    assertEquals(0, snapshot.getCollisionY(1), Util.EPSILON);
+    assertEquals(1, snapshot.getNbCrosshairs());
+    assertEquals(50, snapshot.getCrosshairX(0), Util.EPSILON);
+    assertEquals(0, snapshot.getCrosshairY(0), Util.EPSILON);
+  }
+
+  @Test
+  public void withCollisions_addsNextCollision() {
+    RenderSnapshot plain = RenderSnapshot.capture(facade, ships, ships[0], false);
+    assertEquals(-1, plain.getCollisionShip());
+    assertEquals(0, plain.getNbCrosshairs());
+    RenderSnapshot snapshot = plain.withCollisions(facade, ships);
+    assertEquals(1, snapshot.getCollisionShip());
+    assertEquals(40, snapshot.getCollisionX(0), Util.EPSILON);
+    assertEquals(1, snapshot.getNbCrosshairs());
+    assertEquals(0, snapshot.getX(0), Util.EPSILON);
+  }
+
+  @Test
+  public void capture_overlappingShipIsNotNextCollision() {
+    IShip[] others = { ships[0], facade.createShip(5, 0, 0, 0, 10, 0), ships[1] };
+    RenderSnapshot snapshot = RenderSnapshot.capture(facade, others, ships[0], true);
+    assertEquals(-1, snapshot.getCollisionShip());
+    assertEquals(1, snapshot.getNbCrosshairs());
+  }
+
+  @Test
+  public void interpolate_wrapsAcrossEdge() {
+    IFacade wrapping = new Facade(1000, 1000, Boundary.WRAP);
+    IShip ship = wrapping.createShip(990, 500, 20, 0, 10, 0);
+    wrapping.addShip(wrapping.createWorld(), ship);
+    IShip[] one = { ship };
+    RenderSnapshot from = RenderSnapshot.capture(wrapping, one, ship, false);
+    wrapping.move(ship, 1);
+    RenderSnapshot to = RenderSnapshot.capture(wrapping, one, ship, false);
+    assertEquals(10, to.getX(0), Util.EPSILON);
+    assertEquals(995, RenderSnapshot.interpolate(from, to, 0.25, Boundary.WRAP, 1000, 1000).getX(0), Util.EPSILON);
+    assertEquals(5, RenderSnapshot.interpolate(from, to, 0.75, Boundary.WRAP, 1000, 1000).getX(0), Util.EPSILON);
+    assertEquals(500, RenderSnapshot.interpolate(from, to, 0.75, Boundary.WRAP, 1000, 1000).getY(0), Util.EPSILON);
+  }
+
+  @Test
+  public void getShipsIn_matchesAllShips() {
+    List<IShip> generated = new ScenarioGenerator(11).generate(facade, facade.createWorld(), 2000);
+    IShip[] all = generated.toArray(new IShip[generated.size()]);
+    RenderSnapshot snapshot = RenderSnapshot.capture(facade, all, all[0], false);
+    double[][] views = { { 100, 200, 400, 350 }, { -1e6, -1e6, 1e6, 1e6 }, { 1e7, 1e7, 1e7 + 10, 1e7 + 10 } };
+    int[] out = new int[all.length];
+    for (double[] view : views) {
+      int expected = 0;
+      for (int i = 0; i < all.length; i++) {
+        double x = snapshot.getX(i), y = snapshot.getY(i), r = snapshot.getRadius(i);
+        if (x + r >= view[0] && x - r <= view[2] && y + r >= view[1] && y - r <= view[3])
+          expected++;
+      }
+      int count = snapshot.getShipsIn(view[0], view[1], view[2], view[3], out);
+      assertEquals(expected, count);
+      int[] found = Arrays.copyOf(out, count);
+      Arrays.sort(found);
+      for (int k = 1; k < count; k++)
+        assertTrue(found[k - 1] < found[k]);
+    }
+    assertEquals(all.length, snapshot.getShipsIn(-1e6, -1e6, 1e6, 1e6, out));
+    assertEquals(0, snapshot.getShipsIn(1e7, 1e7, 1e7 + 10, 1e7 + 10, out));
+  }
+
+  @Test
+  public void getShipsIn_farOutlier() {
+    List<IShip> generated = new ScenarioGenerator(13).generate(facade, facade.createWorld(), 500);
+    IShip[] all = generated.toArray(new IShip[generated.size() + 1]);
+    all[all.length - 1] = facade.createShip(1e9, -1e9, 0, 0, 10, 0);
+    RenderSnapshot snapshot = RenderSnapshot.capture(facade, all, all[0], false);
+    int[] out = new int[all.length];
+    int expected = 0;
+    for (int i = 0; i < all.length - 1; i++) {
+      double x = snapshot.getX(i), y = snapshot.getY(i), r = snapshot.getRadius(i);
+      if (x + r >= 100 && x - r <= 400 && y + r >= 200 && y - r <= 350)
+        expected++;
+    }
+    assertEquals(expected, snapshot.getShipsIn(100, 200, 400, 350, out));
+    assertEquals(1, snapshot.getShipsIn(1e9 - 5, -1e9 - 5, 1e9 + 5, -1e9 + 5, out));
+    assertEquals(all.length - 1, out[0]);
+  }
+}
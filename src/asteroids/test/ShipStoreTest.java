@@ -0,0 +1,180 @@
+package asteroids.test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import asteroids.Util;
+import game.NegativeTimeException;
+import game.Ship;
+import game.ShipHandle;
+import game.ShipStore;
+
+public class ShipStoreTest {
+
+  @Rule
+  public TemporaryFolder folder = new TemporaryFolder();
+
+  private ShipStore store;
+  private ShipHandle moving, still;
+
+  @Before
+  public void setUpMutableFixture() {
+    store = new ShipStore(1);
+    moving = store.add(0, 0, 30, -15, 20, 0);
+    still = store.add(100, 0, 0, 0, 5, Math.PI);
+  }
+
+  @Test
+  public void add_smallRadius() {
+    assertEquals(10, store.getRadius(still.getIndex()), Util.EPSILON);
+    assertSame(still, store.getHandle(1));
+    assertEquals(2, store.getNbShips());
+  }
+
+  @Test
+  public void moveAll() {
+    store.moveAll(2);
+    assertEquals(60, store.getX(moving.getIndex()), Util.EPSILON);
+    assertEquals(-30, store.getY(moving.getIndex()), Util.EPSILON);
+    assertEquals(100, store.getX(still.getIndex()), Util.EPSILON);
+  }
+
+  @Test(expected = NegativeTimeException.class)
+  public void moveAll_negativeTime() {
+    store.moveAll(-1);
+  }
+
+  @Test
+  public void thrust_exceedLightspeed() {
+    store.thrust(still.getIndex(), 300000);
+    assertEquals(-299800, store.getXVelocity(still.getIndex()), 1);
+  }
+
+  @Test
+  public void turn_turnsVelocity() {
+    store.turn(moving.getIndex(), Math.PI / 2);
+    assertEquals(15, store.getXVelocity(moving.getIndex()), Util.EPSILON);
+    assertEquals(30, store.getYVelocity(moving.getIndex()), Util.EPSILON);
+    assertEquals(Math.PI / 2, store.getDirection(moving.getIndex()), Util.EPSILON);
+  }
+
+  @Test
+  public void getTimeToCollision_matchesShip() {
+    ShipHandle approaching = store.add(300, 0, -10, 0, 10, Math.PI);
+    Ship ship = new Ship(100, 0, Math.PI, 0, 10);
+    Ship other = new Ship(300, 0, Math.PI, 10, 10);
+    assertEquals(ship.getTimeToCollision(other), store.getTimeToCollision(still.getIndex(), approaching.getIndex()),
+        Util.EPSILON);
+  }
+  @Test
+  public void getTimesToCollision_sameAsSingle() {
+    Random random = new Random(7);
+    for (int i = 0; i < 100; i++)
+      store.add(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 200 - 100,
+          random.nextDouble() * 200 - 100, 10 + random.nextDouble() * 20, 0);
+    double[] out = new double[store.getNbShips()];
+    for (int i = 0; i < store.getNbShips(); i++) {
+      int first = store.getTimesToCollision(i, 0, store.getNbShips(), out);
+      double earliest = Double.POSITIVE_INFINITY;
+      for (int j = 0; j < store.getNbShips(); j++) {
+        assertEquals(store.getTimeToCollision(i, j), out[j], 0);
+        earliest = Math.min(earliest, out[j]);
+      }
+      if (first < 0)
+        assertEquals(Double.POSITIVE_INFINITY, earliest, 0);
+      else
+        assertEquals(earliest, out[first], 0);
+    }
+  }
+
+  @Test
+  public void saveAndLoad_restoresShips() throws IOException {
+    store.turn(moving.getIndex(), 1);
+    File file = folder.newFile("ships.bin");
+    store.save(file);
+    assertEquals(ShipStore.HEADER_SIZE + 2 * 6 * 8, file.length());
+    byte[] magic = Arrays.copyOf(Files.readAllBytes(file.toPath()), 4);
+    assertArrayEquals("STSA".getBytes("US-ASCII"), magic);
+    ShipStore restored = ShipStore.load(file);
+    assertEquals(2, restored.getNbShips());
+    for (int i = 0; i < 2; i++) {
+      assertEquals(store.getX(i), restored.getX(i), 0);
+      assertEquals(store.getY(i), restored.getY(i), 0);
+      assertEquals(store.getXVelocity(i), restored.getXVelocity(i), 0);
+      assertEquals(store.getYVelocity(i), restored.getYVelocity(i), 0);
+      assertEquals(store.getRadius(i), restored.getRadius(i), 0);
+      assertEquals(store.getDirection(i), restored.getDirection(i), 0);
+    }
+  }
+
+  @Test
+  public void copyOf_savesShips() throws IOException {
+    List<Ship> ships = Arrays.asList(new Ship(1, 2, 3, 4, 15, 0.5), new Ship(-1, -2, 0, 0, 20, 0));
+    File file = folder.newFile("world.bin");
+    ShipStore.copyOf(ships).save(file);
+    ShipStore restored = ShipStore.load(file);
+    assertEquals(2, restored.getNbShips());
+    assertEquals(4, restored.getYVelocity(0), 0);
+    assertEquals(20, restored.getRadius(1), 0);
+    assertEquals(0.5, restored.getDirection(0), 0);
+  }
+
+  @Test(expected = IOException.class)
+  public void load_notAFileOfShips() throws IOException {
+    File file = folder.newFile("other.bin");
+    FileOutputStream out = new FileOutputStream(file);
+    try {
+      out.write(new byte[32]);
+    } finally {
+      out.close();
+    }
+    ShipStore.load(file);
+  }
+
+  @Test
+  public void getCollisionPosition_matchesShip() {
+    ShipHandle approaching = store.add(100, -300, 0, 10, 10, Math.PI / 2);
+    Ship ship = new Ship(100, 0, 0, 0, 10);
+    Ship other = new Ship(100, -300, Math.PI / 2, 10, 10);
+    double[] expected = new double[2], out = new double[2];
+    assertTrue(ship.getCollisionPosition(other, expected, 0));
+    assertTrue(store.getCollisionPosition(still.getIndex(), approaching.getIndex(), out, 0));
+    assertArrayEquals(expected, out, Util.EPSILON);
+    assertEquals(-10, out[1], Util.EPSILON);
+  }
+
+  @Test
+  public void getCollisionPositions_sameAsSingle() {
+    Random random = new Random(11);
+    for (int i = 0; i < 100; i++)
+      store.add(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 200 - 100,
+          random.nextDouble() * 200 - 100, 10 + random.nextDouble() * 20, 0);
+    int n = store.getNbShips();
+    double[] times = new double[n], out = new double[2 * n], single = new double[2];
+    for (int i = 0; i < n; i++) {
+      store.getTimesToCollision(i, 0, n, times);
+      store.getCollisionPositions(i, 0, n, times, out);
+      for (int j = 0; j < n; j++) {
+        if (store.getCollisionPosition(i, j, single, 0)) {
+          assertEquals(single[0], out[2 * j], Util.EPSILON);
+          assertEquals(single[1], out[2 * j + 1], Util.EPSILON);
+        } else {
+          assertTrue(Double.isNaN(out[2 * j]) && Double.isNaN(out[2 * j + 1]));
+        }
+      }
+    }
+  }
+
+}
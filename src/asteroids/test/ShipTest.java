@@ -3,6 +3,7 @@ package asteroids.test;
 import static org.junit.Assert.*;
 
 import org.junit.Before;
+import org.junit.BeforeClass;
 import org.junit.Test;
 
 import asteroids.IFacade;
@@ -10,7 +11,10 @@ import asteroids.IShip;
 import asteroids.ModelException;
 import asteroids.Util;
 import game.Facade;
+import game.NegativeTimeException;
+import game.Position;
 import game.Ship;
+import game.ShipState;
 
 public class ShipTest {
 
@@ -19,12 +23,12 @@ public class ShipTest {
   @Before
   public void setUpMutableFixture() {
 	  ship5 = new Ship(0, 0, 0, 0, 5);
-	  ship_negativespeed = new Ship(0, 0, Math.PI, 10);
-	  ship50 = new Ship(10, 10, Math.PI/2, 50);
+	  ship_negativespeed = new Ship(0, 0, Math.PI, -10, 10);
+	  ship50 = new Ship(10, 10, Math.PI/2, 50, 10);
   }
   
   @BeforeClass
-  public void SetUpImmutableFixture() {
+  public static void SetUpImmutableFixture() {
 	  
   }
   
@@ -61,4 +65,181 @@ public class ShipTest {
 	  ship50.move(-10);
   }
 
+  @Test
+  public void getTimeToCollision_approaching() {
+	  Ship left = new Ship(0, 0, 0, 10, 10);
+	  Ship right = new Ship(100, 0, Math.PI, 10, 10);
+	  assertEquals(4, left.getTimeToCollision(right), Util.EPSILON);
+	  assertEquals(4, right.getTimeToCollision(left), Util.EPSILON);
+  }
+  
+  @Test
+  public void getTimeToCollision_equalVelocities() {
+	  Ship other = new Ship(50, 0, Math.PI/2, 50, 10);
+	  assertEquals(Double.POSITIVE_INFINITY, ship50.getTimeToCollision(other), 0);
+	  assertEquals(Double.POSITIVE_INFINITY, ship5.getTimeToCollision(ship5), 0);
+  }
+  
+  @Test
+  public void getTimeToCollision_movingApart() {
+	  assertEquals(Double.POSITIVE_INFINITY, ship5.getTimeToCollision(ship50), 0);
+  }
+  
+  @Test
+  public void getTimesToCollision_sameAsSingle() {
+	  Ship[] others = { ship50, new Ship(100, 0, Math.PI, 10, 10), ship5, new Ship(-60, 0, 0, 30, 10),
+			  new Ship(0, 40, -Math.PI/2, 5, 10) };
+	  double[] out = new double[others.length];
+	  assertEquals(3, ship5.getTimesToCollision(others, out));
+	  for (int i = 0; i < others.length; i++)
+		  assertEquals(ship5.getTimeToCollision(others[i]), out[i], 0);
+  }
+  
+  @Test (expected = IllegalArgumentException.class)
+  public void getTimesToCollision_shortOutput() {
+	  ship5.getTimesToCollision(new Ship[] { ship50, ship5 }, new double[1]);
+  }
+
+  @Test
+  public void getState_notPublishing() {
+	  ship50.move(1);
+	  ShipState state = ship50.getState();
+	  assertFalse(ship50.isPublishing());
+	  assertEquals(ship50.getX(), state.getX(), 0);
+	  assertEquals(60, state.getY(), Util.EPSILON);
+	  assertEquals(50, state.getYVelocity(), Util.EPSILON);
+	  assertEquals(10, state.getRadius(), 0);
+  }
+  
+  @Test
+  public void getState_publishedAfterEveryChange() {
+	  ship50.setPublishing(true);
+	  ShipState before = ship50.getState();
+	  assertSame(before, ship50.getState());
+	  ship50.turn(Math.PI/2);
+	  ShipState after = ship50.getState();
+	  assertNotSame(before, after);
+	  assertEquals(-50, after.getXVelocity(), Util.EPSILON);
+	  assertEquals(Math.PI, after.getDirection(), Util.EPSILON);
+  }
+  
+  @Test
+  public void getState_neverTornAcrossThreads() throws InterruptedException {
+	  final Ship ship = new Ship(0, 0, 1, 2, 10, 0);
+	  ship.setPublishing(true);
+	  final boolean[] torn = new boolean[1];
+	  final Thread writer = new Thread() {
+		  @Override
+		  public void run() {
+			  for (int i = 0; i < 1000000; i++)
+				  ship.move(1);
+		  }
+	  };
+	  Thread reader = new Thread() {
+		  @Override
+		  public void run() {
+			  while (writer.isAlive()) {
+				  ShipState state = ship.getState();
+				  if (state.getY() != 2 * state.getX())
+					  torn[0] = true;
+			  }
+		  }
+	  };
+	  writer.start();
+	  reader.start();
+	  writer.join();
+	  reader.join();
+	  assertFalse(torn[0]);
+	  assertEquals(2000000, ship.getState().getY(), 0);
+  }
+
+  @Test
+  public void getMass_growsWithCubeOfRadius() {
+	  assertEquals(8, new Ship(0, 0, 0, 0, 20).getMass() / ship50.getMass(), Util.EPSILON);
+  }
+
+  @Test
+  public void bounce_equalMassesExchangeVelocities() {
+	  Ship other = new Ship(20, 0, Math.PI, 0, 10);
+	  Ship ship = new Ship(0, 0, 0, 10, 10);
+	  ship.bounce(other);
+	  assertEquals(0, ship.getXVelocity(), Util.EPSILON);
+	  assertEquals(10, other.getXVelocity(), Util.EPSILON);
+  }
+
+  @Test
+  public void bounce_conservesMomentumAndEnergy() {
+	  Ship small = new Ship(0, 0, 30, 5, 10, 0);
+	  Ship large = new Ship(24, 18, -10, -20, 20, 0);
+	  double m1 = small.getMass() / large.getMass(), m2 = 1;
+	  double px = m1 * small.getXVelocity() + m2 * large.getXVelocity();
+	  double py = m1 * small.getYVelocity() + m2 * large.getYVelocity();
+	  double energy = m1 * small.getVelocity() * small.getVelocity() + m2 * large.getVelocity() * large.getVelocity();
+	  small.bounce(large);
+	  assertEquals(px, m1 * small.getXVelocity() + m2 * large.getXVelocity(), Util.EPSILON);
+	  assertEquals(py, m1 * small.getYVelocity() + m2 * large.getYVelocity(), Util.EPSILON);
+	  assertEquals(energy, m1 * small.getVelocity() * small.getVelocity() + m2 * large.getVelocity() * large.getVelocity(),
+	      Util.EPSILON);
+	  assertTrue(small.getTimeToCollision(large) == Double.POSITIVE_INFINITY);
+  }
+
+  @Test
+  public void bounce_separatingShipsUnchanged() {
+	  Ship other = new Ship(20, 0, 0, 10, 10);
+	  Ship ship = new Ship(0, 0, Math.PI, 10, 10);
+	  ship.bounce(other);
+	  assertEquals(-10, ship.getXVelocity(), Util.EPSILON);
+	  assertEquals(10, other.getXVelocity(), Util.EPSILON);
+  }
+
+  @Test (expected = IllegalArgumentException.class)
+  public void bounce_self() {
+	  ship50.bounce(ship50);
+  }
+
+  @Test
+  public void getCollisionPosition_pointWhereShipsTouch() {
+	  Ship still = new Ship(0, 0, 0, 0, 10);
+	  Ship approaching = new Ship(0, -100, Math.PI / 2, 10, 20);
+	  Position position = still.getCollisionPosition(approaching);
+	  assertEquals(0, position.getX(), Util.EPSILON);
+	  assertEquals(-10, position.getY(), Util.EPSILON);
+	  position = approaching.getCollisionPosition(still);
+	  assertEquals(0, position.getX(), Util.EPSILON);
+	  assertEquals(-10, position.getY(), Util.EPSILON);
+  }
+
+  @Test
+  public void getCollisionPosition_givenTime() {
+	  Ship ship = new Ship(0, 0, 30, 20, 10, 0);
+	  Ship other = new Ship(200, 100, -10, 0, 15, 0);
+	  double[] expected = new double[2], out = new double[4];
+	  assertTrue(ship.getCollisionPosition(other, expected, 0));
+	  assertTrue(ship.getCollisionPosition(other, ship.getTimeToCollision(other), out, 2));
+	  assertEquals(expected[0], out[2], Util.EPSILON);
+	  assertEquals(expected[1], out[3], Util.EPSILON);
+	  assertFalse(ship.getCollisionPosition(other, Double.POSITIVE_INFINITY, out, 0));
+	  assertEquals(0, out[0], 0);
+  }
+
+  @Test
+  public void getCollisionPositions_sameAsSingle() {
+	  Ship[] others = { new Ship(200, 100, -10, 0, 15, 0), new Ship(0, 500, 0, 0, 10, 0), new Ship(-80, 0, 0, 0, 30, 0),
+	      new Ship(50, -60, 0, 30, 10, 0) };
+	  Ship ship = new Ship(0, 0, 30, 20, 10, 0);
+	  double[] times = new double[others.length], out = new double[2 * others.length], single = new double[2];
+	  ship.getTimesToCollision(others, times);
+	  int count = ship.getCollisionPositions(others, times, out);
+	  for (int i = 0; i < others.length; i++) {
+		  if (ship.getCollisionPosition(others[i], single, 0)) {
+			  count--;
+			  assertEquals(single[0], out[2 * i], Util.EPSILON);
+			  assertEquals(single[1], out[2 * i + 1], Util.EPSILON);
+		  } else {
+			  assertTrue(Double.isNaN(out[2 * i]));
+		  }
+	  }
+	  assertEquals(0, count);
+  }
+
 }
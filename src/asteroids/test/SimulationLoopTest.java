@@ -0,0 +1,76 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.SimulationLoop;
+import asteroids.Util;
+
+public class SimulationLoopTest {
+
+  private int ticks;
+  private double simulated;
+  private double alpha;
+  private SimulationLoop loop;
+
+  @Before
+  public void setUpMutableFixture() {
+    loop = new SimulationLoop(new SimulationLoop.Simulation() {
+      @Override
+      public void tick(double dt) {
+        ticks++;
+        simulated += dt;
+      }
+
+      @Override
+      public void render(double alpha) {
+        SimulationLoopTest.this.alpha = alpha;
+      }
+    }, 100, 60);
+  }
+
+  @Test
+  public void advance_fixedTimestep() {
+    loop.advance(0.035);
+    assertEquals(3, ticks);
+    assertEquals(0.03, simulated, Util.EPSILON);
+    assertEquals(0.5, alpha, Util.EPSILON);
+    loop.advance(0.006);
+    assertEquals(4, ticks);
+    assertEquals(0.1, alpha, Util.EPSILON);
+    assertEquals(4, loop.getTicks());
+  }
+
+  @Test
+  public void advance_dropsLongStalls() {
+    loop.advance(10);
+    assertEquals(Math.round(SimulationLoop.MAX_CATCH_UP * 100), ticks);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_zeroTickRate() {
+    new SimulationLoop(null, 0, 60);
+  }
+
+  @Test
+  public void start_ticksOnOwnThread() throws InterruptedException {
+    final Thread[] thread = new Thread[1];
+    SimulationLoop threaded = new SimulationLoop(new SimulationLoop.Simulation() {
+      @Override
+      public synchronized void tick(double dt) {
+        thread[0] = Thread.currentThread();
+      }
+
+      @Override
+      public void render(double alpha) {
+      }
+    }, 1000, 1000);
+    threaded.start();
+    Thread.sleep(100);
+    threaded.stop();
+    assertTrue(threaded.getTicks() > 0);
+    assertNotSame(Thread.currentThread(), thread[0]);
+  }
+}
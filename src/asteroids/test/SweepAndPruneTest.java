@@ -0,0 +1,95 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.Util;
+import game.Boundary;
+import game.Impact;
+import game.Ship;
+import game.SweepAndPrune;
+import game.World;
+
+public class SweepAndPruneTest {
+
+  private World world;
+  private Ship[] ships;
+
+  @Before
+  public void setUpMutableFixture() {
+    world = new World();
+    Random random = new Random(42);
+    ships = new Ship[500];
+    for (int i = 0; i < ships.length; i++) {
+      ships[i] = new Ship(random.nextDouble() * 2000, random.nextDouble() * 2000, random.nextDouble() * 2 * Math.PI,
+          random.nextDouble() * 50, 10 + random.nextDouble() * 30);
+      world.addShip(ships[i]);
+    }
+  }
+
+  @Test
+  public void getOverlappingPairs_matchesWorldWhileMoving() {
+    SweepAndPrune sweep = new SweepAndPrune(world);
+    for (int frame = 0; frame < 20; frame++) {
+      List<Ship[]> pairs = sweep.getOverlappingPairs();
+      assertEquals(world.getOverlappingPairs().size(), pairs.size());
+      for (Ship[] pair : pairs) {
+        assertNotSame(pair[0], pair[1]);
+        assertTrue(pair[0].overlap(pair[1]));
+      }
+      for (Ship ship : ships)
+        ship.move(0.1);
+    }
+  }
+
+  @Test
+  public void update_stationaryShipsNeedNoSwaps() {
+    SweepAndPrune sweep = new SweepAndPrune(world);
+    sweep.update();
+    assertTrue(sweep.getNbSwaps() > 0);
+    sweep.update();
+    assertEquals(0, sweep.getNbSwaps());
+  }
+
+  @Test
+  public void update_followsAddedAndRemovedShips() {
+    SweepAndPrune sweep = new SweepAndPrune(world);
+    sweep.getOverlappingPairs();
+    world.removeShip(ships[0]);
+    Ship added = new Ship(ships[1].getX(), ships[1].getY(), 0, 0, 10);
+    world.addShip(added);
+    boolean found = false;
+    for (Ship[] pair : sweep.getOverlappingPairs()) {
+      assertTrue(pair[0] != ships[0] && pair[1] != ships[0]);
+      found |= pair[0] == added || pair[1] == added;
+    }
+    assertTrue(found);
+    assertEquals(world.getOverlappingPairs().size(), sweep.getOverlappingPairs().size());
+  }
+
+  @Test
+  public void getImpacts_matchesWorld() {
+    SweepAndPrune sweep = new SweepAndPrune(world, 2);
+    List<Impact> impacts = sweep.getImpacts();
+    assertEquals(world.getImpacts(2).size(), impacts.size());
+    for (int i = 1; i < impacts.size(); i++)
+      assertTrue(impacts.get(i - 1).getTime() <= impacts.get(i).getTime());
+    assertEquals(impacts.get(0).getTime(), sweep.getNextImpact().getTime(), Util.EPSILON);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_negativeSweep() {
+    new SweepAndPrune(world, -1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_boundedWorld() {
+    new SweepAndPrune(new World(1000, 1000, Boundary.WRAP));
+  }
+
+}
@@ -0,0 +1,121 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.Util;
+import game.Ship;
+import game.TimeOfImpactCache;
+
+public class TimeOfImpactCacheTest {
+
+  private TimeOfImpactCache cache;
+  private Ship left, right;
+
+  @Before
+  public void setUpMutableFixture() {
+    cache = new TimeOfImpactCache();
+    left = new Ship(0, 0, 10, 0, 10, 0);
+    right = new Ship(100, 0, -10, 0, 10, Math.PI);
+  }
+
+  @Test
+  public void getTimeToCollision_repeatedQueryIsHit() {
+    assertEquals(left.getTimeToCollision(right), cache.getTimeToCollision(left, right), 0);
+    assertEquals(left.getTimeToCollision(right), cache.getTimeToCollision(left, right), 0);
+    assertEquals(right.getTimeToCollision(left), cache.getTimeToCollision(right, left), 0);
+    assertEquals(1, cache.getNbMisses());
+    assertEquals(2, cache.getNbHits());
+  }
+
+  @Test
+  public void getTimeToCollision_movingKeepsEntry() {
+    cache.getTimeToCollision(left, right);
+    left.move(1);
+    right.move(1);
+    assertEquals(3, cache.getTimeToCollision(left, right), Util.EPSILON);
+    left.move(5);
+    right.move(5);
+    assertEquals(Double.POSITIVE_INFINITY, cache.getTimeToCollision(left, right), 0);
+    assertEquals(Double.POSITIVE_INFINITY, left.getTimeToCollision(right), 0);
+    assertEquals(1, cache.getNbMisses());
+  }
+
+  @Test
+  public void getTimeToCollision_thrustInvalidates() {
+    cache.getTimeToCollision(left, right);
+    right.thrust(20);
+    assertEquals(2, cache.getTimeToCollision(left, right), Util.EPSILON);
+    right.turn(Math.PI);
+    assertEquals(left.getTimeToCollision(right), cache.getTimeToCollision(left, right), 0);
+    assertEquals(3, cache.getNbMisses());
+  }
+
+  @Test
+  public void getTimeToCollision_sameAsShip() {
+    Random random = new Random(11);
+    Ship[] ships = new Ship[30];
+    for (int i = 0; i < ships.length; i++)
+      ships[i] = new Ship(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 200 - 100,
+          random.nextDouble() * 200 - 100, 10 + random.nextDouble() * 20, 0);
+    double[] out = new double[ships.length];
+    for (int step = 0; step < 50; step++) {
+      for (Ship ship : ships)
+        ship.move(0.1);
+      ships[random.nextInt(ships.length)].turn(random.nextDouble());
+      for (Ship ship : ships) {
+        int first = cache.getTimesToCollision(ship, ships, out);
+        assertEquals(ship.getTimesToCollision(ships, new double[ships.length]), first);
+        for (int i = 0; i < ships.length; i++) {
+          double expected = ship.getTimeToCollision(ships[i]);
+          if (expected == Double.POSITIVE_INFINITY)
+            assertEquals(expected, out[i], 0);
+          else
+            assertEquals(expected, out[i], 1e-6);
+        }
+      }
+    }
+    assertTrue(cache.getNbHits() > cache.getNbMisses());
+  }
+
+  @Test
+  public void getTimeToCollision_sharedByThreads() throws InterruptedException {
+    Random random = new Random(5);
+    final Ship[] ships = new Ship[100];
+    for (int i = 0; i < ships.length; i++)
+      ships[i] = new Ship(random.nextDouble() * 1000, random.nextDouble() * 1000, random.nextDouble() * 2 * Math.PI,
+          random.nextDouble() * 50, 10);
+    final boolean[] failed = new boolean[1];
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      final int offset = t;
+      threads[t] = new Thread() {
+        @Override
+        public void run() {
+          for (int i = 0; i < ships.length; i++) {
+            for (int j = 0; j < ships.length; j++) {
+              Ship first = ships[(i + offset) % ships.length];
+              if (cache.getTimeToCollision(first, ships[j]) != first.getTimeToCollision(ships[j]))
+                failed[0] = true;
+            }
+            if (i % 10 == offset)
+              cache.remove(ships[i]);
+          }
+        }
+      };
+      threads[t].start();
+    }
+    for (Thread thread : threads)
+      thread.join();
+    assertFalse(failed[0]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void getTimeToCollision_null() {
+    cache.getTimeToCollision(left, null);
+  }
+}
@@ -0,0 +1,73 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.IFacade;
+import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.Util;
+import asteroids.WorldStepper;
+import game.Boundary;
+import game.Facade;
+
+public class WorldStepperTest {
+
+  private IFacade facade;
+  private IWorld world;
+  private IShip left, right;
+
+  @Before
+  public void setUpMutableFixture() {
+    facade = new Facade();
+    world = facade.createWorld();
+    left = facade.createShip(0, 0, 1000, 0, 10, 0);
+    right = facade.createShip(100, 0, -1000, 0, 10, Math.PI);
+    facade.addShip(world, left);
+    facade.addShip(world, right);
+  }
+
+  @Test
+  public void step_bouncesAtContact() {
+    WorldStepper stepper = new WorldStepper(facade, world, facade.getShips(world), true);
+    assertTrue(stepper.isBouncing());
+    // Both ships touch after 0.04 seconds, at x = 40 and x = 60, and move back for the rest of the step.
+    stepper.step(1);
+    assertEquals(40 - 960, facade.getX(left), Util.EPSILON);
+    assertEquals(60 + 960, facade.getX(right), Util.EPSILON);
+    assertEquals(-1000, facade.getXVelocity(left), Util.EPSILON);
+    assertEquals(1000, facade.getXVelocity(right), Util.EPSILON);
+  }
+
+  @Test
+  public void step_neverOverlapsAfterBounce() {
+    Set<IShip> ships = facade.getShips(world);
+    WorldStepper stepper = new WorldStepper(facade, world, ships, true);
+    for (int tick = 0; tick < 100; tick++) {
+      stepper.step(0.001);
+      assertTrue(facade.getDistanceBetween(left, right) > -1E-6);
+    }
+  }
+
+  @Test
+  public void step_notBouncing() {
+    WorldStepper stepper = new WorldStepper(facade, world, facade.getShips(world), false);
+    assertFalse(stepper.isBouncing());
+    stepper.step(1);
+    assertEquals(1000, facade.getX(left), Util.EPSILON);
+    assertEquals(-900, facade.getX(right), Util.EPSILON);
+  }
+
+  @Test
+  public void step_boundedWorldPassesThrough() {
+    IFacade facade = new Facade(1000, 1000, Boundary.WRAP);
+    IWorld world = facade.createWorld();
+    facade.addShip(world, facade.createShip(100, 100, 10, 0, 10, 0));
+    assertFalse(new WorldStepper(facade, world, facade.getShips(world), true).isBouncing());
+  }
+
+}
@@ -0,0 +1,314 @@
+package asteroids.test;
+
+import static org.junit.Assert.*;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import asteroids.Util;
+import game.Boundary;
+import game.BroadPhaseListener;
+import game.Impact;
+import game.Ship;
+import game.World;
+
+public class WorldTest {
+
+  private World world;
+  private Ship[] ships;
+
+  @Before
+  public void setUpMutableFixture() {
+    world = new World();
+    Random random = new Random(42);
+    ships = new Ship[500];
+    for (int i = 0; i < ships.length; i++) {
+      ships[i] = new Ship(random.nextDouble() * 2000, random.nextDouble() * 2000, random.nextDouble() * 2 * Math.PI,
+          random.nextDouble() * 50, 10 + random.nextDouble() * 30);
+      world.addShip(ships[i]);
+    }
+  }
+
+  @Test
+  public void getOverlappingPairs_matchesAllPairs() {
+    int expected = 0;
+    for (int i = 0; i < ships.length; i++)
+      for (int j = i + 1; j < ships.length; j++)
+        if (ships[i].overlap(ships[j]))
+          expected++;
+    List<Ship[]> pairs = world.getOverlappingPairs();
+    assertEquals(expected, pairs.size());
+    for (Ship[] pair : pairs) {
+      assertNotSame(pair[0], pair[1]);
+      assertTrue(pair[0].overlap(pair[1]));
+    }
+  }
+
+  @Test
+  public void getShipsNear_matchesAllShips() {
+    Ship ship = ships[0];
+    int expected = 0;
+    for (int i = 1; i < ships.length; i++)
+      if (ship.getDistanceBetween(ships[i]) <= 100)
+        expected++;
+    List<Ship> near = world.getShipsNear(ship, 100);
+    assertEquals(expected, near.size());
+    assertFalse(near.contains(ship));
+  }
+
+  @Test
+  public void getShipsNear_infiniteRange() {
+    assertEquals(ships.length - 1, world.getShipsNear(ships[0], Double.POSITIVE_INFINITY).size());
+  }
+
+  @Test
+  public void getImpacts_findsShipsPassingThrough() {
+    World fast = new World();
+    Ship left = new Ship(0, 0, 0, 100000, 10);
+    Ship right = new Ship(1000, 0, Math.PI, 100000, 10);
+    fast.addShip(left);
+    fast.addShip(right);
+    fast.addShip(new Ship(0, 5000, 0, 0, 10));
+    left.move(0.5);
+    right.move(0.5);
+    assertFalse(left.overlap(right));
+    assertEquals(0, fast.getImpacts(1).size());
+    left = new Ship(0, 0, 0, 100000, 10);
+    right = new Ship(1000, 0, Math.PI, 100000, 10);
+    fast = new World();
+    fast.addShip(left);
+    fast.addShip(right);
+    List<Impact> impacts = fast.getImpacts(1);
+    assertEquals(1, impacts.size());
+    assertEquals(980 / 200000., impacts.get(0).getTime(), Util.EPSILON);
+  }
+
+  @Test
+  public void getImpacts_matchesAllPairs() {
+    int expected = 0;
+    for (int i = 0; i < ships.length; i++)
+      for (int j = i + 1; j < ships.length; j++)
+        if (ships[i].getTimeOfImpact(ships[j], 2) != Double.POSITIVE_INFINITY)
+          expected++;
+    assertEquals(expected, world.getImpacts(2).size());
+  }
+
+  @Test
+  public void getImpacts_collisionPositions() {
+    World fast = new World();
+    fast.addShip(new Ship(0, 0, 0, 100000, 10));
+    fast.addShip(new Ship(1000, 0, Math.PI, 100000, 10));
+    fast.addShip(new Ship(0, 5000, 0, 0, 10));
+    List<Impact> impacts = fast.getImpacts(1);
+    double[] out = new double[2];
+    Impact.getCollisionPositions(impacts, out);
+    assertEquals(500, out[0], Util.EPSILON);
+    assertEquals(0, out[1], Util.EPSILON);
+  }
+
+  @Test
+  public void removeShip() {
+    world.removeShip(ships[0]);
+    assertFalse(world.hasShip(ships[0]));
+    assertEquals(ships.length - 1, world.getNbShips());
+  }
+
+  @Test
+  public void removeShip_clearsWorldOfShip() {
+    assertSame(world, ships[0].getWorld());
+    world.removeShip(ships[0]);
+    assertNull(ships[0].getWorld());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addShip_shipOfOtherWorld() {
+    new World().addShip(ships[0]);
+  }
+
+  @Test
+  public void canHaveAsShip_fitsBoundary() {
+    assertTrue(new World(100, 100, Boundary.WRAP).canHaveAsShip(new Ship(0, 0, 0, 0, 25)));
+    assertFalse(new World(100, 100, Boundary.WRAP).canHaveAsShip(new Ship(0, 0, 0, 0, 30)));
+    assertTrue(new World(100, 100, Boundary.REFLECT).canHaveAsShip(new Ship(0, 0, 0, 0, 50)));
+    assertFalse(new World(100, 100, Boundary.REFLECT).canHaveAsShip(new Ship(0, 0, 0, 0, 60)));
+    assertTrue(new World().canHaveAsShip(new Ship(0, 0, 0, 0, 1e6)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void constructor_boundedWithoutSize() {
+    new World(Double.POSITIVE_INFINITY, 100, Boundary.WRAP);
+  }
+
+  @Test
+  public void wrap_distanceAcrossEdge() {
+    World torus = new World(1000, 1000, Boundary.WRAP);
+    Ship left = new Ship(5, 500, 0, 0, 10);
+    Ship right = new Ship(995, 500, 0, 0, 10);
+    assertFalse(left.overlap(right));
+    torus.addShip(left);
+    torus.addShip(right);
+    assertEquals(-10, left.getDistanceBetween(right), Util.EPSILON);
+    assertTrue(left.overlap(right));
+    assertEquals(1, torus.getOverlappingPairs().size());
+  }
+
+  @Test
+  public void wrap_collisionAcrossEdge() {
+    World torus = new World(1000, 1000, Boundary.WRAP);
+    Ship moving = new Ship(100, 500, Math.PI, 10, 10);
+    Ship resting = new Ship(900, 500, 0, 0, 10);
+    torus.addShip(moving);
+    torus.addShip(resting);
+    assertEquals(18, moving.getTimeToCollision(resting), Util.EPSILON);
+    double[] out = new double[2];
+    assertTrue(moving.getCollisionPosition(resting, out, 0));
+    assertEquals(910, out[0], Util.EPSILON);
+    assertEquals(500, out[1], Util.EPSILON);
+    assertEquals(Double.POSITIVE_INFINITY, moving.getTimeOfImpact(resting, 10), Util.EPSILON);
+    assertEquals(1, torus.getImpacts(20).size());
+  }
+
+  @Test
+  public void wrap_moveWrapsPosition() {
+    World torus = new World(1000, 1000, Boundary.WRAP);
+    Ship ship = new Ship(990, 500, 0, 20, 10);
+    torus.addShip(ship);
+    ship.move(1);
+    assertEquals(10, ship.getX(), Util.EPSILON);
+    assertEquals(20, ship.getXVelocity(), Util.EPSILON);
+    Ship outside = new Ship(-2500, 3200, 0, 0, 10);
+    torus.addShip(outside);
+    assertEquals(500, outside.getX(), Util.EPSILON);
+    assertEquals(200, outside.getY(), Util.EPSILON);
+  }
+
+  @Test
+  public void wrap_queriesMatchAllPairs() {
+    World torus = new World(1000, 800, Boundary.WRAP);
+    Random random = new Random(7);
+    Ship[] wrapped = new Ship[400];
+    for (int i = 0; i < wrapped.length; i++) {
+      wrapped[i] = new Ship(random.nextDouble() * 1000, random.nextDouble() * 800, random.nextDouble() * 2 * Math.PI,
+          random.nextDouble() * 50, 10 + random.nextDouble() * 30);
+      torus.addShip(wrapped[i]);
+    }
+    int overlapping = 0, impacting = 0, near = 0;
+    for (int i = 0; i < wrapped.length; i++) {
+      for (int j = i + 1; j < wrapped.length; j++) {
+        if (wrapped[i].overlap(wrapped[j]))
+          overlapping++;
+        if (wrapped[i].getTimeOfImpact(wrapped[j], 2) != Double.POSITIVE_INFINITY)
+          impacting++;
+      }
+      if (i > 0 && wrapped[0].getDistanceBetween(wrapped[i]) <= 150)
+        near++;
+    }
+    assertTrue(overlapping > 0);
+    assertEquals(overlapping, torus.getOverlappingPairs().size());
+    assertEquals(impacting, torus.getImpacts(2).size());
+    assertEquals(near, torus.getShipsNear(wrapped[0], 150).size());
+    assertEquals(wrapped.length - 1, torus.getShipsNear(wrapped[0], 2000).size());
+  }
+
+  @Test
+  public void reflect_moveBouncesOffWall() {
+    World box = new World(1000, 1000, Boundary.REFLECT);
+    Ship ship = new Ship(980, 500, 0, 20, 10);
+    box.addShip(ship);
+    ship.move(1);
+    assertEquals(980, ship.getX(), Util.EPSILON);
+    assertEquals(-20, ship.getXVelocity(), Util.EPSILON);
+  }
+
+  @Test
+  public void reflect_collisionAfterBounce() {
+    World box = new World(1000, 1000, Boundary.REFLECT);
+    Ship front = new Ship(900, 500, 0, 10, 10);
+    Ship back = new Ship(700, 500, 0, 10, 10);
+    assertEquals(Double.POSITIVE_INFINITY, front.getTimeToCollision(back), Util.EPSILON);
+    box.addShip(front);
+    box.addShip(back);
+    assertEquals(18, front.getTimeToCollision(back), Util.EPSILON);
+    double[] out = new double[2];
+    assertTrue(front.getCollisionPosition(back, out, 0));
+    assertEquals(890, out[0], Util.EPSILON);
+    assertEquals(500, out[1], Util.EPSILON);
+  }
+
+  @Test
+  public void reflect_impactAfterBounce() {
+    World box = new World(1000, 1000, Boundary.REFLECT);
+    Ship bouncing = new Ship(960, 500, 0, 100, 10);
+    Ship resting = new Ship(930, 500, 0, 0, 10);
+    box.addShip(bouncing);
+    box.addShip(resting);
+    assertEquals(0.7, bouncing.getTimeOfImpact(resting, 1), Util.EPSILON);
+    List<Impact> impacts = box.getImpacts(1);
+    assertEquals(1, impacts.size());
+    assertEquals(0.7, impacts.get(0).getTime(), Util.EPSILON);
+  }
+
+  @Test
+  public void reflect_impactsMatchAllPairs() {
+    World box = new World(1000, 800, Boundary.REFLECT);
+    Random random = new Random(3);
+    Ship[] reflected = new Ship[400];
+    for (int i = 0; i < reflected.length; i++) {
+      reflected[i] = new Ship(random.nextDouble() * 1000, random.nextDouble() * 800, random.nextDouble() * 2 * Math.PI,
+          random.nextDouble() * 200, 10 + random.nextDouble() * 30);
+      box.addShip(reflected[i]);
+    }
+    int impacting = 0;
+    for (int i = 0; i < reflected.length; i++)
+      for (int j = i + 1; j < reflected.length; j++)
+        if (reflected[i].getTimeOfImpact(reflected[j], 2) != Double.POSITIVE_INFINITY)
+          impacting++;
+    assertEquals(impacting, box.getImpacts(2).size());
+  }
+
+  @Test
+  public void getImpacts_longSweepKeepsShipsInCells() {
+    World sparse = new World();
+    Random random = new Random(11);
+    Ship[] spread = new Ship[1000];
+    for (int i = 0; i < spread.length; i++) {
+      spread[i] = new Ship(random.nextDouble() * 100000, random.nextDouble() * 100000, random.nextDouble() * 2 * Math.PI,
+          25 + random.nextDouble() * 50, 10);
+      sparse.addShip(spread[i]);
+    }
+    final long[] candidates = new long[1];
+    sparse.setBroadPhaseListener(new BroadPhaseListener() {
+      @Override
+      public void searched(int nbShips, long nbCandidates, long nbFound) {
+        candidates[0] = nbCandidates;
+      }
+    });
+    int impacting = 0;
+    for (int i = 0; i < spread.length; i++)
+      for (int j = i + 1; j < spread.length; j++)
+        if (spread[i].getTimeOfImpact(spread[j], 100) != Double.POSITIVE_INFINITY)
+          impacting++;
+    assertEquals(impacting, sparse.getImpacts(100).size());
+    assertTrue(candidates[0] < spread.length * (spread.length - 1) / 20);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void addShip_null() {
+    world.addShip(null);
+  }
+  @Test
+  public void setPublishing_appliesToAddedShips() {
+    world.setPublishing(true);
+    Ship added = new Ship(0, 0, 0, 0, 10);
+    world.addShip(added);
+    assertTrue(added.isPublishing());
+    for (Ship ship : world.getShips())
+      assertTrue(ship.isPublishing());
+    world.setPublishing(false);
+    assertFalse(added.isPublishing());
+  }
+
+}
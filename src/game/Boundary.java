@@ -0,0 +1,250 @@
+package game;
+
+/**
+ * An enumeration of the ways in which a world can treat its edges.
+ * A bounded world spans the rectangle from the origin to its width and height. Ships that wrap around leave it at one
+ * edge and come back in at the opposite edge, so the world is a torus: the distance between two ships is measured to the
+ * nearest image of the other ship, and a collision may happen across an edge. Ships that are reflected stay within the
+ * rectangle and bounce off its edges, as if the walls had an infinite mass.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public enum Boundary {
+
+	/**
+	 * Ships move freely in an infinite plane.
+	 */
+	UNBOUNDED {
+		@Override
+		public double getDisplacement(double delta, double size) {
+			return delta;
+		}
+
+		@Override
+		public double confine(double coordinate, double radius, double size) {
+			return coordinate;
+		}
+
+		@Override
+		boolean reverses(double coordinate, double radius, double size) {
+			return false;
+		}
+
+		@Override
+		boolean canHold(double radius, double width, double height) {
+			return true;
+		}
+
+		@Override
+		double getTimeToCollision(Ship ship, Ship other, double width, double height, double horizon) {
+			return Ship.getTimeToCollision(ship.getX() - other.getX(), ship.getY() - other.getY(),
+					ship.getXVelocity() - other.getXVelocity(), ship.getYVelocity() - other.getYVelocity(),
+					ship.getRadius() + other.getRadius());
+		}
+	},
+
+	/**
+	 * Ships that cross an edge of the world come back in at the opposite edge. The center of a ship always lies within the
+	 * world, and a ship may cover an edge.
+	 */
+	WRAP {
+		@Override
+		public double getDisplacement(double delta, double size) {
+			return delta - size * Math.rint(delta / size);
+		}
+
+		@Override
+		public double confine(double coordinate, double radius, double size) {
+			double result = coordinate - size * Math.floor(coordinate / size);
+			return result < size ? result : 0;
+		}
+
+		@Override
+		boolean reverses(double coordinate, double radius, double size) {
+			return false;
+		}
+
+		/**
+		 * A ship must not be able to overlap two images of the same ship at once.
+		 */
+		@Override
+		boolean canHold(double radius, double width, double height) {
+			return 4 * radius <= Math.min(width, height);
+		}
+
+		/**
+		 * The position of the ship relative to the other ship moves along a straight line, past the images of the other ship
+		 * on a lattice with the size of the world. The line is followed from the cell around the nearest image to the next,
+		 * in the order in which it passes them, and only the image in the middle of each cell is tested: a collision with an
+		 * image happens while the line is in its cell.
+		 */
+		@Override
+		double getTimeToCollision(Ship ship, Ship other, double width, double height, double horizon) {
+			double deltarx = getDisplacement(ship.getX() - other.getX(), width);
+			double deltary = getDisplacement(ship.getY() - other.getY(), height);
+			double deltavx = ship.getXVelocity() - other.getXVelocity();
+			double deltavy = ship.getYVelocity() - other.getYVelocity();
+			double sigma = ship.getRadius() + other.getRadius();
+			double imagex = 0, imagey = 0;
+			for (int segment = 0; segment < MAX_SEGMENTS; segment++) {
+				double time = Ship.getTimeToCollision(deltarx - imagex, deltary - imagey, deltavx, deltavy, sigma);
+				if (time < Double.POSITIVE_INFINITY)
+					return time <= horizon ? time : Double.POSITIVE_INFINITY;
+				double exitx = getTimeToEdge(deltarx - imagex, deltavx, width / 2);
+				double exity = getTimeToEdge(deltary - imagey, deltavy, height / 2);
+				double exit = Math.min(exitx, exity);
+				if (exit == Double.POSITIVE_INFINITY || exit > horizon)
+					break;
+				if (exitx <= exity)
+					imagex += Math.signum(deltavx) * width;
+				else
+					imagey += Math.signum(deltavy) * height;
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+	},
+
+	/**
+	 * Ships bounce off the edges of the world, which reverses their velocity perpendicular to that edge. A ship always lies
+	 * entirely within the world.
+	 */
+	REFLECT {
+		@Override
+		public double getDisplacement(double delta, double size) {
+			return delta;
+		}
+
+		/**
+		 * A ship that crosses an edge is folded back, as often as needed, by the distance over which it crossed.
+		 */
+		@Override
+		public double confine(double coordinate, double radius, double size) {
+			double span = size - 2 * radius;
+			if (!(span > 0))
+				return size / 2;
+			double folded = fold(coordinate - radius, span);
+			return radius + (folded <= span ? folded : 2 * span - folded);
+		}
+
+		@Override
+		boolean reverses(double coordinate, double radius, double size) {
+			double span = size - 2 * radius;
+			return span > 0 && fold(coordinate - radius, span) > span;
+		}
+
+		@Override
+		boolean canHold(double radius, double width, double height) {
+			return 2 * radius <= Math.min(width, height);
+		}
+
+		/**
+		 * Both ships are followed from one bounce against an edge to the next, checking in between whether they collide
+		 * before either of them reaches an edge.
+		 */
+		@Override
+		double getTimeToCollision(Ship ship, Ship other, double width, double height, double horizon) {
+			double[] positions = { ship.getX(), ship.getY(), other.getX(), other.getY() };
+			double[] velocities = { ship.getXVelocity(), ship.getYVelocity(), other.getXVelocity(), other.getYVelocity() };
+			double[] radii = { ship.getRadius(), ship.getRadius(), other.getRadius(), other.getRadius() };
+			double[] sizes = { width, height, width, height };
+			double[] walls = new double[4];
+			double sigma = ship.getRadius() + other.getRadius();
+			double time = 0;
+			for (int segment = 0; segment < MAX_SEGMENTS; segment++) {
+				double collision = Ship.getTimeToCollision(positions[0] - positions[2], positions[1] - positions[3],
+						velocities[0] - velocities[2], velocities[1] - velocities[3], sigma);
+				double wall = Double.POSITIVE_INFINITY;
+				for (int i = 0; i < 4; i++) {
+					walls[i] = getTimeToWall(positions[i], velocities[i], radii[i], sizes[i]);
+					wall = Math.min(wall, walls[i]);
+				}
+				if (collision <= wall) {
+					// Ships that already overlap when a bounce turns them towards each other collide right away.
+					time += segment == 0 ? collision : Math.max(collision, 0);
+					return time <= horizon ? time : Double.POSITIVE_INFINITY;
+				}
+				time += wall;
+				if (time > horizon)
+					break;
+				for (int i = 0; i < 4; i++) {
+					if (walls[i] == wall) {
+						positions[i] = velocities[i] > 0 ? sizes[i] - radii[i] : radii[i];
+						velocities[i] = -velocities[i];
+					} else {
+						positions[i] += wall * velocities[i];
+					}
+				}
+			}
+			return Double.POSITIVE_INFINITY;
+		}
+	};
+
+	/**
+	 * Returns the displacement along one axis that corresponds to the given difference between two coordinates, in a world
+	 * with the given size along that axis. In a world that wraps around, this is the difference to the nearest image.
+	 */
+	public abstract double getDisplacement(double delta, double size);
+
+	/**
+	 * Returns the coordinate at which a ship with the given radius ends up within a world with the given size along one
+	 * axis, after it moved in a straight line to the given coordinate.
+	 */
+	public abstract double confine(double coordinate, double radius, double size);
+
+	/**
+	 * Checks whether a ship with the given radius, that moved in a straight line to the given coordinate, moves in the
+	 * opposite direction along that axis once it is confined to a world with the given size.
+	 */
+	abstract boolean reverses(double coordinate, double radius, double size);
+
+	/**
+	 * Checks whether a world with the given width and height can hold a ship with the given radius.
+	 */
+	abstract boolean canHold(double radius, double width, double height);
+
+	/**
+	 * Returns the time until both given ships collide in a world with the given width and height.
+	 * @param horizon The time after which collisions are not looked for.
+	 * @return The time until both ships collide, or Double.POSITIVE_INFINITY if they do not collide within the given
+	 * horizon. In a bounded world, ships are followed past at most MAX_SEGMENTS edges. The time is negative if both ships
+	 * already overlap and approach each other.
+	 */
+	abstract double getTimeToCollision(Ship ship, Ship other, double width, double height, double horizon);
+
+	/**
+	 * The largest number of edges that the track of a ship is followed past when looking for a collision in a bounded world.
+	 */
+	static final int MAX_SEGMENTS = 256;
+
+	/**
+	 * Returns the time until the given coordinate, moving with the given velocity, reaches the given distance from zero.
+	 */
+	private static double getTimeToEdge(double coordinate, double velocity, double half) {
+		if (velocity > 0)
+			return (half - coordinate) / velocity;
+		if (velocity < 0)
+			return (-half - coordinate) / velocity;
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the time until a ship with the given radius at the given coordinate, moving with the given velocity, touches
+	 * an edge of a world with the given size along that axis.
+	 */
+	private static double getTimeToWall(double coordinate, double velocity, double radius, double size) {
+		if (velocity > 0)
+			return Math.max(0, (size - radius - coordinate) / velocity);
+		if (velocity < 0)
+			return Math.max(0, (radius - coordinate) / velocity);
+		return Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the given value modulo twice the given span, in the range from zero up to twice the span.
+	 */
+	private static double fold(double value, double span) {
+		return value - 2 * span * Math.floor(value / (2 * span));
+	}
+
+}
@@ -0,0 +1,20 @@
+package game;
+
+/**
+ * Interface for objects that want to be told how much work the broad phase of a world saved on every query. The listener
+ * is invoked on the thread that did the query, so it should only do cheap work.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public interface BroadPhaseListener {
+
+	/**
+	 * Invoked after a query on the ships of a world.
+	 * @param nbShips The number of ships in the world.
+	 * @param nbCandidates The number of pairs of ships that passed the broad phase and were tested exactly.
+	 * @param nbFound The number of results of the query.
+	 */
+	void searched(int nbShips, long nbCandidates, long nbFound);
+
+}
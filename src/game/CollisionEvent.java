@@ -0,0 +1,81 @@
+package game;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of predicted collisions between two ships at an absolute moment in time.
+ * An event remembers the versions of both ships at the time it was predicted, so it can be recognised as outdated once
+ * either ship has been thrusted, turned or otherwise changed.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class CollisionEvent implements Comparable<CollisionEvent> {
+
+	/**
+	 * Initialize this new event for the given ships at the given time.
+	 * @param time The absolute time at which both ships collide.
+	 * @param first The first ship of this new event.
+	 * @param second The second ship of this new event.
+	 * @param sequence Number used to order events that take place at the same time.
+	 */
+	CollisionEvent(double time, Ship first, Ship second, long sequence) {
+		this.time = time;
+		this.first = first;
+		this.second = second;
+		this.firstVersion = first.getVersion();
+		this.secondVersion = second.getVersion();
+		this.sequence = sequence;
+	}
+
+	/**
+	 * Returns the absolute time at which the ships of this event collide.
+	 */
+	@Basic @Immutable
+	public double getTime() {
+		return this.time;
+	}
+
+	/**
+	 * Returns the first ship of this event.
+	 */
+	@Basic @Immutable
+	public Ship getFirstShip() {
+		return this.first;
+	}
+
+	/**
+	 * Returns the second ship of this event.
+	 */
+	@Basic @Immutable
+	public Ship getSecondShip() {
+		return this.second;
+	}
+
+	/**
+	 * Checks whether neither ship of this event has been changed since this event was predicted.
+	 */
+	boolean isValid() {
+		return first.getVersion() == firstVersion && second.getVersion() == secondVersion;
+	}
+
+	/**
+	 * Events are ordered by time, and events at the same time by the order in which they were predicted.
+	 */
+	@Override
+	public int compareTo(CollisionEvent other) {
+		int result = Double.compare(this.time, other.time);
+		if (result != 0)
+			return result;
+		return this.sequence < other.sequence ? -1 : (this.sequence == other.sequence ? 0 : 1);
+	}
+
+	private final double time;
+	private final Ship first;
+	private final Ship second;
+	private final long firstVersion;
+	private final long secondVersion;
+	private final long sequence;
+
+}
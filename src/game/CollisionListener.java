@@ -0,0 +1,18 @@
+package game;
+
+/**
+ * Interface for objects that want to be notified of collisions processed by a collision scheduler.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public interface CollisionListener {
+
+	/**
+	 * Invoked when both ships of the given event collide. At that moment, every ship of the world has been moved up to the
+	 * time of the event.
+	 * @param event The collision that takes place.
+	 */
+	void collisionOccurred(CollisionEvent event);
+
+}
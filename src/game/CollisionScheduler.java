@@ -0,0 +1,679 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class that advances the ships of a world through time by jumping from one predicted collision to the next, instead of
+ * moving every ship in small fixed steps.
+ * Collisions are only predicted between ships in neighbouring cells of a grid whose cells are wider than any ship. Every
+ * ship also gets a prediction of the moment it crosses into a next cell, at which it is compared with the ships that
+ * become its neighbours. Two ships must be neighbours to touch, so no collision is missed, while a change to a ship only
+ * costs a comparison with the few ships around it, however many ships the world holds.
+ * Ships that are thrusted, turned or otherwise changed get new predictions the next time this scheduler is advanced; their
+ * old predictions stay in the queue and are dropped when they reach its head. If this scheduler makes ships bounce, both
+ * ships of a collision are changed by it, and only they are predicted anew.
+ * Between collisions, ships are only moved when they collide or when this scheduler reaches the end of a step, unless
+ * listeners are registered: those see every ship of the world at the time of the collision.
+ * The scheduler must be the only one that moves the ships of its world, since moving ships behind its back makes its
+ * predictions meaningless. It predicts straight tracks in an infinite plane, so it only handles unbounded worlds.
+ * Every step and every query reports the pairs it predicted, and the collisions it found, to the broad-phase listener of
+ * the world.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class CollisionScheduler {
+
+	/**
+	 * Initialize this new scheduler for the given world, at time zero.
+	 * @param world The world whose ships are advanced by this new scheduler.
+	 * @throws IllegalArgumentException If the given world is a null-pointer or is bounded.
+	 */
+	public CollisionScheduler(World world) throws IllegalArgumentException {
+		if (world == null)
+			throw new IllegalArgumentException("World is not a valid world");
+		if (world.isBounded())
+			throw new IllegalArgumentException("World must be unbounded");
+		this.world = world;
+	}
+
+	/**
+	 * Returns the world whose ships are advanced by this scheduler.
+	 */
+	@Basic @Immutable
+	public World getWorld() {
+		return this.world;
+	}
+
+	private final World world;
+
+	/**
+	 * Returns the current time of this scheduler, being the sum of all durations it has been advanced.
+	 */
+	@Basic
+	public double getTime() {
+		return this.time;
+	}
+
+	private double time;
+
+	/**
+	 * Returns the number of collisions this scheduler has processed so far.
+	 */
+	@Basic
+	public long getNbCollisions() {
+		return this.nbCollisions;
+	}
+
+	private long nbCollisions;
+
+	/**
+	 * Returns the number of pairs of ships for which this scheduler has predicted whether they collide so far.
+	 */
+	@Basic
+	public long getNbPredictions() {
+		return this.nbPredictions;
+	}
+
+	private long nbPredictions;
+
+	/**
+	 * Checks whether the ships of every collision processed by this scheduler bounce off each other.
+	 */
+	@Basic
+	public boolean isBouncing() {
+		return this.bouncing;
+	}
+
+	/**
+	 * Sets whether the ships of every collision processed by this scheduler bounce off each other. If they do not, ships
+	 * pass through each other.
+	 * @param bouncing True if colliding ships must bounce.
+	 * @post The new bouncing state of this scheduler is equal to the given state.
+	 * 		|new.isBouncing() == bouncing
+	 */
+	public void setBouncing(boolean bouncing) {
+		this.bouncing = bouncing;
+	}
+
+	private boolean bouncing;
+
+	/**
+	 * Register the given listener to be notified of every collision this scheduler processes.
+	 * @param listener The listener to be registered.
+	 * @throws IllegalArgumentException If the given listener is a null-pointer.
+	 */
+	public void addCollisionListener(CollisionListener listener) throws IllegalArgumentException {
+		if (listener == null)
+			throw new IllegalArgumentException("Listener is not a valid listener");
+		this.listeners.add(listener);
+	}
+
+	/**
+	 * Unregister the given listener.
+	 * @param listener The listener to be unregistered.
+	 */
+	public void removeCollisionListener(CollisionListener listener) {
+		this.listeners.remove(listener);
+	}
+
+	private final List<CollisionListener> listeners = new ArrayList<CollisionListener>();
+
+	/**
+	 * Returns the first collision that will take place if the ships of the world are not changed anymore.
+	 * Ships that are no neighbours yet are followed through the cells they cross until a predicted collision precedes the
+	 * next crossing, or until no ship that crosses cells can meet another ship anymore, after which those crossings are
+	 * undone again, so this query leaves the grid as it was. A ship can no longer meet the other ships once it lies beyond
+	 * all of them along an axis, and moves away from them at least as fast as any of them; ships that move at the same
+	 * velocity never meet either.
+	 * @return The earliest valid collision, or null if no ships of the world will ever collide.
+	 */
+	public CollisionEvent getNextCollision() {
+		long predictions = this.nbPredictions;
+		refresh();
+		List<Transfer> crossed = new ArrayList<Transfer>();
+		List<Transfer> skipped = new ArrayList<Transfer>();
+		Set<Track> escaped = new HashSet<Track>();
+		long check = 0;
+		CollisionEvent result = null;
+		while (true) {
+			CollisionEvent event = pollStale();
+			Transfer transfer = pollStaleTransfer();
+			if (transfer != null && escaped.contains(transfer.track)) {
+				skipped.add(transfers.poll());
+				continue;
+			}
+			if (transfer == null || (event != null && event.getTime() < transfer.time)) {
+				result = event;
+				break;
+			}
+			if (crossed.size() >= check) {
+				check = crossed.size() + tracks.size();
+				if (escape(transfer.time, escaped))
+					continue;
+			}
+			transfers.poll();
+			transfer(transfer);
+			crossed.add(transfer);
+		}
+		for (int i = crossed.size() - 1; i >= 0; i--)
+			revert(crossed.get(i));
+		for (Transfer transfer : skipped) {
+			if (transfer.track.transfer == transfer)
+				transfers.add(transfer);
+		}
+		world.searched(this.nbPredictions - predictions, result == null ? 0 : 1);
+		return result;
+	}
+
+	/**
+	 * Add the ships that can no longer meet any ship that is not in the given set yet, from the given time on, to the given
+	 * set. A ship can no longer meet another ship that moves at a different velocity if, along either axis, it lies beyond
+	 * that ship and moves away from it at least as fast. Every ship is compared with the extremes of all other ships, so
+	 * ships are added until no more ships can be added.
+	 * @return True if any ship was added to the given set.
+	 */
+	private boolean escape(double time, Set<Track> escaped) {
+		boolean result = false;
+		while (true) {
+			Extremes[] extremes = new Extremes[8];
+			for (int i = 0; i < extremes.length; i++)
+				extremes[i] = new Extremes();
+			for (Track track : tracks.values()) {
+				if (!escaped.contains(track)) {
+					double[] values = bounds(track, time);
+					for (int i = 0; i < extremes.length; i++)
+						extremes[i].add(track, values[i]);
+				}
+			}
+			boolean changed = false;
+			for (Track track : tracks.values()) {
+				if (escaped.contains(track) || track.transfer == null)
+					continue;
+				double[] values = bounds(track, time);
+				for (int axis = 0; axis < 8; axis += 4) {
+					// Beyond the upper edges of all other ships while moving up at least as fast, or likewise downwards.
+					if ((-values[axis] >= extremes[axis + 1].get(track) && values[axis + 2] >= extremes[axis + 2].get(track))
+							|| (-values[axis + 1] >= extremes[axis].get(track)
+									&& values[axis + 3] >= extremes[axis + 3].get(track))) {
+						escaped.add(track);
+						changed = true;
+						break;
+					}
+				}
+			}
+			if (!changed)
+				return result;
+			result = true;
+		}
+	}
+
+	/**
+	 * Returns, for the ship of the given track at the given time, the negated lower and the upper edge along the x-axis,
+	 * followed by its velocity along that axis and its negation, and then the same along the y-axis. The larger each value,
+	 * the further the ship lies or moves towards that side.
+	 */
+	private static double[] bounds(Track track, double time) {
+		Ship ship = track.ship;
+		double x = ship.getX() + (time - track.time) * ship.getXVelocity();
+		double y = ship.getY() + (time - track.time) * ship.getYVelocity();
+		double radius = ship.getRadius();
+		return new double[] { radius - x, x + radius, ship.getXVelocity(), -ship.getXVelocity(), radius - y, y + radius,
+				ship.getYVelocity(), -ship.getYVelocity() };
+	}
+
+	/**
+	 * The largest value of a set of ships, and the largest value of the ships that move at another velocity than the ship
+	 * with the largest value.
+	 */
+	private static class Extremes {
+
+		void add(Track track, double value) {
+			if (value > this.first) {
+				if (this.track != null && !sameVelocity(this.track, track))
+					this.second = this.first;
+				this.first = value;
+				this.track = track;
+			} else if (value > this.second && !sameVelocity(this.track, track)) {
+				this.second = value;
+			}
+		}
+
+		/**
+		 * Returns the largest value of the ships that move at another velocity than the given one.
+		 */
+		double get(Track track) {
+			return this.track == null || !sameVelocity(this.track, track) ? this.first : this.second;
+		}
+
+		private static boolean sameVelocity(Track track, Track other) {
+			return track.ship.getXVelocity() == other.ship.getXVelocity()
+					&& track.ship.getYVelocity() == other.ship.getYVelocity();
+		}
+
+		private double first = Double.NEGATIVE_INFINITY, second = Double.NEGATIVE_INFINITY;
+		private Track track;
+
+	}
+
+	/**
+	 * Advance all ships of the world by the given duration, processing every predicted collision on the way in order of
+	 * time.
+	 * @param duration The time span over which the ships are advanced.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 * @post The time of this scheduler is increased by the given duration.
+	 * 		|new.getTime() == getTime() + duration
+	 */
+	public void advance(double duration) throws NegativeTimeException {
+		if (!(duration >= 0))
+			throw new NegativeTimeException(duration);
+		long predictions = this.nbPredictions, collisions = this.nbCollisions;
+		refresh();
+		double target = this.time + duration;
+		while (true) {
+			CollisionEvent event = pollStale();
+			Transfer transfer = pollStaleTransfer();
+			if (transfer != null && transfer.time <= target && (event == null || transfer.time <= event.getTime())) {
+				transfers.poll();
+				transfer(transfer);
+				continue;
+			}
+			if (event == null || event.getTime() > target)
+				break;
+			poll();
+			this.time = event.getTime();
+			nbCollisions++;
+			collide(event);
+		}
+		moveAll(target);
+		this.time = target;
+		world.searched(this.nbPredictions - predictions, this.nbCollisions - collisions);
+	}
+
+	/**
+	 * Bring both ships of the given event up to its time, let them bounce if this scheduler makes ships bounce, and notify
+	 * the listeners.
+	 */
+	private void collide(CollisionEvent event) {
+		Track first = tracks.get(event.getFirstShip());
+		Track second = tracks.get(event.getSecondShip());
+		move(first, this.time);
+		move(second, this.time);
+		if (bouncing)
+			first.ship.bounce(second.ship);
+		if (listeners.isEmpty()) {
+			if (bouncing)
+				predict(Arrays.asList(first, second));
+			return;
+		}
+		moveAll(this.time);
+		for (CollisionListener listener : listeners)
+			listener.collisionOccurred(event);
+		// Listeners may have changed ships.
+		refresh();
+	}
+
+	/**
+	 * Move the ship of the given track up to the given time.
+	 */
+	private void move(Track track, double time) {
+		if (time != track.time) {
+			track.ship.move(time - track.time);
+			track.time = time;
+		}
+	}
+
+	/**
+	 * Move every ship of the world up to the given time.
+	 */
+	private void moveAll(double time) {
+		for (Track track : tracks.values())
+			move(track, time);
+	}
+
+	/**
+	 * Remove outdated events from the head of the queue.
+	 * @return The event at the head of the queue, or null if the queue is empty.
+	 */
+	private CollisionEvent pollStale() {
+		CollisionEvent event = events.peek();
+		while (event != null && !(event.isValid() && world.hasShip(event.getFirstShip())
+				&& world.hasShip(event.getSecondShip()))) {
+			poll();
+			event = events.peek();
+		}
+		return event;
+	}
+
+	/**
+	 * Remove the event at the head of the queue.
+	 */
+	private void poll() {
+		CollisionEvent event = events.poll();
+		Long key = pairKey(tracks.get(event.getFirstShip()), tracks.get(event.getSecondShip()));
+		if (key != null && pending.get(key) == event)
+			pending.remove(key);
+	}
+
+	/**
+	 * Remove outdated crossings from the head of the queue of crossings.
+	 * @return The crossing at the head of the queue, or null if the queue is empty.
+	 */
+	private Transfer pollStaleTransfer() {
+		Transfer transfer = transfers.peek();
+		while (transfer != null && transfer.track.transfer != transfer) {
+			transfers.poll();
+			transfer = transfers.peek();
+		}
+		return transfer;
+	}
+
+	/**
+	 * Move the ship of the given crossing into its next cell, and predict its collisions with the ships that become its
+	 * neighbours.
+	 */
+	private void transfer(Transfer transfer) {
+		Track track = transfer.track;
+		track.transfer = null;
+		track.cell.remove(track);
+		if (transfer.alongX) {
+			track.cx += transfer.step;
+			for (int dy = -1; dy <= 1; dy++)
+				predict(track, track.cx + transfer.step, track.cy + dy, transfer.time);
+		} else {
+			track.cy += transfer.step;
+			for (int dx = -1; dx <= 1; dx++)
+				predict(track, track.cx + dx, track.cy + transfer.step, transfer.time);
+		}
+		track.cell = getOrCreateCell(track.cx, track.cy);
+		track.cell.add(track);
+		schedule(track);
+	}
+
+	/**
+	 * Move the ship of the given crossing back into the cell it came from, and schedule that crossing again. The crossing
+	 * must be the last one that was processed for its ship. The collisions that were predicted on the way remain valid, and
+	 * stay in the queue.
+	 */
+	private void revert(Transfer transfer) {
+		Track track = transfer.track;
+		track.cell.remove(track);
+		if (transfer.alongX)
+			track.cx -= transfer.step;
+		else
+			track.cy -= transfer.step;
+		track.cell = getOrCreateCell(track.cx, track.cy);
+		track.cell.add(track);
+		track.transfer = transfer;
+		transfers.add(transfer);
+	}
+
+	/**
+	 * Predict new collisions for all ships that were added to the world or changed since they were last predicted, and
+	 * forget the ships that were removed from it.
+	 */
+	private void refresh() {
+		Set<Ship> ships = world.getShips();
+		List<Track> changed = new ArrayList<Track>();
+		boolean grow = false;
+		for (Ship ship : ships) {
+			Track track = tracks.get(ship);
+			if (track == null) {
+				track = new Track(ship, nextId++, this.time);
+				tracks.put(ship, track);
+				grow |= 2 * ship.getRadius() >= cellSize;
+			}
+			if (track.version != ship.getVersion())
+				changed.add(track);
+		}
+		if (tracks.size() > ships.size()) {
+			for (Iterator<Track> iterator = tracks.values().iterator(); iterator.hasNext();) {
+				Track track = iterator.next();
+				if (!world.hasShip(track.ship)) {
+					if (track.cell != null)
+						track.cell.remove(track);
+					track.transfer = null;
+					iterator.remove();
+				}
+			}
+			for (Iterator<CollisionEvent> iterator = pending.values().iterator(); iterator.hasNext();) {
+				CollisionEvent event = iterator.next();
+				if (!tracks.containsKey(event.getFirstShip()) || !tracks.containsKey(event.getSecondShip()))
+					iterator.remove();
+			}
+		}
+		if (changed.isEmpty())
+			return;
+		if (grow)
+			rebuild();
+		else
+			predict(changed);
+	}
+
+	/**
+	 * Forget all predictions, and predict all collisions anew in a grid with cells that are wider than any ship.
+	 */
+	private void rebuild() {
+		double maxradius = 0;
+		for (Track track : tracks.values())
+			maxradius = Math.max(maxradius, track.ship.getRadius());
+		// A margin keeps rounding errors at the borders of cells from hiding a collision.
+		cellSize = 2 * maxradius * (1 + CELL_MARGIN);
+		cells.clear();
+		events.clear();
+		transfers.clear();
+		pending.clear();
+		for (Track track : tracks.values()) {
+			track.cell = null;
+			track.transfer = null;
+		}
+		predict(new ArrayList<Track>(tracks.values()));
+	}
+
+	/**
+	 * Predict the collisions of the ships of the given tracks with their neighbours, and the moment they cross into a next
+	 * cell. The ships must have been moved up to the current time of this scheduler.
+	 */
+	private void predict(List<Track> changed) {
+		// Pairs of two changed ships must only be predicted once: a ship only enters its cell once it has been predicted.
+		for (Track track : changed) {
+			if (track.cell != null) {
+				track.cell.remove(track);
+				track.cell = null;
+			}
+		}
+		for (Track track : changed) {
+			track.version = track.ship.getVersion();
+			track.cx = cellIndex(track.ship.getX());
+			track.cy = cellIndex(track.ship.getY());
+			for (int dx = -1; dx <= 1; dx++)
+				for (int dy = -1; dy <= 1; dy++)
+					predict(track, track.cx + dx, track.cy + dy, this.time);
+			track.cell = getOrCreateCell(track.cx, track.cy);
+			track.cell.add(track);
+			schedule(track);
+		}
+	}
+
+	/**
+	 * Predict the collisions of the ship of the given track with every ship in the given cell, at the given time.
+	 */
+	private void predict(Track track, int cx, int cy, double time) {
+		List<Track> cell = cells.get(cellKey(cx, cy));
+		if (cell != null) {
+			for (Track other : cell)
+				predict(track, other, time);
+		}
+	}
+
+	/**
+	 * Schedule the collision of the ships of both tracks, if they will ever collide and that collision has not been
+	 * scheduled yet.
+	 * @param time The time at which the prediction is made. Neither ship may have been moved beyond it.
+	 * @return The scheduled collision, or null if none was scheduled.
+	 */
+	private CollisionEvent predict(Track track, Track other, double time) {
+		Long key = pairKey(track, other);
+		CollisionEvent scheduled = pending.get(key);
+		if (scheduled != null && scheduled.isValid())
+			return null;
+		nbPredictions++;
+		Ship ship = track.ship, ship2 = other.ship;
+		double dt = Ship.getTimeToCollision(
+				ship.getX() + (time - track.time) * ship.getXVelocity()
+						- (ship2.getX() + (time - other.time) * ship2.getXVelocity()),
+				ship.getY() + (time - track.time) * ship.getYVelocity()
+						- (ship2.getY() + (time - other.time) * ship2.getYVelocity()),
+				ship.getXVelocity() - ship2.getXVelocity(), ship.getYVelocity() - ship2.getYVelocity(),
+				ship.getRadius() + ship2.getRadius());
+		if (!(dt >= 0 && dt != Double.POSITIVE_INFINITY))
+			return null;
+		CollisionEvent event = new CollisionEvent(time + dt, ship, ship2, sequence++);
+		events.add(event);
+		pending.put(key, event);
+		return event;
+	}
+
+	/**
+	 * Schedule the moment at which the ship of the given track crosses into a next cell, if it ever does.
+	 */
+	private void schedule(Track track) {
+		Ship ship = track.ship;
+		double xtime = crossing(ship.getX(), ship.getXVelocity(), track.cx);
+		double ytime = crossing(ship.getY(), ship.getYVelocity(), track.cy);
+		double dt = Math.min(xtime, ytime);
+		if (dt == Double.POSITIVE_INFINITY) {
+			track.transfer = null;
+			return;
+		}
+		boolean alongX = xtime <= ytime;
+		double velocity = alongX ? ship.getXVelocity() : ship.getYVelocity();
+		track.transfer = new Transfer(track, track.time + dt, alongX, velocity > 0 ? 1 : -1, sequence++);
+		transfers.add(track.transfer);
+	}
+
+	/**
+	 * Returns the time after which a coordinate moving at the given velocity leaves the cell with the given index along its
+	 * axis.
+	 */
+	private double crossing(double coordinate, double velocity, int index) {
+		if (velocity > 0)
+			return Math.max(0, ((index + 1) * cellSize - coordinate) / velocity);
+		if (velocity < 0)
+			return Math.max(0, (index * cellSize - coordinate) / velocity);
+		return Double.POSITIVE_INFINITY;
+	}
+
+	private int cellIndex(double coordinate) {
+		return (int) Math.floor(coordinate / cellSize);
+	}
+
+	private static long cellKey(int cx, int cy) {
+		return scramble(((long) cx << 32) | (cy & 0xffffffffL));
+	}
+
+	/**
+	 * Returns a different key for every given key. A long made of two ints hashes to the exclusive or of both ints, so keys
+	 * of neighbouring cells or of pairs of tracks would otherwise share their hashes.
+	 */
+	private static long scramble(long key) {
+		return key * 0x9E3779B97F4A7C15L;
+	}
+
+	private List<Track> getOrCreateCell(int cx, int cy) {
+		long key = cellKey(cx, cy);
+		List<Track> cell = cells.get(key);
+		if (cell == null) {
+			cell = new ArrayList<Track>(4);
+			cells.put(key, cell);
+		}
+		return cell;
+	}
+
+	/**
+	 * Returns a key that is the same for both orders of the given tracks, or null if either track is missing.
+	 */
+	private static Long pairKey(Track track, Track other) {
+		if (track == null || other == null)
+			return null;
+		int low = Math.min(track.id, other.id), high = Math.max(track.id, other.id);
+		return scramble(((long) low << 32) | (high & 0xffffffffL));
+	}
+
+	private static final double CELL_MARGIN = 1E-6;
+
+	private final PriorityQueue<CollisionEvent> events = new PriorityQueue<CollisionEvent>();
+	private final PriorityQueue<Transfer> transfers = new PriorityQueue<Transfer>();
+	private final Map<Long, CollisionEvent> pending = new HashMap<Long, CollisionEvent>();
+	private final Map<Ship, Track> tracks = new IdentityHashMap<Ship, Track>();
+	private final Map<Long, List<Track>> cells = new HashMap<Long, List<Track>>();
+	private double cellSize;
+	private int nextId;
+	private long sequence;
+
+	/**
+	 * The bookkeeping of this scheduler for a single ship: the time up to which it has been moved, the version at which it
+	 * was last predicted and the cell it is in.
+	 */
+	private static class Track {
+
+		Track(Ship ship, int id, double time) {
+			this.ship = ship;
+			this.id = id;
+			this.time = time;
+			this.version = ship.getVersion() - 1;
+		}
+
+		final Ship ship;
+		final int id;
+		double time;
+		long version;
+		int cx, cy;
+		List<Track> cell;
+		Transfer transfer;
+
+	}
+
+	/**
+	 * The predicted moment at which a ship crosses into a neighbouring cell. Only the last crossing scheduled for a ship is
+	 * valid.
+	 */
+	private static class Transfer implements Comparable<Transfer> {
+
+		Transfer(Track track, double time, boolean alongX, int step, long sequence) {
+			this.track = track;
+			this.time = time;
+			this.alongX = alongX;
+			this.step = step;
+			this.sequence = sequence;
+		}
+
+		@Override
+		public int compareTo(Transfer other) {
+			int result = Double.compare(this.time, other.time);
+			if (result != 0)
+				return result;
+			return this.sequence < other.sequence ? -1 : (this.sequence == other.sequence ? 0 : 1);
+		}
+
+		final Track track;
+		final double time;
+		final boolean alongX;
+		final int step;
+		final long sequence;
+
+	}
+
+}
@@ -1,11 +1,53 @@
 package game;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
 import asteroids.IFacade;
 import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.ModelException;
 
 
 public class Facade implements IFacade {
 
+	/**
+	 * Initialize this new facade, creating unbounded worlds.
+	 */
+	public Facade() {
+		this(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Boundary.UNBOUNDED);
+	}
+
+	/**
+	 * Initialize this new facade, creating worlds with the given size and boundary.
+	 * @param width The width of the worlds created by this new facade.
+	 * @param height The height of the worlds created by this new facade.
+	 * @param boundary The boundary of the worlds created by this new facade.
+	 * @throws IllegalArgumentException If no world can have the given size and boundary.
+	 */
+	public Facade(double width, double height, Boundary boundary) throws IllegalArgumentException {
+		new World(width, height, boundary);
+		this.width = width;
+		this.height = height;
+		this.boundary = boundary;
+	}
+
+	private final double width;
+	private final double height;
+	private final Boundary boundary;
+
+	/**
+	 * Returns the cache through which this facade answers queries about collisions between ships.
+	 */
+	public TimeOfImpactCache getTimeOfImpactCache() {
+		return this.cache;
+	}
+
+	private final TimeOfImpactCache cache = new TimeOfImpactCache();
+
 	@Override
 	public IShip createShip() {
 		return new Ship(0, 0, 0, 0, 10);
@@ -14,8 +56,12 @@ public class Facade implements IFacade {
 	@Override
 	public IShip createShip(double x, double y, double xVelocity,
 			double yVelocity, double radius, double angle) {
-		double velocity = Math.sqrt(Math.pow(xVelocity, 2) + Math.pow(yVelocity, 2));
-		return new Ship(x, y, angle, velocity, radius);
+		if (Double.isNaN(x) || Double.isNaN(y) || Double.isNaN(xVelocity) || Double.isNaN(yVelocity)
+				|| Double.isNaN(angle))
+			throw new ModelException("Position, velocity and angle must be numbers");
+		if (!(radius >= 0))
+			throw new ModelException("Radius must not be negative");
+		return new Ship(x, y, xVelocity, yVelocity, radius, angle);
 	}
 
 	@Override
@@ -83,16 +129,183 @@ public class Facade implements IFacade {
 
 	@Override
 	public double getTimeToCollision(IShip ship1, IShip ship2) {
-		return ((Ship) ship1).getTimeToCollision((Ship)ship2);
+		return cache.getTimeToCollision((Ship) ship1, (Ship) ship2);
 	}
 
 	@Override
 	public double[] getCollisionPosition(IShip ship1, IShip ship2) {
 		double positiontoarray[] = new double[2];
-		Position position = ((Ship) ship1).getCollisionPosition((Ship)ship2);
-		positiontoarray[0] = position.getX();
-		positiontoarray[1] = position.getY();
+		if (!cache.getCollisionPosition((Ship) ship1, (Ship) ship2, positiontoarray, 0))
+			return null;
 		return positiontoarray;
 	}
 
+	@Override
+	public IWorld createWorld() {
+		return new World(this.width, this.height, this.boundary);
+	}
+
+	@Override
+	public void addShip(IWorld world, IShip ship) {
+		try {
+			((World) world).addShip((Ship) ship);
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void removeShip(IWorld world, IShip ship) {
+		((World) world).removeShip((Ship) ship);
+	}
+
+	@Override
+	public Set<IShip> getShips(IWorld world) {
+		return Collections.<IShip>unmodifiableSet(((World) world).getShips());
+	}
+
+	@Override
+	public List<IShip[]> getOverlappingPairs(IWorld world) {
+		return new ArrayList<IShip[]>(((World) world).getOverlappingPairs());
+	}
+
+	@Override
+	public List<IShip> getShipsNear(IWorld world, IShip ship, double range) {
+		try {
+			return new ArrayList<IShip>(((World) world).getShipsNear((Ship) ship, range));
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void moveAll(Collection<IShip> ships, double dt) {
+		if (dt < 0)
+			throw new ModelException(new NegativeTimeException(dt));
+		for (IShip ship : ships)
+			((Ship) ship).move(dt);
+	}
+
+	@Override
+	public void thrustAll(Collection<IShip> ships, double amount) {
+		for (IShip ship : ships)
+			((Ship) ship).thrust(amount);
+	}
+
+	@Override
+	public void getPositions(IShip[] ships, double[] out) {
+		checkOutput(ships.length, out);
+		for (int i = 0; i < ships.length; i++) {
+			Ship ship = (Ship) ships[i];
+			out[2 * i] = ship.getX();
+			out[2 * i + 1] = ship.getY();
+		}
+	}
+
+	@Override
+	public void getVelocities(IShip[] ships, double[] out) {
+		checkOutput(ships.length, out);
+		for (int i = 0; i < ships.length; i++) {
+			Ship ship = (Ship) ships[i];
+			out[2 * i] = ship.getXVelocity();
+			out[2 * i + 1] = ship.getYVelocity();
+		}
+	}
+
+	@Override
+	public int getTimesToCollision(IShip ship, IShip[] others, double[] out) {
+		if (out == null || out.length < others.length)
+			throw new ModelException("Output array must hold a value per ship");
+		Ship first = (Ship) ship;
+		try {
+			for (int i = 0; i < others.length; i++)
+				out[i] = cache.getTimeToCollision(first, (Ship) others[i]);
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+		return Ship.indexOfEarliest(out, others.length);
+	}
+
+	@Override
+	public int getCollisionPositions(IShip ship, IShip[] others, double[] out) {
+		checkOutput(others.length, out);
+		Ship first = (Ship) ship;
+		int count = 0;
+		for (int i = 0; i < others.length; i++) {
+			if (cache.getCollisionPosition(first, (Ship) others[i], out, 2 * i)) {
+				count++;
+			} else {
+				out[2 * i] = Double.NaN;
+				out[2 * i + 1] = Double.NaN;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getCollisionPositions(IShip ship, IShip[] others, double[] times, double[] out) {
+		checkOutput(others.length, out);
+		if (times == null || times.length < others.length)
+			throw new ModelException("Times must hold a value per ship");
+		Ship first = (Ship) ship;
+		int count = 0;
+		try {
+			for (int i = 0; i < others.length; i++) {
+				if (first.getCollisionPosition((Ship) others[i], times[i], out, 2 * i)) {
+					count++;
+				} else {
+					out[2 * i] = Double.NaN;
+					out[2 * i + 1] = Double.NaN;
+				}
+			}
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+		return count;
+	}
+
+	/**
+	 * Check whether the given array can hold two coordinates for each of the given number of ships.
+	 */
+	static void checkOutput(int nbShips, double[] out) throws ModelException {
+		if (out == null || out.length < 2 * nbShips)
+			throw new ModelException("Output array must hold two values per ship");
+	}
+
+	@Override
+	public boolean findCollisionPosition(IShip ship1, IShip ship2, double[] out) {
+		try {
+			return cache.getCollisionPosition((Ship) ship1, (Ship) ship2, out, 0);
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public double getTimeOfImpact(IShip ship1, IShip ship2, double dt) {
+		try {
+			return ((Ship) ship1).getTimeOfImpact((Ship) ship2, dt);
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		} catch (NegativeTimeException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public List<IShip[]> getImpactingPairs(IWorld world, double dt) {
+		try {
+			List<IShip[]> result = new ArrayList<IShip[]>();
+			for (Impact impact : ((World) world).getImpacts(dt))
+				result.add(new IShip[] { impact.getFirstShip(), impact.getSecondShip() });
+			return result;
+		} catch (NegativeTimeException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void nextTick() {
+	}
+
 }
@@ -0,0 +1,85 @@
+package game;
+
+import java.util.List;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of impacts between two ships, found when looking ahead over a time step.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class Impact implements Comparable<Impact> {
+
+	/**
+	 * Initialize this new impact between the given ships after the given time.
+	 * @param first The first ship of this new impact.
+	 * @param second The second ship of this new impact.
+	 * @param time The time, measured from the start of the time step, after which both ships touch.
+	 */
+	Impact(Ship first, Ship second, double time) {
+		this.first = first;
+		this.second = second;
+		this.time = time;
+	}
+
+	/**
+	 * Returns the first ship of this impact.
+	 */
+	@Basic @Immutable
+	public Ship getFirstShip() {
+		return this.first;
+	}
+
+	/**
+	 * Returns the second ship of this impact.
+	 */
+	@Basic @Immutable
+	public Ship getSecondShip() {
+		return this.second;
+	}
+
+	/**
+	 * Returns the time, measured from the start of the time step, after which both ships of this impact touch.
+	 */
+	@Basic @Immutable
+	public double getTime() {
+		return this.time;
+	}
+
+	/**
+	 * Impacts are ordered by time.
+	 */
+	@Override
+	public int compareTo(Impact other) {
+		return Double.compare(this.time, other.time);
+	}
+
+	/**
+	 * Stores the position where the ships of each of the given impacts touch, reusing the time of every impact, in a single
+	 * pass over the impacts. The ships must not have been moved since the impacts were found.
+	 * @param impacts The impacts to calculate collision points for.
+	 * @param out The array in which the x and y coordinate of the point where the ships of the impact at index i touch are
+	 * stored at index 2 * i and 2 * i + 1, computed as by getFirstShip().getCollisionPosition.
+	 * @throws IllegalArgumentException If the given list is a null-pointer, or if the given array cannot hold two coordinates
+	 * per impact.
+	 */
+	public static void getCollisionPositions(List<Impact> impacts, double[] out) throws IllegalArgumentException {
+		if (impacts == null)
+			throw new IllegalArgumentException("Impacts are not valid impacts");
+		if (out == null || out.length < 2 * impacts.size())
+			throw new IllegalArgumentException("Output array must hold two values per impact");
+		int i = 0;
+		for (Impact impact : impacts) {
+			impact.first.getCollisionPosition(impact.second, impact.time, out, i);
+			i += 2;
+		}
+	}
+
+	private final Ship first;
+	private final Ship second;
+	private final double time;
+
+}
@@ -0,0 +1,31 @@
+package game;
+
+/**
+ * Interface for numerical schemes that move a ship over a time step, applying its velocity and its acceleration.
+ * A stepper uses one integrator for all of its ships, so the accuracy and the size of the steps of a simulation can be
+ * chosen together.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public interface Integrator {
+
+	/**
+	 * Move the given ship over the given duration, and change its velocity by its acceleration over that duration.
+	 * @param ship The ship to be moved.
+	 * @param duration The time span over which the ship is moved.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	void step(Ship ship, double duration) throws NegativeTimeException;
+
+	/**
+	 * Returns the largest duration of a step for which the position of a ship with the given acceleration deviates at most
+	 * the given tolerance from its exact position after that step.
+	 * @param acceleration The acceleration of the ship, in km/s².
+	 * @param tolerance The largest allowed deviation of the position, in km.
+	 * @return The largest duration of a step, which is positive infinity if this integrator is exact for the given
+	 * acceleration.
+	 */
+	double getMaxStep(double acceleration, double tolerance);
+
+}
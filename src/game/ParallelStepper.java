@@ -0,0 +1,207 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class that steps the ships of a world on several threads at once, without any user interface.
+ * Every step moves all ships in parallel, and then looks for overlapping ships in parallel by dividing the cells of a grid
+ * among the threads. The results are the same as those of moving every ship and calling World.getOverlappingPairs on a
+ * single thread, in the same order.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class ParallelStepper {
+
+	/**
+	 * Initialize this new stepper for the given world, using one thread for every available processor.
+	 * @param world The world whose ships are stepped.
+	 * @throws IllegalArgumentException If the given world is a null-pointer.
+	 */
+	public ParallelStepper(World world) throws IllegalArgumentException {
+		this(world, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Initialize this new stepper for the given world, using the given number of threads.
+	 * @param world The world whose ships are stepped.
+	 * @param parallelism The number of threads used by this new stepper.
+	 * @throws IllegalArgumentException If the given world is a null-pointer, or if the given parallelism is not positive.
+	 */
+	public ParallelStepper(World world, int parallelism) throws IllegalArgumentException {
+		if (world == null)
+			throw new IllegalArgumentException("World is not a valid world");
+		if (parallelism < 1)
+			throw new IllegalArgumentException("Parallelism must be positive");
+		this.world = world;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Returns the world whose ships are stepped by this stepper.
+	 */
+	@Basic @Immutable
+	public World getWorld() {
+		return this.world;
+	}
+
+	private final World world;
+
+	/**
+	 * Returns the number of threads used by this stepper.
+	 */
+	public int getParallelism() {
+		return this.pool.getParallelism();
+	}
+
+	private final ForkJoinPool pool;
+
+	/**
+	 * Returns the integrator with which this stepper moves the ships.
+	 */
+	@Basic
+	public Integrator getIntegrator() {
+		return this.integrator;
+	}
+
+	/**
+	 * Sets the integrator with which this stepper moves the ships.
+	 * @param integrator The new integrator of this stepper.
+	 * @throws IllegalArgumentException If the given integrator is a null-pointer.
+	 * @post The integrator of this stepper is equal to the given integrator.
+	 * 		|new.getIntegrator() == integrator
+	 */
+	public void setIntegrator(Integrator integrator) throws IllegalArgumentException {
+		if (integrator == null)
+			throw new IllegalArgumentException("Integrator is not a valid integrator");
+		this.integrator = integrator;
+	}
+
+	private Integrator integrator = StandardIntegrator.EULER;
+
+	/**
+	 * Returns the largest duration of a step for which the integrator of this stepper keeps every ship of the world within
+	 * the given tolerance of its exact position after that step.
+	 * @param tolerance The largest allowed deviation of the position of a ship, in km.
+	 * @return The largest step allowed by the integrator of this stepper for the largest acceleration of the ships.
+	 */
+	public double getMaxStep(double tolerance) {
+		double acceleration = 0;
+		for (Ship ship : world.getShips())
+			acceleration = Math.max(acceleration, ship.getAcceleration());
+		return integrator.getMaxStep(acceleration, tolerance);
+	}
+
+	/**
+	 * Move every ship of the world over the given duration with the integrator of this stepper, and return the pairs of
+	 * ships that overlap afterwards. The pairs that were tested for overlap are reported to the broad-phase listener of the
+	 * world.
+	 * @param duration The time span over which the ships are moved.
+	 * @return A list of arrays of length 2, each holding two ships of the world that overlap after the step.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	public List<Ship[]> step(double duration) throws NegativeTimeException {
+		if (duration < 0)
+			throw new NegativeTimeException(duration);
+		Ship[] ships = world.getShips().toArray(new Ship[world.getNbShips()]);
+		pool.invoke(new MoveTask(ships, 0, ships.length, duration, integrator));
+		SpatialGrid grid = world.buildGrid();
+		PairTask pairs = new PairTask(grid, 0, grid.getCells().size());
+		List<Ship[]> result = pool.invoke(pairs);
+		long candidates = pairs.candidates + grid.collectOversizedOverlappingPairs(result);
+		world.searched(candidates, result.size());
+		return result;
+	}
+
+	/**
+	 * Stop the threads of this stepper. This stepper cannot be used anymore afterwards.
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	private static final int MOVE_THRESHOLD = 4096;
+	private static final int CELL_THRESHOLD = 256;
+
+	/**
+	 * A task moving the ships in a range of an array.
+	 */
+	@SuppressWarnings("serial")
+	private static class MoveTask extends RecursiveAction {
+
+		MoveTask(Ship[] ships, int from, int to, double duration, Integrator integrator) {
+			this.ships = ships;
+			this.from = from;
+			this.to = to;
+			this.duration = duration;
+			this.integrator = integrator;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= MOVE_THRESHOLD) {
+				for (int i = from; i < to; i++)
+					integrator.step(ships[i], duration);
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new MoveTask(ships, from, middle, duration, integrator),
+						new MoveTask(ships, middle, to, duration, integrator));
+			}
+		}
+
+		private final Ship[] ships;
+		private final int from;
+		private final int to;
+		private final double duration;
+		private final Integrator integrator;
+	}
+
+	/**
+	 * A task collecting the overlapping pairs reported by a range of cells of a grid, in the order of the cells.
+	 */
+	@SuppressWarnings("serial")
+	private static class PairTask extends RecursiveTask<List<Ship[]>> {
+
+		PairTask(SpatialGrid grid, int from, int to) {
+			this.grid = grid;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected List<Ship[]> compute() {
+			if (to - from <= CELL_THRESHOLD) {
+				List<Ship[]> result = new ArrayList<Ship[]>();
+				List<SpatialGrid.Cell> cells = grid.getCells();
+				for (int i = from; i < to; i++)
+					candidates += grid.collectOverlappingPairs(cells.get(i), result);
+				return result;
+			}
+			int middle = (from + to) >>> 1;
+			PairTask first = new PairTask(grid, from, middle);
+			PairTask second = new PairTask(grid, middle, to);
+			second.fork();
+			List<Ship[]> result = first.compute();
+			result.addAll(second.join());
+			candidates = first.candidates + second.candidates;
+			return result;
+		}
+
+		private final SpatialGrid grid;
+		private final int from;
+		private final int to;
+
+		/**
+		 * The number of pairs that were tested for overlap by this task, once it has completed.
+		 */
+		long candidates;
+	}
+
+}
@@ -15,8 +15,9 @@ import asteroids.IShip;
  */
 public class Ship implements IShip {
 
-	private final double MINRADIUS = 10; // km
-	private final double LIGHTSPEED = 299800; // km/s
+	static final double MINRADIUS = 10; // km
+	static final double LIGHTSPEED = 299800; // km/s
+	static final double DENSITY = 1.42E12; // kg/km³
 	
 	/**
 	 * Initialize this new ship with an x and y coordinate, a direction and velocity, and a radius.
@@ -26,6 +27,7 @@ public class Ship implements IShip {
 	 * @param velocity The velocity for this new ship, expressed in km/s.
 	 * @param radius The radius for this new ship.
 	 * @post A new ship is created with a valid x and y coordinate, a valid direction, a valid velocity, and a valid radius.
+	 * The velocity of the new ship points in its direction. An invalid velocity is replaced by zero.
 	 * 			|new.getX() == x
 	 * 			|new.getY() == y
 	 * 			|new.getDirection == direction
@@ -33,11 +35,29 @@ public class Ship implements IShip {
 	 * 			|new.getRadius == radius
 	 */
 	public Ship(double x, double y, double direction, double velocity, double radius) {
-		this.setPosition(x, y);
+		this(x, y, 0, 0, radius, direction);
+		if (isValidVelocity(velocity))
+			this.setVelocityComponents(velocity * Math.cos(direction), velocity * Math.sin(direction));
+	}
+
+	/**
+	 * Initialize this new ship with an x and y coordinate, the components of its velocity, a radius and a direction.
+	 * @param x The x coordinate for this new ship.
+	 * @param y The y coordinate for this new ship.
+	 * @param xVelocity The velocity of this new ship along the x axis, expressed in km/s.
+	 * @param yVelocity The velocity of this new ship along the y axis, expressed in km/s.
+	 * @param radius The radius for this new ship.
+	 * @param direction The direction this new ship is facing, expressed as its angle in radians.
+	 * @post The velocity of this new ship has the given components, scaled down if they would exceed the speed of light. Its
+	 * velocity does not have to point in its direction.
+	 * 			|new.getXVelocity() == xVelocity
+	 * 			|new.getYVelocity() == yVelocity
+	 */
+	public Ship(double x, double y, double xVelocity, double yVelocity, double radius, double direction) {
 		this.setX(x);
 		this.setY(y);
-		this.setDirection(direction);
-		this.velocity = velocity;
+		this.direction = direction;
+		this.setVelocityComponents(xVelocity, yVelocity);
 		if (radius > MINRADIUS) {
 			this.radius = radius;
 		} else {
@@ -45,30 +65,16 @@ public class Ship implements IShip {
 		}
 	}
 	
-	/**
-	 * Set the new position of this ship.
-	 * @param x The x coordinate of this new position.
-	 * @param y The y coordinate of this new position.
-	 * @post A new position is created with the given x and y coordinates.
-	 * 		|new.getPosition() == new Position(x,y) 
-	 */
-	private void setPosition(double x, double y) {
-		this.position = new Position(x,y);
-		
-	}
-
 	/**
 	 * Returns the x coordinate of this ship.
 	 * @return The x coordinate of this ship.
-	 * | result = position.getX()
 	 */
 	@Basic @Raw 
 	public double getX() {
-		return this.position.getX();
+		return this.x;
 	}
 	/**
-	 * Sets the x coordinate of this ship to the given value. Also updates the position of this ship to give clients the flexibility
-	 * of using either the position or x/y coordinates separately.
+	 * Sets the x coordinate of this ship to the given value.
 	 * @param x New x coordinate of this ship.
 	 * @post The x coordinate of this ship is equal to the given value.
 	 * 		|new.getX() == x
@@ -76,39 +82,38 @@ public class Ship implements IShip {
 	@Raw
 	public void setX(double x) {
 		this.x = x;
-		this.position.setX(x);
+		this.changed();
 	}
 	
 	
 	/**
 	 * Returns the y coordinate of this ship.
 	 * @return The x coordinate of this ship.
-	 * | Result = position.getY()
 	 */
 	@Basic 
 	public double getY() {
-		return this.position.getY();
+		return this.y;
 	}
 	/**
-	 * Sets the y coordinate of this ship, and of the position of this ship, to the given value.
+	 * Sets the y coordinate of this ship to the given value.
 	 * @param y The y coordinate of this ship.
 	 * @post The y coordinate of this ship is equal to the given value.
 	 * 		|new.getY() == y
 	 */
 	public void setY(double y) {
 		this.y = y;
-		this.position.setY(y);
+		this.changed();
 	}
 	private double x;
 	private double y;
-	private Position position;
 	
 	/**
 	 * Moves the ship based on its current position, velocity and a given duration.
 	 * @param duration Time span over which the ship will move, used to calculate the new position of the ship.
 	 * @throws NegativeTimeException If the given time duration is smaller than zero.
 	 * @post The position of this ship is equal to the position consisting of the new x and y coordinates that are calculated, based
-	 * on the current position and velocities in their respective axis.
+	 * on the current position and velocities in their respective axis. In a bounded world, that position is confined to the
+	 * world, and the velocity of a ship that bounced off an edge is reversed along the axis of that edge.
 	 * 		|new.getX() == x
 	 * 		|new.getY() == y
 	 */
@@ -117,9 +122,76 @@ public class Ship implements IShip {
 			throw new NegativeTimeException(duration);
 		double newx = this.getX() + duration * this.getXVelocity();
 		double newy = this.getY() + duration * this.getYVelocity();
-		this.setX(newx);
-		this.setY(newy);
+		this.x = newx;
+		this.y = newy;
+		this.time += duration;
+		if (this.confine())
+			this.changed();
+		else if (this.publishing)
+			this.publish();
 	}
+
+	/**
+	 * Moves this ship within the edges of its world, if it belongs to a bounded world, as if it had moved there in a straight
+	 * line from its previous position. Wrapping around does not change the track of a ship, so it does not count as a change.
+	 * @return True if the velocity of this ship was reversed by bouncing off an edge.
+	 */
+	private boolean confine() {
+		World world = this.world;
+		if (world == null || !world.isBounded())
+			return false;
+		boolean reversex = world.reversesX(this.x, this.radius);
+		boolean reversey = world.reversesY(this.y, this.radius);
+		this.x = world.confineX(this.x, this.radius);
+		this.y = world.confineY(this.y, this.radius);
+		if (!reversex && !reversey)
+			return false;
+		this.setVelocityComponents(reversex ? -this.xVelocity : this.xVelocity,
+				reversey ? -this.yVelocity : this.yVelocity);
+		return true;
+	}
+
+	/**
+	 * Returns the world this ship belongs to, if any.
+	 */
+	@Basic
+	public World getWorld() {
+		return this.world;
+	}
+
+	/**
+	 * Sets the world this ship belongs to. Only worlds register themselves with their ships, and confine a ship when it is
+	 * added to them. Joining or leaving a world changes how this ship meets other ships, so it counts as a change.
+	 */
+	void setWorld(World world) {
+		this.world = world;
+		this.confine();
+		this.changed();
+	}
+
+	/**
+	 * Returns the world of this ship if the given ship belongs to the same world and that world is bounded, and a
+	 * null-pointer otherwise. Distances and collisions between ships are only measured within the edges of a world if both
+	 * ships belong to it.
+	 * @throws NullPointerException If the given ship is a null-pointer.
+	 */
+	World getBoundedWorld(Ship other) throws NullPointerException {
+		World world = this.world;
+		return world == other.world && world != null && world.isBounded() ? world : null;
+	}
+
+	private World world;
+
+	/**
+	 * Returns the total duration over which this ship has been moved. Together with the version of this ship, it fixes the
+	 * track of this ship in absolute time: moving a ship changes its position and its time, but not its track.
+	 */
+	@Basic
+	double getTime() {
+		return this.time;
+	}
+
+	private double time;
 	
 	/**
 	 * Returns the true velocity of this ship.
@@ -128,34 +200,78 @@ public class Ship implements IShip {
 		return this.velocity;
 	}
 	
+	/**
+	 * Checks whether the given velocity is a valid (true) velocity for a ship.
+	 * @return True if the given velocity is not smaller than zero and does not exceed the speed of light.
+	 */
+	public static boolean isValidVelocity(double velocity) {
+		return velocity >= 0 && velocity <= LIGHTSPEED;
+	}
+	
 	/**
 	 * Sets the velocity of this ship to the given amount, if this amount does not exceed the speed of light, and if this amount is
 	 * not smaller than zero.
 	 * @param newvelocity The new (true) velocity of this ship.
 	 * @post If the given velocity does not exceed the speed of light, and if it is not smaller than zero, the velocity of this ship
-	 * is equal to the given velocity.
+	 * is equal to the given velocity. The velocity keeps pointing in the same direction, or in the direction of this ship if this
+	 * ship was not moving.
 	 */
 	public void setVelocity(double newvelocity) {
-		if (newvelocity >= 0 && newvelocity <= LIGHTSPEED)
-			this.velocity = newvelocity;
+		if (isValidVelocity(newvelocity)) {
+			if (this.velocity > 0)
+				this.setVelocityComponents(this.xVelocity * (newvelocity / this.velocity),
+						this.yVelocity * (newvelocity / this.velocity));
+			else
+				this.setVelocityComponents(newvelocity * Math.cos(this.direction), newvelocity * Math.sin(this.direction));
+			this.changed();
+		}
 	}
 	
 	/**
-	 * Returns the x component of the velocity. This is equal to the true velocity, multiplied by the cos of the current direction.
+	 * Returns the x component of the velocity.
 	 * @return The x component of the velocity of this ship.
 	 */
-	@Immutable public double getXVelocity() {
-		return this.velocity * Math.cos(this.direction);
+	@Basic public double getXVelocity() {
+		return this.xVelocity;
 	}
 	
 	/**
-	 * Returns the y component of the velocity. This is equal to the true velocity, multiplied by the sin of the current direction.
+	 * Returns the y component of the velocity.
 	 * @return The y component of the velocity of this ship.
 	 */
-	@Immutable public double getYVelocity() {
-		return this.velocity * Math.sin(this.direction);
+	@Basic public double getYVelocity() {
+		return this.yVelocity;
 	}
 	
+	/**
+	 * Sets the components of the velocity of this ship, scaled down if the resulting velocity would exceed the speed of light.
+	 * The true velocity is computed here once, so that none of the getters needs a square root or a trigonometric function.
+	 */
+	private void setVelocityComponents(double newxvelocity, double newyvelocity) {
+		double newvelocity = Math.sqrt(newxvelocity * newxvelocity + newyvelocity * newyvelocity);
+		if (newvelocity > LIGHTSPEED) {
+			newxvelocity *= LIGHTSPEED / newvelocity;
+			newyvelocity *= LIGHTSPEED / newvelocity;
+			newvelocity = LIGHTSPEED;
+		}
+		this.xVelocity = newxvelocity;
+		this.yVelocity = newyvelocity;
+		this.velocity = newvelocity;
+	}
+	
+	/**
+	 * Rotates the velocity of this ship by the given angle in radians.
+	 */
+	private void rotateVelocity(double angle) {
+		if (this.velocity == 0)
+			return;
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		this.setVelocityComponents(this.xVelocity * cos - this.yVelocity * sin, this.xVelocity * sin + this.yVelocity * cos);
+	}
+	
+	private double xVelocity;
+	private double yVelocity;
 	private double velocity;
 	
 	/**
@@ -170,10 +286,13 @@ public class Ship implements IShip {
 	  * @param newdirection New direction of this ship.
 	  * @pre The given direction is a valid direction.
 	  * 	isValidDirection()
-	  * @post The direction of this ship is equal to the given direction, if this is a valid direction.
+	  * @post The direction of this ship is equal to the given direction, if this is a valid direction. The velocity of this
+	  * ship is turned along with it.
 	  */
 	public void setDirection(double newdirection) {
+			this.rotateVelocity(newdirection - this.direction);
 			this.direction = newdirection;
+			this.changed();
 	}
 	
 	/**
@@ -193,7 +312,7 @@ public class Ship implements IShip {
 	 * @pre The given angle is smaller than 2PI and greater than -2PI.
 	 * @post The direction of this ship is equal to the old direction, added with the given angle. If the new direction is smaller
 	 * than -2PI, add k times 2PI until it is not smaller anymore. If the new direction is greater than 2PI, subtract k times 2PI 
-	 * until it is not smaller anymore.
+	 * until it is not smaller anymore. The velocity of this ship is turned by the same angle.
 	 */
 	public void turn(double angle) { //Nominally
 		double newdirection = this.direction + angle;
@@ -204,10 +323,76 @@ public class Ship implements IShip {
 			newdirection -= 2 * Math.PI;
 		}
 		this.direction = newdirection;
+		this.rotateVelocity(angle);
+		this.changed();
 	}
 	
 	private double direction;
 
+	/**
+	 * Returns the number of times the position, velocity or direction of this ship has been changed, other than by moving
+	 * the ship. Predictions about this ship that were made at another version are no longer valid.
+	 */
+	@Basic
+	long getVersion() {
+		return this.version;
+	}
+
+	private long version;
+
+	/**
+	 * Registers a change to the position, velocity or direction of this ship, other than by moving it.
+	 */
+	private void changed() {
+		this.version++;
+		if (this.publishing)
+			this.publish();
+	}
+
+	/**
+	 * Returns the state of this ship. If this ship publishes its state, the returned state is the one published after the
+	 * last change, and may be read from any thread without locking: its values always belong together. Otherwise, a new
+	 * state is built from the current values of this ship, which is only safe on the thread that changes this ship.
+	 * @return A state holding the position, velocity, direction and radius of this ship.
+	 */
+	public ShipState getState() {
+		ShipState result = this.state;
+		if (result != null)
+			return result;
+		return new ShipState(x, y, xVelocity, yVelocity, direction, radius);
+	}
+
+	/**
+	 * Checks whether this ship publishes its state after every change.
+	 */
+	@Basic
+	public boolean isPublishing() {
+		return this.publishing;
+	}
+
+	/**
+	 * Sets whether this ship publishes its state after every change, including moves. Publishing lets other threads read
+	 * this ship through getState while a single thread changes it, at the cost of one small object per change.
+	 * This method must be called on the thread that changes this ship.
+	 * @param publishing True to publish the state of this ship from now on, false to stop publishing it.
+	 * @post This ship publishes its state if and only if the given flag is true.
+	 * 		|new.isPublishing() == publishing
+	 */
+	public void setPublishing(boolean publishing) {
+		this.publishing = publishing;
+		if (publishing)
+			this.publish();
+		else
+			this.state = null;
+	}
+
+	private void publish() {
+		this.state = new ShipState(x, y, xVelocity, yVelocity, direction, radius);
+	}
+
+	private boolean publishing;
+	private volatile ShipState state;
+
 	
 	/**
 	 * Returns the radius of this ship.
@@ -219,38 +404,127 @@ public class Ship implements IShip {
 	
 	
 	private final double radius; // Must be >10, defensive
+
+	/**
+	 * Returns the mass of this ship, being the mass of a sphere with the radius of this ship and a uniform density.
+	 * @return The mass of this ship, in kilograms.
+	 * 		|result == 4 / 3 * Math.PI * getRadius()^3 * DENSITY
+	 */
+	public double getMass() {
+		return 4. / 3 * Math.PI * this.radius * this.radius * this.radius * DENSITY;
+	}
 	
 	/**
 	 * Changes the velocity of the ship based on the given amount, its current direction and its current velocity.
 	 * @param amount Amount to be added to current velocity (km/s). 
-	 * @post If the given amount is larger than zero, and the new velocity would not exceed the speed of light c, the new 
-	 * velocity is the old velocity added with the new velocity. If the given amount is smaller than zero, the new velocity is
-	 * the old velocity. If the given amount added with the current amount exceeds c, the new velocity is set to c.
+	 * @post If the given amount is larger than zero, the given amount is added to the velocity of this ship in the direction of
+	 * this ship. If the given amount is smaller than zero, the new velocity is the old velocity. If the resulting velocity
+	 * exceeds c, the new velocity is set to c.
 	 */
 	public void thrust(double amount) { //Totally
-		if (amount < 0)
+		if (!(amount > 0))
 			return;
-		else if (amount + this.velocity > LIGHTSPEED)
-			this.setVelocity(LIGHTSPEED);
-		else {
-			//double newxvelocity = this.getXVelocity() + amount * Math.cos(direction);
-			//double newyvelocity = this.getYVelocity() + amount * Math.cos(direction);
-			//double newvelocity = Math.sqrt(Math.pow(newxvelocity, 2) + Math.pow(newyvelocity, 2));
-			//this.setVelocity(newvelocity);
-			this.setVelocity(this.getVelocity() + amount);
+		double newxvelocity = this.getXVelocity() + amount * Math.cos(direction);
+		double newyvelocity = this.getYVelocity() + amount * Math.sin(direction);
+		this.setVelocityComponents(newxvelocity, newyvelocity);
+		this.changed();
+	}
+
+	/**
+	 * Returns the acceleration of this ship, in km/s² in the direction of this ship. Moving a ship does not apply its
+	 * acceleration; an integrator does.
+	 */
+	@Basic
+	public double getAcceleration() {
+		return this.acceleration;
+	}
+
+	/**
+	 * Checks whether the given acceleration is a valid acceleration for a ship.
+	 * @return True if the given acceleration is not smaller than zero and finite.
+	 */
+	public static boolean isValidAcceleration(double acceleration) {
+		return acceleration >= 0 && acceleration < Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Sets the acceleration of this ship to the given amount, if this amount is a valid acceleration.
+	 * @param acceleration The new acceleration of this ship, in the direction of this ship.
+	 * @post If the given acceleration is valid, the acceleration of this ship is equal to the given acceleration.
+	 * 		|if (isValidAcceleration(acceleration))
+	 * 		|	then new.getAcceleration() == acceleration
+	 */
+	public void setAcceleration(double acceleration) {
+		if (isValidAcceleration(acceleration) && acceleration != this.acceleration) {
+			this.acceleration = acceleration;
+			this.changed();
 		}
 	}
-	
+
+	/**
+	 * Returns the x component of the acceleration of this ship.
+	 */
+	public double getXAcceleration() {
+		return this.acceleration == 0 ? 0 : this.acceleration * Math.cos(this.direction);
+	}
+
+	/**
+	 * Returns the y component of the acceleration of this ship.
+	 */
+	public double getYAcceleration() {
+		return this.acceleration == 0 ? 0 : this.acceleration * Math.sin(this.direction);
+	}
+
+	private double acceleration;
+
+	/**
+	 * Sets the position and the velocity of this ship to the values reached after the given duration. Integrators use this
+	 * method to complete a step.
+	 * @param duration The time span over which the ship has moved.
+	 * @param newx The x coordinate of this ship at the end of the step.
+	 * @param newy The y coordinate of this ship at the end of the step.
+	 * @param newxvelocity The velocity along the x axis of this ship at the end of the step.
+	 * @param newyvelocity The velocity along the y axis of this ship at the end of the step.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 * @post The position of this ship is equal to the given position, and its velocity to the given velocity, scaled down to
+	 * the speed of light if it exceeds it. In a bounded world, the ship is confined to the world as by move.
+	 * 		|new.getX() == newx
+	 * 		|new.getY() == newy
+	 */
+	public void advance(double duration, double newx, double newy, double newxvelocity, double newyvelocity)
+			throws NegativeTimeException {
+		if (duration < 0)
+			throw new NegativeTimeException(duration);
+		this.x = newx;
+		this.y = newy;
+		this.time += duration;
+		boolean changed = newxvelocity != this.xVelocity || newyvelocity != this.yVelocity;
+		if (changed)
+			this.setVelocityComponents(newxvelocity, newyvelocity);
+		if (this.confine())
+			changed = true;
+		if (changed)
+			this.changed();
+		else if (this.publishing)
+			this.publish();
+	}
+
 	/**
 	 * Returns the distance between this ship and the given ship. May be negative if both ships overlap.
 	 * @param other Other space craft, to get the distance between this ship and the given other ship.
-	 * @return Distance in kilometers between the two ships.
+	 * @return Distance in kilometers between the two ships. If both ships belong to a world that wraps around, this is the
+	 * distance to the nearest image of the other ship.
 	 * @throws IllegalArgumentException If other ship is a null-pointer.
 	 */
 	public double getDistanceBetween(Ship other) throws IllegalArgumentException { //Defensively
 		try {
-		double distancex = Math.abs(this.x - other.getX());
-		double distancey = Math.abs(this.y - other.getY());
+		double distancex = this.x - other.getX();
+		double distancey = this.y - other.getY();
+		World world = this.getBoundedWorld(other);
+		if (world != null) {
+			distancex = world.getXDisplacement(distancex);
+			distancey = world.getYDisplacement(distancey);
+		}
 		double distance = Math.sqrt(distancex*distancex+distancey*distancey); //Distance between centers
 		return distance - this.radius - other.getRadius();
 		} catch (NullPointerException exc) {
@@ -278,33 +552,183 @@ public class Ship implements IShip {
 	 * Returns the time until this ship will collide with the given other ship.
 	 * @param other Other ship to calculate collision time with.
 	 * @return Time until collision between this ship and the other ship. If the ships never collide, this is equal to 
-	 * Double.POSITIVE_INFINITY.
+	 * Double.POSITIVE_INFINITY. If both ships belong to a bounded world, collisions across an edge or after bouncing off
+	 * edges are found as well, as long as they happen before either ship passed Boundary.MAX_SEGMENTS edges.
 	 * @throws IllegalArgumentException If other ship is a null-pointer.
 	 */
 	public double getTimeToCollision(Ship other) throws IllegalArgumentException { //Defensively
-		try { double deltavx = this.getXVelocity() - other.getXVelocity(); 
-		
-		double deltavy = this.getYVelocity() - other.getYVelocity();
-		double deltarx = this.getX() - other.getX();
-		double deltary = this.getY() - other.getY();
-		double sigma = this.getRadius() + other.getRadius();
-		double a = Math.pow(deltavx, 2) + Math.pow(deltavy, 2);
+		try {
+			World world = this.getBoundedWorld(other);
+			if (world != null)
+				return world.getTimeToCollision(this, other, Double.POSITIVE_INFINITY);
+			return getTimeToCollision(this.getX() - other.getX(), this.getY() - other.getY(),
+					this.getXVelocity() - other.getXVelocity(), this.getYVelocity() - other.getYVelocity(),
+					this.getRadius() + other.getRadius());
+		}
+		catch (NullPointerException exc) {
+			throw new IllegalArgumentException("Other ship is not a valid ship");
+		}
+	}
+
+	/**
+	 * Returns the time until this ship will collide with each of the given other ships, and the position of the ship that
+	 * collides first.
+	 * @param others The ships to calculate collision times with.
+	 * @param out The array in which the time until the collision with the ship at index i of the given ships is stored at
+	 * index i. That time is Double.POSITIVE_INFINITY if both ships never collide.
+	 * @return The index of the ship with the smallest time until collision, or -1 if none of the given ships collides with
+	 * this ship. If several ships collide first, the smallest index among them is returned.
+	 * @throws IllegalArgumentException If one of the given ships is a null-pointer, if the given arrays are null-pointers,
+	 * or if the given output array is shorter than the array of ships.
+	 */
+	public int getTimesToCollision(Ship[] others, double[] out) throws IllegalArgumentException {
+		if (others == null)
+			throw new IllegalArgumentException("Other ships are not valid ships");
+		if (out == null || out.length < others.length)
+			throw new IllegalArgumentException("Output array must hold a value per ship");
+		if (this.world != null && this.world.isBounded()) {
+			for (int i = 0; i < others.length; i++)
+				out[i] = this.getTimeToCollision(others[i]);
+			return indexOfEarliest(out, others.length);
+		}
+		double x = this.getX(), y = this.getY();
+		double xVelocity = this.getXVelocity(), yVelocity = this.getYVelocity(), radius = this.getRadius();
+		try {
+			for (int i = 0; i < others.length; i++) {
+				Ship other = others[i];
+				out[i] = getTimeToCollision(x - other.getX(), y - other.getY(), xVelocity - other.getXVelocity(),
+						yVelocity - other.getYVelocity(), radius + other.getRadius());
+			}
+		}
+		catch (NullPointerException exc) {
+			throw new IllegalArgumentException("Other ship is not a valid ship");
+		}
+		return indexOfEarliest(out, others.length);
+	}
+
+	/**
+	 * Returns the time until two circles collide, given the difference between their positions, the difference between
+	 * their velocities and the sum of their radii.
+	 * The time is the smallest root t of |deltar + t * deltav| = sigma. The square root and the division are only
+	 * computed when the circles approach each other (b < 0) and their paths cross (d > 0). Equal velocities give a = 0 and
+	 * b = 0, so they never lead to a division by zero.
+	 * @return The time until both circles collide, or Double.POSITIVE_INFINITY if they never collide. The time is negative
+	 * if both circles already overlap and approach each other.
+	 */
+	static double getTimeToCollision(double deltarx, double deltary, double deltavx, double deltavy, double sigma) {
 		double b = deltavx * deltarx + deltavy * deltary;
-		double c = Math.pow(deltarx, 2) + Math.pow(deltary, 2) - Math.pow(sigma, 2);
-		double d = Math.pow(b, 2) - a * c;
-		double solution = (-b - Math.sqrt(d)) / a;
-		
 		if (b >= 0)
-			solution = Double.POSITIVE_INFINITY;
+			return Double.POSITIVE_INFINITY;
+		double a = deltavx * deltavx + deltavy * deltavy;
+		double c = deltarx * deltarx + deltary * deltary - sigma * sigma;
+		double d = b * b - a * c;
 		if (d <= 0)
-			solution = Double.POSITIVE_INFINITY;
-		return solution;
+			return Double.POSITIVE_INFINITY;
+		return (-b - Math.sqrt(d)) / a;
+	}
+
+	/**
+	 * Returns the index of the smallest finite value among the given number of values at the start of the given array,
+	 * or -1 if none of them is finite.
+	 */
+	static int indexOfEarliest(double[] times, int count) {
+		int result = -1;
+		double earliest = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			if (times[i] < earliest) {
+				earliest = times[i];
+				result = i;
+			}
 		}
-		catch (NullPointerException exc) {
+		return result;
+	}
+	
+	/**
+	 * Returns the earliest time within the given time step at which this ship touches the given other ship, if both keep
+	 * their current velocities. Unlike checking for overlap after every step, this does not miss ships that pass through
+	 * each other within the step.
+	 * @param other Other ship to calculate the time of impact with.
+	 * @param duration The length of the time step.
+	 * @return Zero if both ships already overlap, the time until both ships collide if that is not later than the given
+	 * duration, and Double.POSITIVE_INFINITY otherwise. A ship never collides with itself.
+	 * @throws IllegalArgumentException If other ship is a null-pointer.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	public double getTimeOfImpact(Ship other, double duration) throws IllegalArgumentException, NegativeTimeException {
+		if (!(duration >= 0))
+			throw new NegativeTimeException(duration);
+		if (other == null)
+			throw new IllegalArgumentException("Other ship is not a valid ship");
+		if (other == this)
+			return Double.POSITIVE_INFINITY;
+		World world = this.getBoundedWorld(other);
+		if (world == null && !sweptBoundsIntersect(other, duration))
+			return Double.POSITIVE_INFINITY;
+		if (this.overlap(other))
+			return 0;
+		double time = world == null ? this.getTimeToCollision(other) : world.getTimeToCollision(this, other, duration);
+		return time <= duration ? time : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Checks whether the boxes bounding this ship and the given ship over the given time step intersect. Ships whose boxes
+	 * do not intersect cannot collide within the step.
+	 */
+	private boolean sweptBoundsIntersect(Ship other, double duration) {
+		double reach = this.getRadius() + other.getRadius();
+		double thisx = this.getX() + duration * this.getXVelocity();
+		double otherx = other.getX() + duration * other.getXVelocity();
+		if (Math.min(this.getX(), thisx) - reach > Math.max(other.getX(), otherx)
+				|| Math.min(other.getX(), otherx) - reach > Math.max(this.getX(), thisx))
+			return false;
+		double thisy = this.getY() + duration * this.getYVelocity();
+		double othery = other.getY() + duration * other.getYVelocity();
+		return Math.min(this.getY(), thisy) - reach <= Math.max(other.getY(), othery)
+				&& Math.min(other.getY(), othery) - reach <= Math.max(this.getY(), thisy);
+	}
+
+	/**
+	 * Makes this ship and the given ship bounce off each other, as in a perfectly elastic collision between two bodies with
+	 * the masses of both ships. The impulse acts along the line through the centers of both ships, so both ships are meant
+	 * to touch, as they do at the time of their collision.
+	 * @param other Other ship this ship collides with.
+	 * @throws IllegalArgumentException If other ship is a null-pointer or this ship.
+	 * @post If both ships move towards each other along the line through their centers, their velocities along that line are
+	 * exchanged as in an elastic collision, conserving their total momentum and kinetic energy unless a velocity is scaled
+	 * down to the speed of light. Otherwise, and if both centers coincide, nothing changes.
+	 * 		|getMass() * new.getXVelocity() + other.getMass() * (new other).getXVelocity() ==
+	 * 		|	getMass() * getXVelocity() + other.getMass() * other.getXVelocity()
+	 */
+	public void bounce(Ship other) throws IllegalArgumentException {
+		if (other == null || other == this)
 			throw new IllegalArgumentException("Other ship is not a valid ship");
+		double deltarx = other.getX() - this.getX();
+		double deltary = other.getY() - this.getY();
+		World world = this.getBoundedWorld(other);
+		if (world != null) {
+			deltarx = world.getXDisplacement(deltarx);
+			deltary = world.getYDisplacement(deltary);
 		}
+		double distance = Math.sqrt(deltarx * deltarx + deltary * deltary);
+		if (distance == 0)
+			return;
+		double normalx = deltarx / distance;
+		double normaly = deltary / distance;
+		double approach = (other.getXVelocity() - this.getXVelocity()) * normalx
+				+ (other.getYVelocity() - this.getYVelocity()) * normaly;
+		if (!(approach < 0))
+			return;
+		double mass = this.getMass();
+		double othermass = other.getMass();
+		double impulse = 2 * mass * othermass * approach / (mass + othermass);
+		this.setVelocityComponents(this.getXVelocity() + impulse / mass * normalx,
+				this.getYVelocity() + impulse / mass * normaly);
+		this.changed();
+		other.setVelocityComponents(other.getXVelocity() - impulse / othermass * normalx,
+				other.getYVelocity() - impulse / othermass * normaly);
+		other.changed();
 	}
-	
+
 	/**
 	 * Returns the position where this ship will collide with the given other ship, if a valid other ship argument is given and
 	 * they will ever collide based on their current tracks.
@@ -313,19 +737,132 @@ public class Ship implements IShip {
 	 * @throws IllegalArgumentException If other ship is a null-pointer.
 	 */
 	public Position getCollisionPosition(Ship other) { //Defensively; Return x and y coordinates
-		double timetocollision = getTimeToCollision(other);
-		if (timetocollision == Double.POSITIVE_INFINITY)
+		double[] coordinates = new double[2];
+		if (!getCollisionPosition(other, coordinates, 0))
 			return null;
+		return new Position(coordinates[0], coordinates[1]);
+	}
+
+	/**
+	 * Stores the position where this ship will collide with the given other ship in the given array, without allocating any
+	 * objects.
+	 * @param other Other ship to calculate collision point with.
+	 * @param out Array in which the x and y coordinate of the collision point are stored.
+	 * @param offset Index in the given array at which the x coordinate is stored. The y coordinate is stored right after it.
+	 * @return True if both ships will ever collide, false if they never collide. In the latter case, the given array is left
+	 * untouched.
+	 * @throws IllegalArgumentException If other ship is a null-pointer, or if the given array cannot hold two coordinates at
+	 * the given offset.
+	 */
+	public boolean getCollisionPosition(Ship other, double[] out, int offset) throws IllegalArgumentException {
+		return getCollisionPosition(other, getTimeToCollision(other), out, offset);
+	}
+
+	/**
+	 * Stores the position where this ship collides with the given other ship in the given array, given the time until both
+	 * ships collide, so that a time that is already known is not computed again.
+	 * The collision position is the point where both ships touch: it lies on the line from the center of this ship to the
+	 * center of the other ship at the moment of the collision, at the radius of this ship from its center.
+	 * @param other Other ship to calculate collision point with.
+	 * @param timetocollision The time until both ships collide, as returned by getTimeToCollision.
+	 * @param out Array in which the x and y coordinate of the collision point are stored.
+	 * @param offset Index in the given array at which the x coordinate is stored. The y coordinate is stored right after it.
+	 * @return True if the given time is finite, false otherwise. In the latter case, the given array is left untouched.
+	 * @throws IllegalArgumentException If other ship is a null-pointer, or if the given array cannot hold two coordinates at
+	 * the given offset.
+	 * @post If the given time is finite, the given array holds the point at the radius of this ship from its center, in the
+	 * direction of the center of the other ship, both moved over the given time.
+	 * 		|out[offset] == getX() + timetocollision * getXVelocity() + getRadius() / (getRadius() + other.getRadius()) *
+	 * 		|	(other.getX() + timetocollision * other.getXVelocity() - getX() - timetocollision * getXVelocity())
+	 * If both ships belong to a bounded world, both ships are confined to that world at the given time, the point lies
+	 * towards the nearest image of the other ship, and it is confined to the world itself.
+	 */
+	public boolean getCollisionPosition(Ship other, double timetocollision, double[] out, int offset)
+			throws IllegalArgumentException {
+		if (other == null)
+			throw new IllegalArgumentException("Other ship is not a valid ship");
+		if (out == null || offset < 0 || offset > out.length - 2)
+			throw new IllegalArgumentException("Array cannot hold a position at the given offset");
+		if (!(timetocollision < Double.POSITIVE_INFINITY))
+			return false;
+		World world = this.getBoundedWorld(other);
+		if (world != null) {
+			double newx = world.confineX(this.getX() + timetocollision * this.getXVelocity(), this.getRadius());
+			double newy = world.confineY(this.getY() + timetocollision * this.getYVelocity(), this.getRadius());
+			double deltarx = world.getXDisplacement(
+					world.confineX(other.getX() + timetocollision * other.getXVelocity(), other.getRadius()) - newx);
+			double deltary = world.getYDisplacement(
+					world.confineY(other.getY() + timetocollision * other.getYVelocity(), other.getRadius()) - newy);
+			double fraction = this.getRadius() / (this.getRadius() + other.getRadius());
+			out[offset] = world.confineX(newx + fraction * deltarx, 0);
+			out[offset + 1] = world.confineY(newy + fraction * deltary, 0);
+			return true;
+		}
 		double newxi = this.getX() + timetocollision * this.getXVelocity();
-		double newxj = other.getX() + timetocollision * other.getXVelocity();
 		double newyi = this.getY() + timetocollision * this.getYVelocity();
+		double newxj = other.getX() + timetocollision * other.getXVelocity();
 		double newyj = other.getY() + timetocollision * other.getYVelocity();
-		double distance = this.getRadius() + other.getRadius();
-		double cosangle = Math.abs(newxi-newxj) / distance;
-		double finalx = cosangle * this.getRadius();
-		double sinangle = Math.abs(newyi - newyj) / distance;
-		double finaly = sinangle * this.getRadius();
-		return new Position(finalx, finaly);
+		double fraction = this.getRadius() / (this.getRadius() + other.getRadius());
+		out[offset] = newxi + fraction * (newxj - newxi);
+		out[offset + 1] = newyi + fraction * (newyj - newyi);
+		return true;
+	}
+
+	/**
+	 * Stores the position where this ship collides with each of the given other ships, given the times until they collide,
+	 * in a single pass over the given ships.
+	 * @param others The ships to calculate collision points with.
+	 * @param times The time until this ship collides with the ship at index i of the given ships is found at index i, as
+	 * stored by getTimesToCollision.
+	 * @param out The array in which the x and y coordinate of the collision point with the ship at index i of the given ships
+	 * are stored at index 2 * i and 2 * i + 1. Both coordinates are Double.NaN for ships that never collide with this ship.
+	 * @return The number of given ships that collide with this ship.
+	 * @throws IllegalArgumentException If one of the given ships is a null-pointer, if the given arrays are null-pointers,
+	 * if the given array of times is shorter than the array of ships, or if the given output array cannot hold two
+	 * coordinates per ship.
+	 */
+	public int getCollisionPositions(Ship[] others, double[] times, double[] out) throws IllegalArgumentException {
+		if (others == null)
+			throw new IllegalArgumentException("Other ships are not valid ships");
+		if (times == null || times.length < others.length)
+			throw new IllegalArgumentException("Times must hold a value per ship");
+		if (out == null || out.length < 2 * others.length)
+			throw new IllegalArgumentException("Output array must hold two values per ship");
+		int count = 0;
+		if (this.world != null && this.world.isBounded()) {
+			for (int i = 0; i < others.length; i++) {
+				if (!this.getCollisionPosition(others[i], times[i], out, 2 * i)) {
+					out[2 * i] = Double.NaN;
+					out[2 * i + 1] = Double.NaN;
+				} else {
+					count++;
+				}
+			}
+			return count;
+		}
+		double x = this.getX(), y = this.getY();
+		double xVelocity = this.getXVelocity(), yVelocity = this.getYVelocity(), radius = this.getRadius();
+		try {
+			for (int i = 0; i < others.length; i++) {
+				Ship other = others[i];
+				double time = times[i];
+				double fraction = radius / (radius + other.getRadius());
+				if (time < Double.POSITIVE_INFINITY) {
+					double newx = x + time * xVelocity;
+					double newy = y + time * yVelocity;
+					out[2 * i] = newx + fraction * (other.getX() + time * other.getXVelocity() - newx);
+					out[2 * i + 1] = newy + fraction * (other.getY() + time * other.getYVelocity() - newy);
+					count++;
+				} else {
+					out[2 * i] = Double.NaN;
+					out[2 * i + 1] = Double.NaN;
+				}
+			}
+		}
+		catch (NullPointerException exc) {
+			throw new IllegalArgumentException("Other ship is not a valid ship");
+		}
+		return count;
 	}
 
 }
@@ -0,0 +1,43 @@
+package game;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import asteroids.IShip;
+
+/**
+ * A class of lightweight views on a single ship stored in a ship store. A handle only holds its store and the index of
+ * its ship; all state of the ship is kept in the columns of the store.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class ShipHandle implements IShip {
+
+	/**
+	 * Initialize this new handle for the ship at the given index of the given store.
+	 */
+	ShipHandle(ShipStore store, int index) {
+		this.store = store;
+		this.index = index;
+	}
+
+	/**
+	 * Returns the store holding the ship of this handle.
+	 */
+	@Basic @Immutable
+	public ShipStore getStore() {
+		return this.store;
+	}
+
+	/**
+	 * Returns the index of the ship of this handle in its store.
+	 */
+	@Basic @Immutable
+	public int getIndex() {
+		return this.index;
+	}
+
+	private final ShipStore store;
+	private final int index;
+
+}
@@ -0,0 +1,83 @@
+package game;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class of immutable records holding the position, velocity, direction and radius of a ship at one moment.
+ * A ship that publishes its state replaces its record as a whole after every change, so a thread reading the record of a
+ * ship always sees values that belong together, without taking a lock.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public final class ShipState {
+
+	/**
+	 * Initialize this new state with the given values.
+	 */
+	ShipState(double x, double y, double xVelocity, double yVelocity, double direction, double radius) {
+		this.x = x;
+		this.y = y;
+		this.xVelocity = xVelocity;
+		this.yVelocity = yVelocity;
+		this.direction = direction;
+		this.radius = radius;
+	}
+
+	/**
+	 * Returns the x coordinate of this state.
+	 */
+	@Basic @Immutable
+	public double getX() {
+		return this.x;
+	}
+
+	/**
+	 * Returns the y coordinate of this state.
+	 */
+	@Basic @Immutable
+	public double getY() {
+		return this.y;
+	}
+
+	/**
+	 * Returns the velocity along the x axis of this state.
+	 */
+	@Basic @Immutable
+	public double getXVelocity() {
+		return this.xVelocity;
+	}
+
+	/**
+	 * Returns the velocity along the y axis of this state.
+	 */
+	@Basic @Immutable
+	public double getYVelocity() {
+		return this.yVelocity;
+	}
+
+	/**
+	 * Returns the direction of this state, as an angle in radians.
+	 */
+	@Basic @Immutable
+	public double getDirection() {
+		return this.direction;
+	}
+
+	/**
+	 * Returns the radius of this state.
+	 */
+	@Basic @Immutable
+	public double getRadius() {
+		return this.radius;
+	}
+
+	private final double x;
+	private final double y;
+	private final double xVelocity;
+	private final double yVelocity;
+	private final double direction;
+	private final double radius;
+
+}
@@ -0,0 +1,543 @@
+package game;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+
+import be.kuleuven.cs.som.annotate.Basic;
+
+/**
+ * A class of stores that hold the state of many ships in parallel arrays of primitive values, one array for every
+ * property. Ships in a store are identified by their index, and can be handed out to clients as ship handles.
+ * Ships in a store behave like instances of Ship: their radius is at least MINRADIUS, their speed never exceeds LIGHTSPEED,
+ * and turning a ship also turns its velocity.
+ * All velocities are expressed in km/s, and distances and radii in kilometers.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class ShipStore {
+
+	/**
+	 * Initialize this new store without any ships.
+	 */
+	public ShipStore() {
+		this(16);
+	}
+
+	/**
+	 * Initialize this new store without any ships, with room for the given number of ships.
+	 * @param capacity The number of ships this new store can hold before its arrays have to grow.
+	 * @throws IllegalArgumentException If the given capacity is negative.
+	 */
+	public ShipStore(int capacity) throws IllegalArgumentException {
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity must not be negative");
+		x = new double[capacity];
+		y = new double[capacity];
+		xVelocity = new double[capacity];
+		yVelocity = new double[capacity];
+		radius = new double[capacity];
+		direction = new double[capacity];
+		handles = new ShipHandle[capacity];
+	}
+
+	/**
+	 * Returns the number of ships in this store.
+	 */
+	@Basic
+	public int getNbShips() {
+		return this.size;
+	}
+
+	/**
+	 * Add a new ship with the given position, velocity, radius and direction to this store.
+	 * @param x The x coordinate of the new ship.
+	 * @param y The y coordinate of the new ship.
+	 * @param xVelocity The velocity of the new ship along the x axis.
+	 * @param yVelocity The velocity of the new ship along the y axis.
+	 * @param radius The radius of the new ship. Radii smaller than MINRADIUS are replaced by MINRADIUS.
+	 * @param direction The direction the new ship is facing, expressed as its angle in radians.
+	 * @return A handle on the new ship, whose index is the former number of ships in this store.
+	 */
+	public ShipHandle add(double x, double y, double xVelocity, double yVelocity, double radius, double direction) {
+		if (size == this.x.length)
+			grow();
+		int i = size++;
+		this.x[i] = x;
+		this.y[i] = y;
+		this.xVelocity[i] = xVelocity;
+		this.yVelocity[i] = yVelocity;
+		limitSpeed(i);
+		this.radius[i] = radius > Ship.MINRADIUS ? radius : Ship.MINRADIUS;
+		this.direction[i] = direction;
+		return getHandle(i);
+	}
+
+	private void grow() {
+		int capacity = Math.max(16, x.length * 2);
+		x = Arrays.copyOf(x, capacity);
+		y = Arrays.copyOf(y, capacity);
+		xVelocity = Arrays.copyOf(xVelocity, capacity);
+		yVelocity = Arrays.copyOf(yVelocity, capacity);
+		radius = Arrays.copyOf(radius, capacity);
+		direction = Arrays.copyOf(direction, capacity);
+		handles = Arrays.copyOf(handles, capacity);
+	}
+
+	/**
+	 * Returns the handle on the ship at the given index. Handles are only created when they are first asked for.
+	 * @param index The index of the ship.
+	 * @throws IndexOutOfBoundsException If the given index is not the index of a ship in this store.
+	 */
+	public ShipHandle getHandle(int index) throws IndexOutOfBoundsException {
+		checkIndex(index);
+		ShipHandle handle = handles[index];
+		if (handle == null) {
+			handle = new ShipHandle(this, index);
+			handles[index] = handle;
+		}
+		return handle;
+	}
+
+	private void checkIndex(int index) throws IndexOutOfBoundsException {
+		if (index < 0 || index >= size)
+			throw new IndexOutOfBoundsException("No ship at index " + index);
+	}
+
+	/**
+	 * Returns the x coordinate of the ship at the given index.
+	 */
+	public double getX(int index) {
+		checkIndex(index);
+		return x[index];
+	}
+
+	/**
+	 * Returns the y coordinate of the ship at the given index.
+	 */
+	public double getY(int index) {
+		checkIndex(index);
+		return y[index];
+	}
+
+	/**
+	 * Returns the velocity along the x axis of the ship at the given index.
+	 */
+	public double getXVelocity(int index) {
+		checkIndex(index);
+		return xVelocity[index];
+	}
+
+	/**
+	 * Returns the velocity along the y axis of the ship at the given index.
+	 */
+	public double getYVelocity(int index) {
+		checkIndex(index);
+		return yVelocity[index];
+	}
+
+	/**
+	 * Returns the radius of the ship at the given index.
+	 */
+	public double getRadius(int index) {
+		checkIndex(index);
+		return radius[index];
+	}
+
+	/**
+	 * Returns the direction, in radians, of the ship at the given index.
+	 */
+	public double getDirection(int index) {
+		checkIndex(index);
+		return direction[index];
+	}
+
+	/**
+	 * Move the ship at the given index over the given duration at its current velocity.
+	 * @param index The index of the ship.
+	 * @param duration The time span over which the ship moves.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	public void move(int index, double duration) throws NegativeTimeException {
+		checkIndex(index);
+		if (duration < 0)
+			throw new NegativeTimeException(duration);
+		x[index] += duration * xVelocity[index];
+		y[index] += duration * yVelocity[index];
+	}
+
+	/**
+	 * Move every ship in this store over the given duration at its current velocity.
+	 * @param duration The time span over which the ships move.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	public void moveAll(double duration) throws NegativeTimeException {
+		if (duration < 0)
+			throw new NegativeTimeException(duration);
+		double[] x = this.x, y = this.y, xVelocity = this.xVelocity, yVelocity = this.yVelocity;
+		int size = this.size;
+		for (int i = 0; i < size; i++)
+			x[i] += duration * xVelocity[i];
+		for (int i = 0; i < size; i++)
+			y[i] += duration * yVelocity[i];
+	}
+
+	/**
+	 * Accelerate the ship at the given index by the given amount in the direction it is facing. Negative amounts are
+	 * ignored, and the resulting speed never exceeds LIGHTSPEED.
+	 * @param index The index of the ship.
+	 * @param amount The amount to be added to the velocity of the ship, in km/s.
+	 */
+	public void thrust(int index, double amount) {
+		checkIndex(index);
+		if (!(amount > 0))
+			return;
+		xVelocity[index] += amount * Math.cos(direction[index]);
+		yVelocity[index] += amount * Math.sin(direction[index]);
+		limitSpeed(index);
+	}
+
+	private void limitSpeed(int index) {
+		double speed = Math.sqrt(xVelocity[index] * xVelocity[index] + yVelocity[index] * yVelocity[index]);
+		if (speed > Ship.LIGHTSPEED) {
+			xVelocity[index] *= Ship.LIGHTSPEED / speed;
+			yVelocity[index] *= Ship.LIGHTSPEED / speed;
+		}
+	}
+
+	/**
+	 * Turn the ship at the given index, and its velocity, by the given angle. The resulting direction is kept between -2PI
+	 * and 2PI, in the same way as Ship.turn.
+	 * @param index The index of the ship.
+	 * @param angle The angle in radians to be added to the direction of the ship.
+	 */
+	public void turn(int index, double angle) {
+		checkIndex(index);
+		double newdirection = direction[index] + angle;
+		while (newdirection < -2 * Math.PI)
+			newdirection += 2 * Math.PI;
+		while (newdirection > 2 * Math.PI)
+			newdirection -= 2 * Math.PI;
+		direction[index] = newdirection;
+		double cos = Math.cos(angle);
+		double sin = Math.sin(angle);
+		double vx = xVelocity[index];
+		double vy = yVelocity[index];
+		xVelocity[index] = vx * cos - vy * sin;
+		yVelocity[index] = vx * sin + vy * cos;
+	}
+
+	/**
+	 * Returns the distance between the ships at the given indices, which is negative if both ships overlap.
+	 */
+	public double getDistanceBetween(int first, int second) {
+		checkIndex(first);
+		checkIndex(second);
+		double dx = x[first] - x[second];
+		double dy = y[first] - y[second];
+		return Math.sqrt(dx * dx + dy * dy) - radius[first] - radius[second];
+	}
+
+	/**
+	 * Checks whether the ships at the given indices overlap.
+	 */
+	public boolean overlap(int first, int second) {
+		return getDistanceBetween(first, second) < 0;
+	}
+
+	/**
+	 * Returns the time until the ships at the given indices collide, computed in the same way as
+	 * Ship.getTimeToCollision.
+	 * @return The time until both ships collide, or Double.POSITIVE_INFINITY if they never collide.
+	 */
+	public double getTimeToCollision(int first, int second) {
+		checkIndex(first);
+		checkIndex(second);
+		return Ship.getTimeToCollision(x[first] - x[second], y[first] - y[second], xVelocity[first] - xVelocity[second],
+				yVelocity[first] - yVelocity[second], radius[first] + radius[second]);
+	}
+
+	/**
+	 * Returns the time until the ship at the given index collides with each of the ships in the given range of indices,
+	 * computed in the same way as Ship.getTimesToCollision.
+	 * The loop over the range reads every column sequentially and has no branches: the root is computed for every
+	 * candidate and the result is selected afterwards, so the compiler can turn it into vector instructions.
+	 * @param index The index of the ship to calculate collision times for.
+	 * @param from The first index of the range of candidates, inclusive.
+	 * @param to The last index of the range of candidates, exclusive.
+	 * @param out The array in which the time until the collision with the ship at index from + i is stored at index i.
+	 * @return The index, relative to from, of the candidate with the smallest time until collision, or -1 if none of the
+	 * candidates collides with the ship at the given index.
+	 * @throws IndexOutOfBoundsException If the given index or range does not lie within this store.
+	 * @throws IllegalArgumentException If the given output array is a null-pointer, or if it is shorter than the range.
+	 */
+	public int getTimesToCollision(int index, int from, int to, double[] out)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkIndex(index);
+		if (from < 0 || to > size || from > to)
+			throw new IndexOutOfBoundsException("Invalid range: " + from + " to " + to);
+		if (out == null || out.length < to - from)
+			throw new IllegalArgumentException("Output array must hold a value per ship");
+		double[] x = this.x, y = this.y, xVelocity = this.xVelocity, yVelocity = this.yVelocity, radius = this.radius;
+		double x0 = x[index], y0 = y[index], vx0 = xVelocity[index], vy0 = yVelocity[index], r0 = radius[index];
+		for (int j = from; j < to; j++) {
+			double deltarx = x0 - x[j];
+			double deltary = y0 - y[j];
+			double deltavx = vx0 - xVelocity[j];
+			double deltavy = vy0 - yVelocity[j];
+			double sigma = r0 + radius[j];
+			double a = deltavx * deltavx + deltavy * deltavy;
+			double b = deltavx * deltarx + deltavy * deltary;
+			double c = deltarx * deltarx + deltary * deltary - sigma * sigma;
+			double d = b * b - a * c;
+			double time = (-b - Math.sqrt(Math.max(d, 0))) / a;
+			out[j - from] = (b < 0) & (d > 0) ? time : Double.POSITIVE_INFINITY;
+		}
+		return Ship.indexOfEarliest(out, to - from);
+	}
+
+	/**
+	 * Returns the earliest time within the given time step at which the ships at the given indices touch, computed in the
+	 * same way as Ship.getTimeOfImpact.
+	 * @return Zero if both ships already overlap, the time until both ships collide if that is not later than the given
+	 * duration, and Double.POSITIVE_INFINITY otherwise.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	public double getTimeOfImpact(int first, int second, double duration) throws NegativeTimeException {
+		if (!(duration >= 0))
+			throw new NegativeTimeException(duration);
+		checkIndex(first);
+		checkIndex(second);
+		if (first == second || sweptMinX(first, duration) > sweptMaxX(second, duration)
+				|| sweptMinX(second, duration) > sweptMaxX(first, duration))
+			return Double.POSITIVE_INFINITY;
+		if (overlap(first, second))
+			return 0;
+		double time = getTimeToCollision(first, second);
+		return time <= duration ? time : Double.POSITIVE_INFINITY;
+	}
+
+	/**
+	 * Returns the left side of the box bounding the ship at the given index over the given time step.
+	 */
+	double sweptMinX(int index, double duration) {
+		return Math.min(x[index], x[index] + duration * xVelocity[index]) - radius[index];
+	}
+
+	/**
+	 * Returns the right side of the box bounding the ship at the given index over the given time step.
+	 */
+	double sweptMaxX(int index, double duration) {
+		return Math.max(x[index], x[index] + duration * xVelocity[index]) + radius[index];
+	}
+
+	/**
+	 * Returns the position where the ships at the given indices collide, computed in the same way as
+	 * Ship.getCollisionPosition.
+	 * @return The position where both ships collide, or null if they never collide.
+	 */
+	public Position getCollisionPosition(int first, int second) {
+		double[] coordinates = new double[2];
+		if (!getCollisionPosition(first, second, coordinates, 0))
+			return null;
+		return new Position(coordinates[0], coordinates[1]);
+	}
+
+	/**
+	 * Stores the position where the ships at the given indices collide in the given array, without allocating any objects.
+	 * @param out Array in which the x and y coordinate of the collision point are stored.
+	 * @param offset Index in the given array at which the x coordinate is stored. The y coordinate is stored right after it.
+	 * @return True if both ships will ever collide, false if they never collide. In the latter case, the given array is left
+	 * untouched.
+	 * @throws IllegalArgumentException If the given array cannot hold two coordinates at the given offset.
+	 */
+	public boolean getCollisionPosition(int first, int second, double[] out, int offset) throws IllegalArgumentException {
+		return getCollisionPosition(first, second, getTimeToCollision(first, second), out, offset);
+	}
+
+	/**
+	 * Stores the position where the ships at the given indices collide in the given array, given the time until both ships
+	 * collide, computed in the same way as Ship.getCollisionPosition.
+	 * @param timetocollision The time until both ships collide, as returned by getTimeToCollision.
+	 * @param out Array in which the x and y coordinate of the collision point are stored.
+	 * @param offset Index in the given array at which the x coordinate is stored. The y coordinate is stored right after it.
+	 * @return True if the given time is finite, false otherwise. In the latter case, the given array is left untouched.
+	 * @throws IndexOutOfBoundsException If either index does not lie within this store.
+	 * @throws IllegalArgumentException If the given array cannot hold two coordinates at the given offset.
+	 */
+	public boolean getCollisionPosition(int first, int second, double timetocollision, double[] out, int offset)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkIndex(first);
+		checkIndex(second);
+		if (out == null || offset < 0 || offset > out.length - 2)
+			throw new IllegalArgumentException("Array cannot hold a position at the given offset");
+		if (!(timetocollision < Double.POSITIVE_INFINITY))
+			return false;
+		double newxi = x[first] + timetocollision * xVelocity[first];
+		double newyi = y[first] + timetocollision * yVelocity[first];
+		double newxj = x[second] + timetocollision * xVelocity[second];
+		double newyj = y[second] + timetocollision * yVelocity[second];
+		double fraction = radius[first] / (radius[first] + radius[second]);
+		out[offset] = newxi + fraction * (newxj - newxi);
+		out[offset + 1] = newyi + fraction * (newyj - newyi);
+		return true;
+	}
+
+	/**
+	 * Stores the position where the ship at the given index collides with each ship in a range of this store, given the
+	 * times until they collide, computed in the same way as Ship.getCollisionPositions.
+	 * Like getTimesToCollision, the loop reads every column sequentially and has no branches, so the compiler can turn it
+	 * into vector instructions.
+	 * @param index The index of the ship to calculate collision points for.
+	 * @param from The first index of the range of candidates, inclusive.
+	 * @param to The last index of the range of candidates, exclusive.
+	 * @param times The time until the collision with the ship at index from + i is found at index i, as stored by
+	 * getTimesToCollision.
+	 * @param out The array in which the x and y coordinate of the collision point with the ship at index from + i are stored
+	 * at index 2 * i and 2 * i + 1. Both coordinates are Double.NaN for ships that never collide with the ship at the given
+	 * index.
+	 * @throws IndexOutOfBoundsException If the given index or range does not lie within this store.
+	 * @throws IllegalArgumentException If the given arrays are null-pointers, if the array of times is shorter than the
+	 * range, or if the output array cannot hold two coordinates per ship of the range.
+	 */
+	public void getCollisionPositions(int index, int from, int to, double[] times, double[] out)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkIndex(index);
+		if (from < 0 || to > size || from > to)
+			throw new IndexOutOfBoundsException("Invalid range: " + from + " to " + to);
+		if (times == null || times.length < to - from)
+			throw new IllegalArgumentException("Times must hold a value per ship");
+		if (out == null || out.length < 2 * (to - from))
+			throw new IllegalArgumentException("Output array must hold two values per ship");
+		double[] x = this.x, y = this.y, xVelocity = this.xVelocity, yVelocity = this.yVelocity, radius = this.radius;
+		double x0 = x[index], y0 = y[index], vx0 = xVelocity[index], vy0 = yVelocity[index], r0 = radius[index];
+		for (int j = from; j < to; j++) {
+			double time = times[j - from];
+			// A select between two constants, not a branch: infinite times give NaN coordinates.
+			double finite = time < Double.POSITIVE_INFINITY ? 1 : Double.NaN;
+			double newx = x0 + time * vx0;
+			double newy = y0 + time * vy0;
+			double fraction = r0 / (r0 + radius[j]);
+			out[2 * (j - from)] = finite * (newx + fraction * (x[j] + time * xVelocity[j] - newx));
+			out[2 * (j - from) + 1] = finite * (newy + fraction * (y[j] + time * yVelocity[j] - newy));
+		}
+	}
+
+	/**
+	 * Returns a new store holding a copy of the state of each of the given ships, in the order of iteration.
+	 * @param ships The ships to be copied.
+	 * @return A store in which the ship at index i has the position, velocity, radius and direction of the i-th given ship.
+	 * @throws IllegalArgumentException If one of the given ships is a null-pointer.
+	 */
+	public static ShipStore copyOf(Collection<Ship> ships) throws IllegalArgumentException {
+		ShipStore result = new ShipStore(ships.size());
+		for (Ship ship : ships) {
+			if (ship == null)
+				throw new IllegalArgumentException("Ship is not a valid ship");
+			int i = result.size++;
+			result.x[i] = ship.getX();
+			result.y[i] = ship.getY();
+			result.xVelocity[i] = ship.getXVelocity();
+			result.yVelocity[i] = ship.getYVelocity();
+			result.radius[i] = ship.getRadius();
+			result.direction[i] = ship.getDirection();
+		}
+		return result;
+	}
+
+	/**
+	 * Write the state of all ships in this store to the given file, replacing its contents.
+	 * The file holds a header of HEADER_SIZE bytes, being the magic number FILE_MAGIC, the format version FILE_VERSION, the
+	 * number of ships and a reserved zero, all as 32-bit integers. The header is followed by the columns x, y, xVelocity,
+	 * yVelocity, radius and direction, each holding one 64-bit floating point number per ship. All values are little-endian.
+	 * The file is written through a memory mapping, so its contents are not necessarily on disk when this method returns.
+	 * @param file The file to write to.
+	 * @throws IOException If the file cannot be written.
+	 */
+	public void save(File file) throws IOException {
+		long length = HEADER_SIZE + (long) COLUMNS * 8 * size;
+		if (length > Integer.MAX_VALUE)
+			throw new IOException("Too many ships for a single file: " + size);
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+		try {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			buffer.putInt(FILE_MAGIC).putInt(FILE_VERSION).putInt(size).putInt(0);
+			DoubleBuffer columns = buffer.asDoubleBuffer();
+			columns.put(x, 0, size).put(y, 0, size).put(xVelocity, 0, size).put(yVelocity, 0, size).put(radius, 0, size)
+					.put(direction, 0, size);
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * Returns a new store holding the ships written to the given file by save. The state of the ships is restored as it
+	 * was saved; no handles are created until they are asked for.
+	 * @param file The file to read from.
+	 * @throws IOException If the file cannot be read, or if it does not hold ships in the format written by save.
+	 */
+	public static ShipStore load(File file) throws IOException {
+		FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+		try {
+			long length = channel.size();
+			if (length < HEADER_SIZE || length > Integer.MAX_VALUE)
+				throw new IOException("Not a file of ships: " + file);
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+			buffer.order(ByteOrder.LITTLE_ENDIAN);
+			if (buffer.getInt() != FILE_MAGIC)
+				throw new IOException("Not a file of ships: " + file);
+			int version = buffer.getInt();
+			if (version != FILE_VERSION)
+				throw new IOException("Unsupported version " + version + " of file " + file);
+			int count = buffer.getInt();
+			buffer.getInt();
+			if (count < 0 || length != HEADER_SIZE + (long) COLUMNS * 8 * count)
+				throw new IOException("File of ships has the wrong size: " + file);
+			ShipStore result = new ShipStore(count);
+			DoubleBuffer columns = buffer.asDoubleBuffer();
+			columns.get(result.x, 0, count).get(result.y, 0, count).get(result.xVelocity, 0, count)
+					.get(result.yVelocity, 0, count).get(result.radius, 0, count).get(result.direction, 0, count);
+			result.size = count;
+			return result;
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * The magic number at the start of every file written by save. Its value spells "ASTS", but like every value in the
+	 * file it is written little-endian, so the first four bytes of a file spell "STSA".
+	 */
+	public static final int FILE_MAGIC = 0x41535453;
+
+	/**
+	 * The version of the format written by save.
+	 */
+	public static final int FILE_VERSION = 1;
+
+	/**
+	 * The number of bytes preceding the columns in a file written by save.
+	 */
+	public static final int HEADER_SIZE = 16;
+
+	private static final int COLUMNS = 6;
+
+	private int size;
+	private double[] x;
+	private double[] y;
+	private double[] xVelocity;
+	private double[] yVelocity;
+	private double[] radius;
+	private double[] direction;
+	private ShipHandle[] handles;
+
+}
@@ -0,0 +1,520 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A uniform grid used as a broad phase for queries on large sets of ships. Every ship is stored in each cell that is
+ * covered by its bounding box, so two ships can only overlap if they share at least one cell.
+ * To avoid reporting a pair or a ship more than once, a result is only reported in the cell that contains the lower left
+ * corner of the intersection of both bounding boxes.
+ * A grid may be built for a sweep: the bounding box of a ship then covers the ship both at its current position and at the
+ * position it reaches after moving for the duration of the sweep. Ships whose box would cover too many cells are not
+ * stored in cells, but kept aside and compared with every other ship.
+ * A grid may also be periodic, for a world that wraps around: its cells then repeat after the period along each axis, so a
+ * ship that covers an edge of the world is stored in the cells at both sides of it, and pairs are compared in the image of
+ * the second ship that lies nearest to the first one. The number of cells, and so the work per cell, stays bounded however
+ * long ships move. To keep the nearest image unambiguous, ships whose box covers more than a sixth of a period are kept
+ * aside as well.
+ * In a world with reflecting walls, the bounding box of a swept ship is folded back at the walls, so it also covers the
+ * part of its track after a bounce.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+class SpatialGrid {
+
+	/**
+	 * Initialize this new grid with the given cell size, without a sweep.
+	 * @param cellSize The length of the sides of the cells of this new grid.
+	 * @throws IllegalArgumentException If the given cell size is not a positive number.
+	 */
+	SpatialGrid(double cellSize) throws IllegalArgumentException {
+		this(cellSize, 0);
+	}
+
+	/**
+	 * Initialize this new grid with the given cell size and sweep.
+	 * @param cellSize The length of the sides of the cells of this new grid.
+	 * @param sweep The duration over which the bounding boxes of ships are swept.
+	 * @throws IllegalArgumentException If the given cell size is not a positive number, or if the given sweep is negative.
+	 */
+	SpatialGrid(double cellSize, double sweep) throws IllegalArgumentException {
+		this(cellSize, sweep, Boundary.UNBOUNDED, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Initialize this new grid with the given cell size and sweep, for a world with the given boundary and size. If that
+	 * world wraps around, the cells are stretched a little along each axis, so that a whole number of them fits in the
+	 * world.
+	 * @param cellSize The smallest length of the sides of the cells of this new grid.
+	 * @param sweep The duration over which the bounding boxes of ships are swept.
+	 * @param boundary The boundary of the world whose ships are stored in this new grid.
+	 * @param width The width of that world.
+	 * @param height The height of that world.
+	 * @throws IllegalArgumentException If the given cell size is not a positive number, if the given sweep is negative, if
+	 * the given boundary is a null-pointer, or if the world is bounded and its width or height is not positive.
+	 */
+	SpatialGrid(double cellSize, double sweep, Boundary boundary, double width, double height)
+			throws IllegalArgumentException {
+		if (!(cellSize > 0) || Double.isInfinite(cellSize))
+			throw new IllegalArgumentException("Cell size must be a positive number");
+		if (!(sweep >= 0) || Double.isInfinite(sweep))
+			throw new IllegalArgumentException("Sweep must be a positive number or zero");
+		if (boundary == null)
+			throw new IllegalArgumentException("Boundary is not a valid boundary");
+		if (boundary != Boundary.UNBOUNDED && (!(width > 0) || !(height > 0)))
+			throw new IllegalArgumentException("Size of a bounded world must be a positive number");
+		this.cellSize = cellSize;
+		this.sweep = sweep;
+		this.xPeriod = boundary == Boundary.WRAP ? width : Double.POSITIVE_INFINITY;
+		this.yPeriod = boundary == Boundary.WRAP ? height : Double.POSITIVE_INFINITY;
+		this.xWall = boundary == Boundary.REFLECT ? width : Double.POSITIVE_INFINITY;
+		this.yWall = boundary == Boundary.REFLECT ? height : Double.POSITIVE_INFINITY;
+		this.nbColumns = getNbCells(xPeriod, cellSize);
+		this.nbRows = getNbCells(yPeriod, cellSize);
+		this.cellWidth = this.nbColumns == 0 ? cellSize : xPeriod / this.nbColumns;
+		this.cellHeight = this.nbRows == 0 ? cellSize : yPeriod / this.nbRows;
+	}
+
+	/**
+	 * Returns the number of cells that fit in the given period, or zero if the period is infinite.
+	 */
+	private static int getNbCells(double period, double cellSize) {
+		if (Double.isInfinite(period))
+			return 0;
+		return (int) Math.max(1, Math.floor(period / cellSize));
+	}
+
+	/**
+	 * Returns a grid holding the given ships, with cells that are large enough to never let a ship cover more than two
+	 * cells along each axis.
+	 * @param ships The ships to be stored in the new grid.
+	 * @return A grid with a cell size of twice the largest radius among the given ships.
+	 */
+	static SpatialGrid build(Collection<Ship> ships) {
+		return build(ships, 0);
+	}
+
+	/**
+	 * Returns a grid holding the given ships, swept over the given duration. The cells are large enough to hold a ship that
+	 * does not move, and to hold the distance a ship moving at the mean speed of the given ships covers during the sweep,
+	 * so that a long sweep does not make the boxes of most ships cover too many cells.
+	 * @param ships The ships to be stored in the new grid.
+	 * @param sweep The duration over which the bounding boxes of the ships are swept.
+	 * @return A grid with a cell size of twice the largest radius among the given ships, or of the distance covered at
+	 * their mean speed during the sweep if that is larger.
+	 */
+	static SpatialGrid build(Collection<Ship> ships, double sweep) {
+		return build(ships, sweep, Boundary.UNBOUNDED, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+	}
+
+	/**
+	 * Returns a grid holding the given ships, swept over the given duration, for a world with the given boundary and size.
+	 * @param ships The ships to be stored in the new grid.
+	 * @param sweep The duration over which the bounding boxes of the ships are swept.
+	 * @param boundary The boundary of the world of the given ships.
+	 * @param width The width of that world.
+	 * @param height The height of that world.
+	 * @return A grid with cells of at least twice the largest radius among the given ships, and of at least the distance
+	 * covered at their mean speed during the sweep.
+	 */
+	static SpatialGrid build(Collection<Ship> ships, double sweep, Boundary boundary, double width, double height) {
+		double maxradius = 0, totalspeed = 0;
+		for (Ship ship : ships) {
+			maxradius = Math.max(maxradius, ship.getRadius());
+			totalspeed += ship.getVelocity();
+		}
+		double cellsize = Math.max(2 * maxradius, ships.isEmpty() ? 0 : sweep * totalspeed / ships.size());
+		SpatialGrid grid = new SpatialGrid(cellsize > 0 ? cellsize : 1, sweep, boundary, width, height);
+		for (Ship ship : ships)
+			grid.insert(ship);
+		return grid;
+	}
+
+	/**
+	 * Returns the smallest length of the sides of the cells of this grid.
+	 */
+	double getCellSize() {
+		return this.cellSize;
+	}
+
+	private final double cellSize;
+	private final double cellWidth;
+	private final double cellHeight;
+
+	/**
+	 * Checks whether the cells of this grid repeat along either axis.
+	 */
+	boolean isPeriodic() {
+		return this.nbColumns > 0 || this.nbRows > 0;
+	}
+
+	private final double xPeriod;
+	private final double yPeriod;
+
+	/**
+	 * The distance between the walls along each axis of a world with reflecting walls, or Double.POSITIVE_INFINITY if
+	 * there are no walls.
+	 */
+	private final double xWall;
+	private final double yWall;
+
+	/**
+	 * The number of cells within the period along each axis, or zero along an axis without a period.
+	 */
+	private final int nbColumns;
+	private final int nbRows;
+
+	/**
+	 * Returns the duration over which the bounding boxes of the ships in this grid are swept.
+	 */
+	double getSweep() {
+		return this.sweep;
+	}
+
+	private final double sweep;
+
+	/**
+	 * Add the given ship to every cell covered by its bounding box, or to the ships that are kept aside if it covers too
+	 * many cells.
+	 * @param ship The ship to be added.
+	 */
+	void insert(Ship ship) {
+		if (maxX(ship) - minX(ship) > xPeriod / 6 || maxY(ship) - minY(ship) > yPeriod / 6) {
+			oversized.add(ship);
+			return;
+		}
+		long minx = cellIndexX(minX(ship));
+		long maxx = cellIndexX(maxX(ship));
+		long miny = cellIndexY(minY(ship));
+		long maxy = cellIndexY(maxY(ship));
+		if (((double) maxx - minx + 1) * ((double) maxy - miny + 1) > MAX_CELLS_PER_SHIP) {
+			oversized.add(ship);
+			return;
+		}
+		// A box that covers a whole period is stored in every cell along that axis once.
+		if (nbColumns > 0 && maxx - minx + 1 >= nbColumns) {
+			minx = 0;
+			maxx = nbColumns - 1;
+		}
+		if (nbRows > 0 && maxy - miny + 1 >= nbRows) {
+			miny = 0;
+			maxy = nbRows - 1;
+		}
+		for (long cx = minx; cx <= maxx; cx++)
+			for (long cy = miny; cy <= maxy; cy++)
+				getOrCreateCell(wrap(cx, nbColumns), wrap(cy, nbRows)).ships.add(ship);
+	}
+
+	private static final int MAX_CELLS_PER_SHIP = 64;
+
+	/**
+	 * Returns the cells of this grid that hold at least one ship, in the order in which they were created.
+	 */
+	List<Cell> getCells() {
+		return this.cellList;
+	}
+
+	/**
+	 * Adds all pairs of overlapping ships that are reported by the given cell to the given list.
+	 * @param cell The cell to collect pairs from.
+	 * @param result The list to which the pairs are added, as arrays of length 2.
+	 * @return The number of pairs that were tested for overlap.
+	 */
+	int collectOverlappingPairs(Cell cell, List<Ship[]> result) {
+		int candidates = 0;
+		List<Ship> ships = cell.ships;
+		for (int i = 0; i < ships.size(); i++) {
+			Ship first = ships.get(i);
+			for (int j = i + 1; j < ships.size(); j++) {
+				Ship second = ships.get(j);
+				if (isReported(cell, first, second)) {
+					candidates++;
+					if (first.overlap(second))
+						result.add(new Ship[] { first, second });
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Adds all pairs of overlapping ships that involve a ship that is kept aside to the given list.
+	 * @return The number of pairs that were compared, since a ship that is kept aside is compared with every other ship.
+	 */
+	long collectOversizedOverlappingPairs(List<Ship[]> result) {
+		long candidates = 0;
+		List<Ship> others = new ArrayList<Ship>();
+		for (int i = 0; i < oversized.size(); i++) {
+			others.clear();
+			candidates += collectOversizedCandidates(i, others);
+			for (Ship other : others) {
+				if (oversized.get(i).overlap(other))
+					result.add(new Ship[] { oversized.get(i), other });
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns all pairs of overlapping ships in this grid.
+	 * @return A list of arrays of length 2, each holding two distinct ships that overlap.
+	 */
+	List<Ship[]> getOverlappingPairs() {
+		List<Ship[]> result = new ArrayList<Ship[]>();
+		long candidates = 0;
+		for (Cell cell : cellList)
+			candidates += collectOverlappingPairs(cell, result);
+		candidates += collectOversizedOverlappingPairs(result);
+		this.nbCandidates = candidates;
+		return result;
+	}
+
+	/**
+	 * Returns the number of pairs, or ships for a search near a ship, that passed the broad phase and were tested exactly
+	 * during the last query on this grid that was done on a single thread.
+	 */
+	long getNbCandidates() {
+		return this.nbCandidates;
+	}
+
+	private long nbCandidates;
+
+	/**
+	 * Adds all pairs of ships that are reported by the given cell and collide during the sweep of this grid to the given
+	 * list.
+	 * @param cell The cell to collect impacts from.
+	 * @param result The list to which the impacts are added.
+	 * @return The number of pairs for which the time of impact was computed.
+	 */
+	int collectImpacts(Cell cell, List<Impact> result) {
+		int candidates = 0;
+		List<Ship> ships = cell.ships;
+		for (int i = 0; i < ships.size(); i++) {
+			Ship first = ships.get(i);
+			for (int j = i + 1; j < ships.size(); j++) {
+				Ship second = ships.get(j);
+				if (isReported(cell, first, second)) {
+					candidates++;
+					addImpact(first, second, result);
+				}
+			}
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns all pairs of ships in this grid that collide during the sweep of this grid, in no particular order.
+	 */
+	List<Impact> getImpacts() {
+		List<Impact> result = new ArrayList<Impact>();
+		long candidates = 0;
+		for (Cell cell : cellList)
+			candidates += collectImpacts(cell, result);
+		List<Ship> others = new ArrayList<Ship>();
+		for (int i = 0; i < oversized.size(); i++) {
+			others.clear();
+			candidates += collectOversizedCandidates(i, others);
+			for (Ship other : others)
+				addImpact(oversized.get(i), other, result);
+		}
+		this.nbCandidates = candidates;
+		return result;
+	}
+
+	private void addImpact(Ship first, Ship second, List<Impact> result) {
+		double time = first.getTimeOfImpact(second, sweep);
+		if (time != Double.POSITIVE_INFINITY)
+			result.add(new Impact(first, second, time));
+	}
+
+	/**
+	 * Adds the ships whose bounding box intersects the bounding box of the oversized ship at the given index to the given
+	 * list, leaving out oversized ships that come before it, so every pair is added once. In a periodic grid, the box of an
+	 * oversized ship may reach several images of another ship, so all other ships are added, each of them from the first
+	 * cell it is stored in.
+	 * @return The number of ships the oversized ship was compared with.
+	 */
+	private long collectOversizedCandidates(int index, List<Ship> result) {
+		Ship ship = oversized.get(index);
+		boolean periodic = isPeriodic();
+		long compared = 0;
+		for (int i = index + 1; i < oversized.size(); i++) {
+			compared++;
+			if (periodic || boundsIntersect(ship, oversized.get(i)))
+				result.add(oversized.get(i));
+		}
+		for (Cell cell : cellList) {
+			compared += cell.ships.size();
+			for (Ship other : cell.ships) {
+				if (periodic ? isFirstCell(cell, other)
+						: boundsIntersect(ship, other) && isReportingCell(cell, ship, minX(ship), minY(ship), other))
+					result.add(other);
+			}
+		}
+		return compared;
+	}
+
+	/**
+	 * Checks whether the given cell reports the combination of both given ships.
+	 */
+	private boolean isReported(Cell cell, Ship first, Ship second) {
+		return boundsIntersect(first, second) && isReportingCell(cell, first, minX(first), minY(first), second);
+	}
+
+	/**
+	 * Checks whether the bounding boxes of both ships intersect, taking the image of the second box that lies nearest to the
+	 * first one.
+	 */
+	private boolean boundsIntersect(Ship first, Ship second) {
+		double offsetx = nbColumns == 0 ? 0 : getXShift(first, second) * xPeriod;
+		double offsety = nbRows == 0 ? 0 : getYShift(first, second) * yPeriod;
+		return minX(first) <= maxX(second) + offsetx && minX(second) + offsetx <= maxX(first)
+				&& minY(first) <= maxY(second) + offsety && minY(second) + offsety <= maxY(first);
+	}
+
+	/**
+	 * Returns the number of periods along the x axis over which the second ship is shifted to its image nearest to the first
+	 * ship, which is zero if this grid does not repeat along the x axis.
+	 */
+	private long getXShift(Ship first, Ship second) {
+		return nbColumns == 0 ? 0 : (long) Math.rint((first.getX() - second.getX()) / xPeriod);
+	}
+
+	/**
+	 * Returns the number of periods along the y axis over which the second ship is shifted to its image nearest to the first
+	 * ship, which is zero if this grid does not repeat along the y axis.
+	 */
+	private long getYShift(Ship first, Ship second) {
+		return nbRows == 0 ? 0 : (long) Math.rint((first.getY() - second.getY()) / yPeriod);
+	}
+
+	private double minX(Ship ship) {
+		return getLowest(ship.getX(), ship.getXVelocity(), ship.getRadius(), xWall) - ship.getRadius();
+	}
+
+	private double maxX(Ship ship) {
+		return getHighest(ship.getX(), ship.getXVelocity(), ship.getRadius(), xWall) + ship.getRadius();
+	}
+
+	private double minY(Ship ship) {
+		return getLowest(ship.getY(), ship.getYVelocity(), ship.getRadius(), yWall) - ship.getRadius();
+	}
+
+	private double maxY(Ship ship) {
+		return getHighest(ship.getY(), ship.getYVelocity(), ship.getRadius(), yWall) + ship.getRadius();
+	}
+
+	/**
+	 * Returns the smallest coordinate along one axis that the center of a ship with the given radius at the given
+	 * coordinate, moving with the given velocity, reaches during the sweep of this grid, if it bounces off walls at the
+	 * given distance from each other. A ship that bounced off the far wall comes back, and may reach the near wall as well.
+	 */
+	private double getLowest(double coordinate, double velocity, double radius, double wall) {
+		double end = coordinate + sweep * velocity;
+		if (Double.isInfinite(wall) || (end >= radius && end <= wall - radius))
+			return Math.min(coordinate, end);
+		if (end < radius)
+			return radius;
+		double back = 2 * (wall - radius) - end;
+		return back > radius ? Math.min(coordinate, back) : radius;
+	}
+
+	/**
+	 * Returns the largest coordinate along one axis that the center of a ship with the given radius at the given coordinate,
+	 * moving with the given velocity, reaches during the sweep of this grid, if it bounces off walls at the given distance
+	 * from each other.
+	 */
+	private double getHighest(double coordinate, double velocity, double radius, double wall) {
+		double end = coordinate + sweep * velocity;
+		if (Double.isInfinite(wall) || (end >= radius && end <= wall - radius))
+			return Math.max(coordinate, end);
+		if (end > wall - radius)
+			return wall - radius;
+		double back = 2 * radius - end;
+		return back < wall - radius ? Math.max(coordinate, back) : wall - radius;
+	}
+
+	/**
+	 * Checks whether the given cell contains the lower left corner of the intersection of a box with the given lower left
+	 * corner, around the given ship, and the bounding box of the other ship in its image nearest to the given ship. Only that
+	 * cell reports the combination of both boxes. The corner is found among the indices of the cells, in which the images of
+	 * a box lie a whole number of cells apart.
+	 */
+	private boolean isReportingCell(Cell cell, Ship ship, double minx, double miny, Ship other) {
+		long cx = Math.max(cellIndexX(minx), cellIndexX(minX(other)) + getXShift(ship, other) * nbColumns);
+		long cy = Math.max(cellIndexY(miny), cellIndexY(minY(other)) + getYShift(ship, other) * nbRows);
+		return wrap(cx, nbColumns) == cell.cx && wrap(cy, nbRows) == cell.cy;
+	}
+
+	/**
+	 * Checks whether the given cell is the one that holds the lower left corner of the bounding box of the given ship.
+	 */
+	private boolean isFirstCell(Cell cell, Ship ship) {
+		return wrap(cellIndexX(minX(ship)), nbColumns) == cell.cx && wrap(cellIndexY(minY(ship)), nbRows) == cell.cy;
+	}
+
+	private long cellIndexX(double coordinate) {
+		return (long) Math.floor(coordinate / cellWidth);
+	}
+
+	private long cellIndexY(double coordinate) {
+		return (long) Math.floor(coordinate / cellHeight);
+	}
+
+	/**
+	 * Returns the given cell index within the given number of cells along an axis, or the index itself if that number is
+	 * zero.
+	 */
+	private static int wrap(long index, int count) {
+		if (count == 0)
+			return (int) index;
+		int result = (int) (index % count);
+		return result < 0 ? result + count : result;
+	}
+
+	private static long key(int cx, int cy) {
+		return ((long) cx << 32) | (cy & 0xffffffffL);
+	}
+
+	private Cell getOrCreateCell(int cx, int cy) {
+		long key = key(cx, cy);
+		Cell cell = cells.get(key);
+		if (cell == null) {
+			cell = new Cell(cx, cy);
+			cells.put(key, cell);
+			cellList.add(cell);
+		}
+		return cell;
+	}
+
+	private final HashMap<Long, Cell> cells = new HashMap<Long, Cell>();
+	private final List<Cell> cellList = new ArrayList<Cell>();
+	private final List<Ship> oversized = new ArrayList<Ship>();
+
+	/**
+	 * A single cell of a grid, holding the ships whose bounding box covers it.
+	 */
+	static class Cell {
+
+		Cell(int cx, int cy) {
+			this.cx = cx;
+			this.cy = cy;
+		}
+
+		/**
+		 * Returns the ships stored in this cell.
+		 */
+		List<Ship> getShips() {
+			return this.ships;
+		}
+
+		final int cx;
+		final int cy;
+		private final List<Ship> ships = new ArrayList<Ship>(4);
+	}
+
+}
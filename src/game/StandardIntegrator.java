@@ -0,0 +1,133 @@
+package game;
+
+/**
+ * An enumeration of the integrators offered by this game.
+ * For the constant acceleration of a ship's engine, explicit and semi-implicit Euler are off by half the acceleration times
+ * the square of the step in every step, so they need small steps once ships accelerate. Velocity Verlet and the analytic
+ * solution are exact for such an acceleration, and allow steps of any size. Without acceleration, all of them move a ship
+ * exactly like Ship.move.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public enum StandardIntegrator implements Integrator {
+
+	/**
+	 * Moves a ship with its velocity at the start of the step, and then changes the velocity.
+	 */
+	EULER {
+		@Override
+		public void step(Ship ship, double duration) throws NegativeTimeException {
+			double ax = ship.getXAcceleration();
+			double ay = ship.getYAcceleration();
+			double vx = ship.getXVelocity();
+			double vy = ship.getYVelocity();
+			ship.advance(duration, ship.getX() + duration * vx, ship.getY() + duration * vy, vx + duration * ax,
+					vy + duration * ay);
+		}
+
+		@Override
+		public double getMaxStep(double acceleration, double tolerance) {
+			return getMaxEulerStep(acceleration, tolerance);
+		}
+	},
+
+	/**
+	 * Changes the velocity of a ship first, and then moves it with its velocity at the end of the step.
+	 */
+	SEMI_IMPLICIT_EULER {
+		@Override
+		public void step(Ship ship, double duration) throws NegativeTimeException {
+			double vx = ship.getXVelocity() + duration * ship.getXAcceleration();
+			double vy = ship.getYVelocity() + duration * ship.getYAcceleration();
+			ship.advance(duration, ship.getX() + duration * vx, ship.getY() + duration * vy, vx, vy);
+		}
+
+		@Override
+		public double getMaxStep(double acceleration, double tolerance) {
+			return getMaxEulerStep(acceleration, tolerance);
+		}
+	},
+
+	/**
+	 * Moves a ship with its velocity and half of its acceleration over the step, and changes its velocity by the mean of
+	 * the accelerations at the start and at the end of the step. The acceleration of a ship only depends on its direction,
+	 * which does not change during a step, so both are equal.
+	 */
+	VELOCITY_VERLET {
+		@Override
+		public void step(Ship ship, double duration) throws NegativeTimeException {
+			double ax = ship.getXAcceleration();
+			double ay = ship.getYAcceleration();
+			double vx = ship.getXVelocity();
+			double vy = ship.getYVelocity();
+			double newx = ship.getX() + duration * (vx + 0.5 * duration * ax);
+			double newy = ship.getY() + duration * (vy + 0.5 * duration * ay);
+			ship.advance(duration, newx, newy, vx + duration * ax, vy + duration * ay);
+		}
+
+		@Override
+		public double getMaxStep(double acceleration, double tolerance) {
+			return Double.POSITIVE_INFINITY;
+		}
+	},
+
+	/**
+	 * Moves a ship along the exact track of a constant acceleration. Unlike the other integrators, it also takes the speed
+	 * of light into account within the step: once a ship reaches the speed of light, it goes on at that velocity for the
+	 * rest of the step.
+	 */
+	CONSTANT_ACCELERATION {
+		@Override
+		public void step(Ship ship, double duration) throws NegativeTimeException {
+			double ax = ship.getXAcceleration();
+			double ay = ship.getYAcceleration();
+			double vx = ship.getXVelocity();
+			double vy = ship.getYVelocity();
+			double accelerated = getTimeToLightSpeed(vx, vy, ax, ay);
+			if (!(accelerated < duration)) {
+				ship.advance(duration, ship.getX() + duration * (vx + 0.5 * duration * ax),
+						ship.getY() + duration * (vy + 0.5 * duration * ay), vx + duration * ax, vy + duration * ay);
+				return;
+			}
+			if (duration < 0)
+				throw new NegativeTimeException(duration);
+			double cruising = duration - accelerated;
+			double cx = vx + accelerated * ax;
+			double cy = vy + accelerated * ay;
+			ship.advance(duration, ship.getX() + accelerated * (vx + 0.5 * accelerated * ax) + cruising * cx,
+					ship.getY() + accelerated * (vy + 0.5 * accelerated * ay) + cruising * cy, cx, cy);
+		}
+
+		@Override
+		public double getMaxStep(double acceleration, double tolerance) {
+			return Double.POSITIVE_INFINITY;
+		}
+	};
+
+	/**
+	 * The position of both Euler integrators is off by half the acceleration times the square of the step.
+	 */
+	private static double getMaxEulerStep(double acceleration, double tolerance) {
+		if (acceleration == 0)
+			return Double.POSITIVE_INFINITY;
+		return Math.sqrt(2 * tolerance / acceleration);
+	}
+
+	/**
+	 * Returns the time after which a ship with the given velocity and the given constant acceleration reaches the speed of
+	 * light, or positive infinity if it never does.
+	 */
+	private static double getTimeToLightSpeed(double vx, double vy, double ax, double ay) {
+		double a = ax * ax + ay * ay;
+		if (a == 0)
+			return Double.POSITIVE_INFINITY;
+		double b = vx * ax + vy * ay;
+		double c = vx * vx + vy * vy - Ship.LIGHTSPEED * Ship.LIGHTSPEED;
+		double d = b * b - a * c;
+		if (d < 0)
+			return Double.POSITIVE_INFINITY;
+		return Math.max(0, (-b + Math.sqrt(d)) / a);
+	}
+
+}
@@ -0,0 +1,310 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import asteroids.IFacade;
+import asteroids.IShip;
+import asteroids.IWorld;
+import asteroids.ModelException;
+
+/**
+ * A facade whose ships are kept in a single ship store instead of as separate Ship objects. The ships it creates are
+ * handles on that store.
+ * The worlds of this facade are unbounded, and all of its distances, overlaps, times to collision and moves are those of
+ * an infinite plane. Worlds that wrap around or reflect ships are only offered by Facade.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class StoreFacade implements IFacade {
+
+	/**
+	 * Initialize this new facade with an empty store.
+	 */
+	public StoreFacade() {
+		this(new ShipStore());
+	}
+
+	/**
+	 * Initialize this new facade for the ships of the given store, for instance a store restored with ShipStore.load. Handles
+	 * on those ships are obtained with ShipStore.getHandle.
+	 * @param store The store holding the ships of this new facade.
+	 * @throws IllegalArgumentException If the given store is a null-pointer.
+	 */
+	public StoreFacade(ShipStore store) throws IllegalArgumentException {
+		if (store == null)
+			throw new IllegalArgumentException("Store is not a valid store");
+		this.store = store;
+	}
+
+	/**
+	 * Returns the store holding the ships created by this facade.
+	 */
+	@Basic @Immutable
+	public ShipStore getStore() {
+		return this.store;
+	}
+
+	private final ShipStore store;
+
+	private int index(IShip ship) throws ModelException {
+		ShipHandle handle = (ShipHandle) ship;
+		if (handle.getStore() != store)
+			throw new ModelException("Ship is not a ship of this facade");
+		return handle.getIndex();
+	}
+
+	/**
+	 * Checks whether the given ships are all ships of the store of this facade. A store has a single handle per ship, so a
+	 * set of as many handles on ships of the store as the store holds ships, holds every one of them once.
+	 */
+	private boolean isWholeStore(Collection<IShip> ships) {
+		if (!(ships instanceof Set) || ships.size() != store.getNbShips())
+			return false;
+		for (IShip ship : ships)
+			if (((ShipHandle) ship).getStore() != store)
+				return false;
+		return true;
+	}
+
+	@Override
+	public IShip createShip() {
+		return store.add(0, 0, 0, 0, 10, 0);
+	}
+
+	@Override
+	public IShip createShip(double x, double y, double xVelocity,
+			double yVelocity, double radius, double angle) {
+		return store.add(x, y, xVelocity, yVelocity, radius, angle);
+	}
+
+	@Override
+	public double getX(IShip ship) {
+		return store.getX(index(ship));
+	}
+
+	@Override
+	public double getY(IShip ship) {
+		return store.getY(index(ship));
+	}
+
+	@Override
+	public double getXVelocity(IShip ship) {
+		return store.getXVelocity(index(ship));
+	}
+
+	@Override
+	public double getYVelocity(IShip ship) {
+		return store.getYVelocity(index(ship));
+	}
+
+	@Override
+	public double getRadius(IShip ship) {
+		return store.getRadius(index(ship));
+	}
+
+	@Override
+	public double getDirection(IShip ship) {
+		return store.getDirection(index(ship));
+	}
+
+	@Override
+	public void move(IShip ship, double dt) {
+		try {
+			store.move(index(ship), dt);
+		} catch (NegativeTimeException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void thrust(IShip ship, double amount) {
+		store.thrust(index(ship), amount);
+	}
+
+	@Override
+	public void turn(IShip ship, double angle) {
+		store.turn(index(ship), angle);
+	}
+
+	@Override
+	public double getDistanceBetween(IShip ship1, IShip ship2) {
+		return store.getDistanceBetween(index(ship1), index(ship2));
+	}
+
+	@Override
+	public boolean overlap(IShip ship1, IShip ship2) {
+		return store.overlap(index(ship1), index(ship2));
+	}
+
+	@Override
+	public double getTimeToCollision(IShip ship1, IShip ship2) {
+		return store.getTimeToCollision(index(ship1), index(ship2));
+	}
+
+	@Override
+	public double[] getCollisionPosition(IShip ship1, IShip ship2) {
+		double[] out = new double[2];
+		if (!store.getCollisionPosition(index(ship1), index(ship2), out, 0))
+			return null;
+		return out;
+	}
+
+	@Override
+	public IWorld createWorld() {
+		return new StoreWorld(store);
+	}
+
+	@Override
+	public void addShip(IWorld world, IShip ship) {
+		try {
+			((StoreWorld) world).addShip((ShipHandle) ship);
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void removeShip(IWorld world, IShip ship) {
+		((StoreWorld) world).removeShip((ShipHandle) ship);
+	}
+
+	@Override
+	public Set<IShip> getShips(IWorld world) {
+		return Collections.<IShip>unmodifiableSet(((StoreWorld) world).getShips());
+	}
+
+	@Override
+	public List<IShip[]> getOverlappingPairs(IWorld world) {
+		return new ArrayList<IShip[]>(((StoreWorld) world).getOverlappingPairs());
+	}
+
+	@Override
+	public List<IShip> getShipsNear(IWorld world, IShip ship, double range) {
+		return new ArrayList<IShip>(((StoreWorld) world).getShipsNear((ShipHandle) ship, range));
+	}
+
+	@Override
+	public void moveAll(Collection<IShip> ships, double dt) {
+		try {
+			if (isWholeStore(ships)) {
+				store.moveAll(dt);
+			} else {
+				if (dt < 0)
+					throw new NegativeTimeException(dt);
+				for (IShip ship : ships)
+					store.move(index(ship), dt);
+			}
+		} catch (NegativeTimeException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void thrustAll(Collection<IShip> ships, double amount) {
+		for (IShip ship : ships)
+			store.thrust(index(ship), amount);
+	}
+
+	@Override
+	public void getPositions(IShip[] ships, double[] out) {
+		Facade.checkOutput(ships.length, out);
+		for (int i = 0; i < ships.length; i++) {
+			int index = index(ships[i]);
+			out[2 * i] = store.getX(index);
+			out[2 * i + 1] = store.getY(index);
+		}
+	}
+
+	@Override
+	public void getVelocities(IShip[] ships, double[] out) {
+		Facade.checkOutput(ships.length, out);
+		for (int i = 0; i < ships.length; i++) {
+			int index = index(ships[i]);
+			out[2 * i] = store.getXVelocity(index);
+			out[2 * i + 1] = store.getYVelocity(index);
+		}
+	}
+
+	@Override
+	public int getTimesToCollision(IShip ship, IShip[] others, double[] out) {
+		if (out == null || out.length < others.length)
+			throw new ModelException("Output array must hold a value per ship");
+		int first = index(ship);
+		for (int i = 0; i < others.length; i++)
+			out[i] = store.getTimeToCollision(first, index(others[i]));
+		return Ship.indexOfEarliest(out, others.length);
+	}
+
+	@Override
+	public int getCollisionPositions(IShip ship, IShip[] others, double[] out) {
+		Facade.checkOutput(others.length, out);
+		int first = index(ship);
+		int count = 0;
+		for (int i = 0; i < others.length; i++) {
+			if (store.getCollisionPosition(first, index(others[i]), out, 2 * i)) {
+				count++;
+			} else {
+				out[2 * i] = Double.NaN;
+				out[2 * i + 1] = Double.NaN;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getCollisionPositions(IShip ship, IShip[] others, double[] times, double[] out) {
+		Facade.checkOutput(others.length, out);
+		if (times == null || times.length < others.length)
+			throw new ModelException("Times must hold a value per ship");
+		int first = index(ship);
+		int count = 0;
+		for (int i = 0; i < others.length; i++) {
+			if (store.getCollisionPosition(first, index(others[i]), times[i], out, 2 * i)) {
+				count++;
+			} else {
+				out[2 * i] = Double.NaN;
+				out[2 * i + 1] = Double.NaN;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public boolean findCollisionPosition(IShip ship1, IShip ship2, double[] out) {
+		try {
+			return store.getCollisionPosition(index(ship1), index(ship2), out, 0);
+		} catch (IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public double getTimeOfImpact(IShip ship1, IShip ship2, double dt) {
+		try {
+			return store.getTimeOfImpact(index(ship1), index(ship2), dt);
+		} catch (NegativeTimeException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public List<IShip[]> getImpactingPairs(IWorld world, double dt) {
+		try {
+			return new ArrayList<IShip[]>(((StoreWorld) world).getImpactingPairs(dt));
+		} catch (NegativeTimeException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public void nextTick() {
+	}
+
+}
@@ -0,0 +1,135 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import asteroids.IWorld;
+
+/**
+ * A class of worlds holding handles on ships of a single ship store. Overlapping and impacting pairs are found by sorting
+ * the ships on the left side of their bounding box and sweeping along the x axis.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+class StoreWorld implements IWorld {
+
+	/**
+	 * Initialize this new world without any ships, for ships of the given store.
+	 */
+	StoreWorld(ShipStore store) {
+		this.store = store;
+	}
+
+	/**
+	 * Returns the handles on the ships in this world, in the order in which they were added.
+	 */
+	Set<ShipHandle> getShips() {
+		return this.ships;
+	}
+
+	/**
+	 * Add the ship of the given handle to this world.
+	 * @throws IllegalArgumentException If the given handle is a null-pointer, or refers to a ship of another store.
+	 */
+	void addShip(ShipHandle ship) throws IllegalArgumentException {
+		if (ship == null || ship.getStore() != store)
+			throw new IllegalArgumentException("Ship is not a valid ship");
+		this.ships.add(ship);
+	}
+
+	/**
+	 * Remove the ship of the given handle from this world.
+	 */
+	void removeShip(ShipHandle ship) {
+		this.ships.remove(ship);
+	}
+
+	/**
+	 * Returns all pairs of distinct ships in this world that overlap, as arrays of length 2.
+	 */
+	List<ShipHandle[]> getOverlappingPairs() {
+		ShipHandle[] sorted = sortedOnLeftSide(0);
+		List<ShipHandle[]> result = new ArrayList<ShipHandle[]>();
+		for (int i = 0; i < sorted.length; i++) {
+			int first = sorted[i].getIndex();
+			double maxx = store.sweptMaxX(first, 0);
+			for (int j = i + 1; j < sorted.length && store.sweptMinX(sorted[j].getIndex(), 0) <= maxx; j++) {
+				if (store.overlap(first, sorted[j].getIndex()))
+					result.add(new ShipHandle[] { sorted[i], sorted[j] });
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Returns all pairs of distinct ships in this world that touch within the given time step, as arrays of length 2, ordered
+	 * by the time after which they touch.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	List<ShipHandle[]> getImpactingPairs(double duration) throws NegativeTimeException {
+		if (!(duration >= 0))
+			throw new NegativeTimeException(duration);
+		ShipHandle[] sorted = sortedOnLeftSide(duration);
+		List<ShipHandle[]> pairs = new ArrayList<ShipHandle[]>();
+		final List<Double> times = new ArrayList<Double>();
+		for (int i = 0; i < sorted.length; i++) {
+			int first = sorted[i].getIndex();
+			double maxx = store.sweptMaxX(first, duration);
+			for (int j = i + 1; j < sorted.length && store.sweptMinX(sorted[j].getIndex(), duration) <= maxx; j++) {
+				double time = store.getTimeOfImpact(first, sorted[j].getIndex(), duration);
+				if (time != Double.POSITIVE_INFINITY) {
+					pairs.add(new ShipHandle[] { sorted[i], sorted[j] });
+					times.add(time);
+				}
+			}
+		}
+		Integer[] order = new Integer[pairs.size()];
+		for (int i = 0; i < order.length; i++)
+			order[i] = i;
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer first, Integer second) {
+				return Double.compare(times.get(first), times.get(second));
+			}
+		});
+		List<ShipHandle[]> result = new ArrayList<ShipHandle[]>(order.length);
+		for (Integer index : order)
+			result.add(pairs.get(index));
+		return result;
+	}
+
+	/**
+	 * Returns the ships of this world, sorted on the left side of the box bounding them over the given time step.
+	 */
+	private ShipHandle[] sortedOnLeftSide(final double duration) {
+		ShipHandle[] sorted = ships.toArray(new ShipHandle[ships.size()]);
+		Arrays.sort(sorted, new Comparator<ShipHandle>() {
+			@Override
+			public int compare(ShipHandle first, ShipHandle second) {
+				return Double.compare(store.sweptMinX(first.getIndex(), duration), store.sweptMinX(second.getIndex(), duration));
+			}
+		});
+		return sorted;
+	}
+
+	/**
+	 * Returns the ships of this world, apart from the given ship, whose distance to the given ship does not exceed the
+	 * given range.
+	 */
+	List<ShipHandle> getShipsNear(ShipHandle ship, double range) {
+		List<ShipHandle> result = new ArrayList<ShipHandle>();
+		for (ShipHandle other : ships)
+			if (other != ship && store.getDistanceBetween(ship.getIndex(), other.getIndex()) <= range)
+				result.add(other);
+		return result;
+	}
+
+	private final ShipStore store;
+	private final Set<ShipHandle> ships = new LinkedHashSet<ShipHandle>();
+
+}
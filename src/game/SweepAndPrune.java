@@ -0,0 +1,235 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+
+/**
+ * A class that finds overlapping and colliding ships of a world by keeping the ships sorted on the left side of their
+ * bounding box, and sweeping along the x axis.
+ * The order is kept between queries and repaired with an insertion sort before every query. Ships only move a little
+ * between two frames, so the order hardly changes and repairing it takes close to linear time; ships that do not move at
+ * all cost no swaps at all.
+ * Like a spatial grid, the boxes may be swept over a duration, to find ships that collide within a time step. The boxes
+ * do not follow ships across the edges of a world, so only unbounded worlds are handled.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class SweepAndPrune {
+
+	/**
+	 * Initialize this new broad phase for the given world, without a sweep.
+	 * @param world The world whose ships are searched.
+	 * @throws IllegalArgumentException If the given world is a null-pointer or is bounded.
+	 */
+	public SweepAndPrune(World world) throws IllegalArgumentException {
+		this(world, 0);
+	}
+
+	/**
+	 * Initialize this new broad phase for the given world, with the given sweep.
+	 * @param world The world whose ships are searched.
+	 * @param sweep The duration over which the bounding boxes of ships are swept.
+	 * @throws IllegalArgumentException If the given world is a null-pointer or is bounded, or if the given sweep is not a
+	 * positive number or zero.
+	 */
+	public SweepAndPrune(World world, double sweep) throws IllegalArgumentException {
+		if (world == null)
+			throw new IllegalArgumentException("World is not a valid world");
+		if (world.isBounded())
+			throw new IllegalArgumentException("World must be unbounded");
+		if (!(sweep >= 0) || Double.isInfinite(sweep))
+			throw new IllegalArgumentException("Sweep must be a positive number or zero");
+		this.world = world;
+		this.sweep = sweep;
+	}
+
+	/**
+	 * Returns the world whose ships are searched by this broad phase.
+	 */
+	@Basic @Immutable
+	public World getWorld() {
+		return this.world;
+	}
+
+	private final World world;
+
+	/**
+	 * Returns the duration over which the bounding boxes of the ships are swept.
+	 */
+	@Basic @Immutable
+	public double getSweep() {
+		return this.sweep;
+	}
+
+	private final double sweep;
+
+	/**
+	 * Returns the number of swaps the last update needed to restore the order of the ships.
+	 */
+	@Basic
+	public long getNbSwaps() {
+		return this.nbSwaps;
+	}
+
+	private long nbSwaps;
+
+	/**
+	 * Bring the order of the ships up to date with the current ships of the world and their current positions. Every
+	 * query does this first.
+	 */
+	public void update() {
+		int kept = 0;
+		for (int i = 0; i < size; i++) {
+			if (world.hasShip(ships[i]))
+				ships[kept++] = ships[i];
+			else
+				tracked.remove(ships[i]);
+		}
+		Arrays.fill(ships, kept, size, null);
+		size = kept;
+		if (tracked.size() != world.getNbShips()) {
+			for (Ship ship : world.getShips()) {
+				if (!tracked.containsKey(ship)) {
+					if (size == ships.length) {
+						ships = Arrays.copyOf(ships, Math.max(16, 2 * size));
+						keys = Arrays.copyOf(keys, ships.length);
+					}
+					ships[size++] = ship;
+					tracked.put(ship, Boolean.TRUE);
+				}
+			}
+		}
+		if (keys.length < ships.length)
+			keys = Arrays.copyOf(keys, ships.length);
+		for (int i = 0; i < size; i++)
+			keys[i] = minX(ships[i]);
+		long swaps = 0;
+		for (int i = 1; i < size; i++) {
+			Ship ship = ships[i];
+			double key = keys[i];
+			int j = i - 1;
+			while (j >= 0 && keys[j] > key) {
+				ships[j + 1] = ships[j];
+				keys[j + 1] = keys[j];
+				j--;
+				swaps++;
+			}
+			ships[j + 1] = ship;
+			keys[j + 1] = key;
+		}
+		this.nbSwaps = swaps;
+	}
+
+	/**
+	 * Returns all pairs of distinct ships in the world that overlap.
+	 * @return A list of arrays of length 2, each holding two ships of the world that overlap. Every pair is listed once, with
+	 * the ship whose box starts furthest to the left first.
+	 */
+	public List<Ship[]> getOverlappingPairs() {
+		update();
+		List<Ship[]> result = new ArrayList<Ship[]>();
+		long candidates = 0;
+		for (int i = 0; i < size; i++) {
+			Ship first = ships[i];
+			double maxx = maxX(first);
+			for (int j = i + 1; j < size && keys[j] <= maxx; j++) {
+				Ship second = ships[j];
+				if (!boundsIntersectY(first, second))
+					continue;
+				candidates++;
+				if (first.overlap(second))
+					result.add(new Ship[] { first, second });
+			}
+		}
+		world.searched(candidates, result.size());
+		return result;
+	}
+
+	/**
+	 * Returns all pairs of distinct ships in the world that touch within the sweep of this broad phase, if every ship keeps
+	 * its current velocity.
+	 * @return A list of impacts, ordered by the time after which both ships touch. Pairs that already overlap have a time of
+	 * zero.
+	 */
+	public List<Impact> getImpacts() {
+		update();
+		List<Impact> result = new ArrayList<Impact>();
+		long candidates = 0;
+		for (int i = 0; i < size; i++) {
+			Ship first = ships[i];
+			double maxx = maxX(first);
+			for (int j = i + 1; j < size && keys[j] <= maxx; j++) {
+				Ship second = ships[j];
+				if (!boundsIntersectY(first, second))
+					continue;
+				candidates++;
+				double time = first.getTimeOfImpact(second, sweep);
+				if (time != Double.POSITIVE_INFINITY)
+					result.add(new Impact(first, second, time));
+			}
+		}
+		Collections.sort(result);
+		world.searched(candidates, result.size());
+		return result;
+	}
+
+	/**
+	 * Returns the first pair of ships in the world that touch within the sweep of this broad phase, if every ship keeps its
+	 * current velocity.
+	 * @return The impact with the smallest time, or null if no ships touch within the sweep.
+	 */
+	public Impact getNextImpact() {
+		update();
+		Impact result = null;
+		long candidates = 0;
+		for (int i = 0; i < size; i++) {
+			Ship first = ships[i];
+			double maxx = maxX(first);
+			for (int j = i + 1; j < size && keys[j] <= maxx; j++) {
+				Ship second = ships[j];
+				if (!boundsIntersectY(first, second))
+					continue;
+				candidates++;
+				double time = first.getTimeOfImpact(second, sweep);
+				if (time != Double.POSITIVE_INFINITY && (result == null || time < result.getTime()))
+					result = new Impact(first, second, time);
+			}
+		}
+		world.searched(candidates, result == null ? 0 : 1);
+		return result;
+	}
+
+	private boolean boundsIntersectY(Ship first, Ship second) {
+		return minY(first) <= maxY(second) && minY(second) <= maxY(first);
+	}
+
+	private double minX(Ship ship) {
+		return Math.min(ship.getX(), ship.getX() + sweep * ship.getXVelocity()) - ship.getRadius();
+	}
+
+	private double maxX(Ship ship) {
+		return Math.max(ship.getX(), ship.getX() + sweep * ship.getXVelocity()) + ship.getRadius();
+	}
+
+	private double minY(Ship ship) {
+		return Math.min(ship.getY(), ship.getY() + sweep * ship.getYVelocity()) - ship.getRadius();
+	}
+
+	private double maxY(Ship ship) {
+		return Math.max(ship.getY(), ship.getY() + sweep * ship.getYVelocity()) + ship.getRadius();
+	}
+
+	private Ship[] ships = new Ship[16];
+	private double[] keys = new double[16];
+	private int size;
+	private final Map<Ship, Boolean> tracked = new IdentityHashMap<Ship, Boolean>();
+
+}
@@ -0,0 +1,208 @@
+package game;
+
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import be.kuleuven.cs.som.annotate.Basic;
+
+/**
+ * A class of caches remembering the time until two ships collide, so repeated queries about ships that have not been
+ * changed take constant time.
+ * The cache does not store times relative to the moment of the query, but the absolute moments at which the tracks of
+ * both ships meet and pass each other. Moving ships leaves their tracks unchanged, so an entry stays valid while ships
+ * move; it is only recomputed once either ship has been thrusted, turned or otherwise changed, which is detected through
+ * the versions of the ships.
+ * Ships that are no longer referenced elsewhere are dropped from the cache automatically.
+ * All methods are synchronized, so a cache may be shared by several threads, such as the thread that steps the ships and
+ * the thread that draws them. The ships themselves must not be changed while a query on them is answered.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class TimeOfImpactCache {
+
+	/**
+	 * Initialize this new cache without any entries.
+	 */
+	public TimeOfImpactCache() {
+	}
+
+	/**
+	 * Returns the time until the given ships collide, with the same result as first.getTimeToCollision(second).
+	 * @param first The first ship.
+	 * @param second The second ship.
+	 * @return Time until collision between both ships. If the ships never collide, this is equal to
+	 * Double.POSITIVE_INFINITY.
+	 * @throws IllegalArgumentException If either ship is a null-pointer.
+	 */
+	public synchronized double getTimeToCollision(Ship first, Ship second) throws IllegalArgumentException {
+		if (first == null || second == null)
+			throw new IllegalArgumentException("Ship is not a valid ship");
+		if (first == second)
+			return Double.POSITIVE_INFINITY;
+		if (first.getTime() != second.getTime() || first.getBoundedWorld(second) != null) {
+			// The ships have not been moved in step, so their positions do not belong to the same moment, or their tracks
+			// are not straight lines within the edges of their world.
+			nbMisses++;
+			return first.getTimeToCollision(second);
+		}
+		return getEntry(first, second).getTimeToCollision(first.getTime());
+	}
+
+	/**
+	 * Returns the time until the given ship collides with each of the given other ships, with the same result as
+	 * ship.getTimesToCollision(others, out).
+	 * @throws IllegalArgumentException If one of the given ships is a null-pointer, if the given arrays are null-pointers,
+	 * or if the given output array is shorter than the array of ships.
+	 */
+	public synchronized int getTimesToCollision(Ship ship, Ship[] others, double[] out) throws IllegalArgumentException {
+		if (others == null)
+			throw new IllegalArgumentException("Other ships are not valid ships");
+		if (out == null || out.length < others.length)
+			throw new IllegalArgumentException("Output array must hold a value per ship");
+		for (int i = 0; i < others.length; i++)
+			out[i] = getTimeToCollision(ship, others[i]);
+		return Ship.indexOfEarliest(out, others.length);
+	}
+
+	/**
+	 * Stores the position where the given ships collide in the given array, with the same result as
+	 * first.getCollisionPosition(second, out, offset), but reusing the cached time until both ships collide.
+	 * @throws IllegalArgumentException If either ship is a null-pointer, or if the given array cannot hold two coordinates
+	 * at the given offset.
+	 */
+	public synchronized boolean getCollisionPosition(Ship first, Ship second, double[] out, int offset) throws IllegalArgumentException {
+		if (out == null || offset < 0 || offset > out.length - 2)
+			throw new IllegalArgumentException("Array cannot hold a position at the given offset");
+		return first.getCollisionPosition(second, getTimeToCollision(first, second), out, offset);
+	}
+
+	/**
+	 * Returns the number of queries that were answered from this cache.
+	 */
+	@Basic
+	public synchronized long getNbHits() {
+		return this.nbHits;
+	}
+
+	private long nbHits;
+
+	/**
+	 * Returns the number of queries for which the time to collision had to be computed.
+	 */
+	@Basic
+	public synchronized long getNbMisses() {
+		return this.nbMisses;
+	}
+
+	private long nbMisses;
+
+	/**
+	 * Remove all entries involving the given ship from this cache.
+	 * @param ship The ship to be forgotten.
+	 */
+	public synchronized void remove(Ship ship) {
+		entries.remove(ship);
+		for (Map<Ship, Entry> others : entries.values())
+			others.remove(ship);
+	}
+
+	/**
+	 * Remove all entries from this cache.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns an up-to-date entry for the given ships, which have been moved over the same duration.
+	 */
+	private Entry getEntry(Ship first, Ship second) {
+		Entry entry = lookup(first, second);
+		if (entry == null) {
+			entry = lookup(second, first);
+			if (entry == null) {
+				entry = new Entry();
+				Map<Ship, Entry> others = entries.get(first);
+				if (others == null) {
+					others = new WeakHashMap<Ship, Entry>(4);
+					entries.put(first, others);
+				}
+				others.put(second, entry);
+				entry.update(first, second);
+				nbMisses++;
+				return entry;
+			}
+			// The time until collision is symmetric, so the entry can be used with both ships swapped.
+			Ship swap = first;
+			first = second;
+			second = swap;
+		}
+		if (entry.firstVersion != first.getVersion() || entry.secondVersion != second.getVersion()) {
+			entry.update(first, second);
+			nbMisses++;
+		} else {
+			nbHits++;
+		}
+		return entry;
+	}
+
+	private Entry lookup(Ship first, Ship second) {
+		Map<Ship, Entry> others = entries.get(first);
+		return others == null ? null : others.get(second);
+	}
+
+	private final Map<Ship, Map<Ship, Entry>> entries = new WeakHashMap<Ship, Map<Ship, Entry>>();
+
+	/**
+	 * The cached tracks of a pair of ships.
+	 */
+	private static class Entry {
+
+		/**
+		 * Compute the moments at which the tracks of both given ships meet and pass each other.
+		 */
+		void update(Ship first, Ship second) {
+			firstVersion = first.getVersion();
+			secondVersion = second.getVersion();
+			time = first.getTime();
+			timeToCollision = first.getTimeToCollision(second);
+			double deltarx = first.getX() - second.getX();
+			double deltary = first.getY() - second.getY();
+			double deltavx = first.getXVelocity() - second.getXVelocity();
+			double deltavy = first.getYVelocity() - second.getYVelocity();
+			double sigma = first.getRadius() + second.getRadius();
+			double a = deltavx * deltavx + deltavy * deltavy;
+			double b = deltavx * deltarx + deltavy * deltary;
+			double c = deltarx * deltarx + deltary * deltary - sigma * sigma;
+			double d = b * b - a * c;
+			if (a == 0 || d <= 0) {
+				contact = Double.NaN;
+				closest = Double.NEGATIVE_INFINITY;
+			} else {
+				contact = time + (-b - Math.sqrt(d)) / a;
+				closest = time - b / a;
+			}
+		}
+
+		/**
+		 * Returns the time until both ships collide, seen from the given moment.
+		 * The ships approach each other until the moment of their closest approach, so they collide in the future as long
+		 * as that moment has not been reached. The exact result of Ship.getTimeToCollision is returned for the moment at
+		 * which this entry was computed.
+		 */
+		double getTimeToCollision(double now) {
+			if (now == time)
+				return timeToCollision;
+			return now < closest ? contact - now : Double.POSITIVE_INFINITY;
+		}
+
+		long firstVersion;
+		long secondVersion;
+		double time;
+		double timeToCollision;
+		double contact;
+		double closest;
+	}
+
+}
@@ -0,0 +1,346 @@
+package game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import be.kuleuven.cs.som.annotate.Basic;
+import be.kuleuven.cs.som.annotate.Immutable;
+import asteroids.IWorld;
+
+/**
+ * A class of worlds holding a set of ships, with facilities to find overlapping ships and ships near a given ship without
+ * comparing every pair of ships.
+ * The queries use a uniform grid that is built from the current positions of the ships, so ships may be moved freely
+ * between two queries.
+ * A world is either unbounded, or it spans a rectangle from the origin to its width and height, with a boundary that
+ * determines what happens to ships that reach an edge. Distances, overlaps and collisions between ships in the same world
+ * take that boundary into account.
+ * @author Wouter Bruyninckx
+ * @version 1.0
+ *
+ */
+public class World implements IWorld {
+
+	/**
+	 * Initialize this new unbounded world without any ships.
+	 * @post This new world does not hold any ships.
+	 * 		|new.getNbShips() == 0
+	 * @post This new world is unbounded.
+	 * 		|new.getBoundary() == Boundary.UNBOUNDED
+	 */
+	public World() {
+		this(Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY, Boundary.UNBOUNDED);
+	}
+
+	/**
+	 * Initialize this new world with the given size and boundary, without any ships.
+	 * @param width The width of this new world.
+	 * @param height The height of this new world.
+	 * @param boundary The boundary of this new world.
+	 * @post This new world does not hold any ships.
+	 * 		|new.getNbShips() == 0
+	 * @post The size and the boundary of this new world are equal to the given ones.
+	 * 		|new.getWidth() == width && new.getHeight() == height && new.getBoundary() == boundary
+	 * @throws IllegalArgumentException If the given boundary is a null-pointer, or if this new world is bounded and the given
+	 * width or height is not a positive number.
+	 */
+	public World(double width, double height, Boundary boundary) throws IllegalArgumentException {
+		if (boundary == null)
+			throw new IllegalArgumentException("Boundary is not a valid boundary");
+		if (boundary != Boundary.UNBOUNDED
+				&& (!(width > 0) || !(height > 0) || Double.isInfinite(width) || Double.isInfinite(height)))
+			throw new IllegalArgumentException("Size of a bounded world must be a positive number");
+		this.width = width;
+		this.height = height;
+		this.boundary = boundary;
+	}
+
+	/**
+	 * Returns the width of this world.
+	 */
+	@Basic @Immutable
+	public double getWidth() {
+		return this.width;
+	}
+
+	private final double width;
+
+	/**
+	 * Returns the height of this world.
+	 */
+	@Basic @Immutable
+	public double getHeight() {
+		return this.height;
+	}
+
+	private final double height;
+
+	/**
+	 * Returns the boundary of this world.
+	 */
+	@Basic @Immutable
+	public Boundary getBoundary() {
+		return this.boundary;
+	}
+
+	/**
+	 * Checks whether this world has edges.
+	 * @return True if and only if the boundary of this world is not unbounded.
+	 * 		|result == (getBoundary() != Boundary.UNBOUNDED)
+	 */
+	public boolean isBounded() {
+		return this.boundary != Boundary.UNBOUNDED;
+	}
+
+	private final Boundary boundary;
+
+	/**
+	 * Returns the ships in this world, in the order in which they were added.
+	 * @return A read-only view on the ships of this world.
+	 */
+	@Basic
+	public Set<Ship> getShips() {
+		return Collections.unmodifiableSet(this.ships);
+	}
+
+	/**
+	 * Returns the number of ships in this world.
+	 */
+	public int getNbShips() {
+		return this.ships.size();
+	}
+
+	/**
+	 * Checks whether this world holds the given ship.
+	 * @param ship The ship to check.
+	 */
+	public boolean hasShip(Ship ship) {
+		return this.ships.contains(ship);
+	}
+
+	/**
+	 * Checks whether this world can hold the given ship.
+	 * @param ship The ship to check.
+	 * @return False if the given ship is a null-pointer or belongs to another world. Otherwise, true if the ship fits in
+	 * this world: in a world that wraps around, a ship must not be able to overlap two images of another ship of the same
+	 * size, and in a world with walls, it must fit between them.
+	 */
+	public boolean canHaveAsShip(Ship ship) {
+		return ship != null && (ship.getWorld() == null || ship.getWorld() == this)
+				&& this.boundary.canHold(ship.getRadius(), this.width, this.height);
+	}
+
+	/**
+	 * Add the given ship to this world. In a bounded world, the ship is moved within the edges of the world as if it had
+	 * crossed them.
+	 * @param ship The ship to be added.
+	 * @post This world holds the given ship.
+	 * 		|new.hasShip(ship)
+	 * @post The given ship belongs to this world.
+	 * 		|(new ship).getWorld() == this
+	 * @post If this world publishes the states of its ships, the given ship publishes its state.
+	 * 		|if (isPublishing()) then new.ship.isPublishing()
+	 * @throws IllegalArgumentException If this world cannot hold the given ship.
+	 * 		|!canHaveAsShip(ship)
+	 */
+	public void addShip(Ship ship) throws IllegalArgumentException {
+		if (!canHaveAsShip(ship))
+			throw new IllegalArgumentException("Ship is not a valid ship for this world");
+		this.ships.add(ship);
+		ship.setWorld(this);
+		if (this.publishing && !ship.isPublishing())
+			ship.setPublishing(true);
+	}
+
+	/**
+	 * Remove the given ship from this world.
+	 * @param ship The ship to be removed.
+	 * @post This world does not hold the given ship.
+	 * 		|!new.hasShip(ship)
+	 * @post If this world held the given ship, that ship no longer belongs to a world.
+	 * 		|if (hasShip(ship)) then (new ship).getWorld() == null
+	 */
+	public void removeShip(Ship ship) {
+		if (this.ships.remove(ship))
+			ship.setWorld(null);
+	}
+
+	private final Set<Ship> ships = new LinkedHashSet<Ship>();
+
+	/**
+	 * Checks whether the ships of this world publish their states, so they can be read from other threads through
+	 * Ship.getState while the world is stepped.
+	 */
+	@Basic
+	public boolean isPublishing() {
+		return this.publishing;
+	}
+
+	/**
+	 * Sets whether all ships in this world, and all ships added to it later on, publish their states.
+	 * @param publishing True to publish the states of the ships, false to stop publishing them.
+	 * @post This world publishes the states of its ships if and only if the given flag is true.
+	 * 		|new.isPublishing() == publishing
+	 * @post Every ship of this world publishes its state if and only if the given flag is true.
+	 * 		|for each ship in getShips(): (new ship).isPublishing() == publishing
+	 */
+	public void setPublishing(boolean publishing) {
+		this.publishing = publishing;
+		for (Ship ship : this.ships)
+			ship.setPublishing(publishing);
+	}
+
+	private boolean publishing;
+
+	/**
+	 * Returns all pairs of distinct ships in this world that overlap.
+	 * @return A list of arrays of length 2, each holding two ships of this world that overlap. Every pair is listed once.
+	 */
+	public List<Ship[]> getOverlappingPairs() {
+		SpatialGrid grid = buildGrid();
+		List<Ship[]> result = grid.getOverlappingPairs();
+		searched(grid.getNbCandidates(), result.size());
+		return result;
+	}
+
+	/**
+	 * Returns the ships of this world, apart from the given ship, whose distance to the given ship does not exceed the
+	 * given range. A single query compares the given ship with every ship of this world, since building a grid would take
+	 * as long as that comparison.
+	 * @param ship The ship to look around.
+	 * @param range The largest distance at which a ship is still considered near. Ships that overlap the given ship are
+	 * always near.
+	 * @return A list of ships, each of them with a distance to the given ship that is not larger than the given range.
+	 * @throws IllegalArgumentException If the given ship is a null-pointer, or if the given range is not a number.
+	 */
+	public List<Ship> getShipsNear(Ship ship, double range) throws IllegalArgumentException {
+		if (ship == null)
+			throw new IllegalArgumentException("Ship is not a valid ship");
+		if (Double.isNaN(range))
+			throw new IllegalArgumentException("Range is not a number");
+		List<Ship> result = new ArrayList<Ship>();
+		long candidates = 0;
+		for (Ship other : this.ships) {
+			if (other != ship) {
+				candidates++;
+				if (ship.getDistanceBetween(other) <= range)
+					result.add(other);
+			}
+		}
+		searched(candidates, result.size());
+		return result;
+	}
+
+	/**
+	 * Returns all pairs of distinct ships in this world that touch within the given time step, if every ship keeps its
+	 * current velocity. Ships that pass through each other within the step are found as well.
+	 * @param duration The length of the time step.
+	 * @return A list of impacts, ordered by the time after which both ships touch. Pairs that already overlap have a time of
+	 * zero.
+	 * @throws NegativeTimeException If the given duration is smaller than zero.
+	 */
+	public List<Impact> getImpacts(double duration) throws NegativeTimeException {
+		if (!(duration >= 0))
+			throw new NegativeTimeException(duration);
+		SpatialGrid grid = SpatialGrid.build(this.ships, duration, this.boundary, this.width, this.height);
+		List<Impact> result = grid.getImpacts();
+		Collections.sort(result);
+		searched(grid.getNbCandidates(), result.size());
+		return result;
+	}
+
+	/**
+	 * Returns the listener that is told about the work done by every query on this world, if any.
+	 */
+	@Basic
+	public BroadPhaseListener getBroadPhaseListener() {
+		return this.broadPhaseListener;
+	}
+
+	/**
+	 * Sets the listener that is told about the work done by every query on this world.
+	 * @param listener The new listener, or a null-pointer to stop telling anyone.
+	 * @post The listener of this world is equal to the given listener.
+	 * 		|new.getBroadPhaseListener() == listener
+	 */
+	public void setBroadPhaseListener(BroadPhaseListener listener) {
+		this.broadPhaseListener = listener;
+	}
+
+	private BroadPhaseListener broadPhaseListener;
+
+	/**
+	 * Tells the listener of this world, if any, about a query on this world.
+	 */
+	void searched(long nbCandidates, long nbFound) {
+		BroadPhaseListener listener = this.broadPhaseListener;
+		if (listener != null)
+			listener.searched(getNbShips(), nbCandidates, nbFound);
+	}
+
+	/**
+	 * Returns a grid holding the ships of this world at their current positions.
+	 */
+	SpatialGrid buildGrid() {
+		return SpatialGrid.build(this.ships, 0, this.boundary, this.width, this.height);
+	}
+
+	/**
+	 * Returns the displacement along the x axis between two ships of this world whose x coordinates differ by the given
+	 * amount.
+	 */
+	double getXDisplacement(double deltax) {
+		return this.boundary.getDisplacement(deltax, this.width);
+	}
+
+	/**
+	 * Returns the displacement along the y axis between two ships of this world whose y coordinates differ by the given
+	 * amount.
+	 */
+	double getYDisplacement(double deltay) {
+		return this.boundary.getDisplacement(deltay, this.height);
+	}
+
+	/**
+	 * Returns the x coordinate within this world of a ship with the given radius that moved in a straight line to the given
+	 * x coordinate.
+	 */
+	double confineX(double x, double radius) {
+		return this.boundary.confine(x, radius, this.width);
+	}
+
+	/**
+	 * Returns the y coordinate within this world of a ship with the given radius that moved in a straight line to the given
+	 * y coordinate.
+	 */
+	double confineY(double y, double radius) {
+		return this.boundary.confine(y, radius, this.height);
+	}
+
+	/**
+	 * Checks whether a ship with the given radius that moved in a straight line to the given x coordinate moves in the
+	 * opposite direction along the x axis once it is confined to this world.
+	 */
+	boolean reversesX(double x, double radius) {
+		return this.boundary.reverses(x, radius, this.width);
+	}
+
+	/**
+	 * Checks whether a ship with the given radius that moved in a straight line to the given y coordinate moves in the
+	 * opposite direction along the y axis once it is confined to this world.
+	 */
+	boolean reversesY(double y, double radius) {
+		return this.boundary.reverses(y, radius, this.height);
+	}
+
+	/**
+	 * Returns the time until both given ships of this world collide, not looking further ahead than the given horizon.
+	 */
+	double getTimeToCollision(Ship ship, Ship other, double horizon) {
+		return this.boundary.getTimeToCollision(ship, other, this.width, this.height, horizon);
+	}
+
+}